@@ -16,6 +16,16 @@ abstract class CSharpLexerBase extends Lexer
     protected final Deque<Integer> curlyLevels = new ArrayDeque<>();
     protected boolean verbatium;
 
+    @Override
+    public void reset()
+    {
+        super.reset();
+        interpolatedStringLevel = 0;
+        interpolatedVerbatiums.clear();
+        curlyLevels.clear();
+        verbatium = false;
+    }
+
     protected void OnInterpolatedRegularStringStart()
     {
         interpolatedStringLevel++;
@@ -11,15 +11,11 @@
  */
 package mapledeadlocktracker;
 
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
-import mapledeadlocktracker.graph.maker.CSharpGraph;
-import mapledeadlocktracker.graph.maker.JavaGraph;
-import mapledeadlocktracker.source.CSharpReader;
-import mapledeadlocktracker.source.JavaReader;
-
 import org.antlr.v4.runtime.tree.ParseTreeListener;
 
 /**
@@ -30,55 +26,67 @@ public class MapleDeadlockConfig {
 
 	private enum Language {
 
-		JAVA("java", JavaGraph.class, new JavaReader()),
-		CSHARP("c#", CSharpGraph.class, new CSharpReader()),
+		// front-ends are referenced by name, only the selected language gets its reader, lexer and parser classes loaded
+		JAVA("java", "mapledeadlocktracker.graph.maker.JavaGraph", "mapledeadlocktracker.source.JavaReader"),
+		CSHARP("c#", "mapledeadlocktracker.graph.maker.CSharpGraph", "mapledeadlocktracker.source.CSharpReader"),
 		UNSUPPORTED("", null, null);
 
 		private final String name;
-		private final Class<? extends MapleDeadlockGraphMaker> graph_class;
-		private final ParseTreeListener parser;
+		private final String graph_class;
+		private final String parser_class;
+
+		private Constructor<? extends MapleDeadlockGraphMaker> graph_ctor;
+		private Constructor<? extends ParseTreeListener> parser_ctor;
 
-		private Language(String name, Class<? extends MapleDeadlockGraphMaker> graph_class, ParseTreeListener parser) {
+		private Language(String name, String graph_class, String parser_class) {
 			this.name = name;
 			this.graph_class = graph_class;
-			this.parser = parser;
+			this.parser_class = parser_class;
 		}
 
 		private String getName() {
 			return this.name;
 		}
 
-		public Class<? extends MapleDeadlockGraphMaker> getGraphClass() {
-			return this.graph_class;
-		}
+		private synchronized void loadFrontEnd() throws ReflectiveOperationException {
+			if (graph_ctor == null) {
+				if (graph_class == null) {
+					throw new ClassNotFoundException("No front-end for language '" + name + "'");
+				}
 
-		private ParseTreeListener getParser() {
-			return this.parser;
-		}
+				long start = System.nanoTime();
 
-		public static Class<? extends MapleDeadlockGraphMaker> getGraphMakerByName(String name) {
-			name = name.trim().toLowerCase();
-			for (Language l : Language.values()) {
-				if(l.getName().contentEquals(name)) {
-					return l.getGraphClass();
-				}
+				graph_ctor = Class.forName(graph_class).asSubclass(MapleDeadlockGraphMaker.class).getConstructor();
+				parser_ctor = Class.forName(parser_class).asSubclass(ParseTreeListener.class).getConstructor();
+
+				frontEndLoadNanos = System.nanoTime() - start;
 			}
+		}
 
-			return UNSUPPORTED.getGraphClass();
+		public MapleDeadlockGraphMaker newGraphMaker() throws ReflectiveOperationException {
+			loadFrontEnd();
+			return graph_ctor.newInstance();
 		}
 
-		public static ParseTreeListener getParserByName(String name) {
+		public ParseTreeListener newSourceParser() throws ReflectiveOperationException {
+			loadFrontEnd();
+			return parser_ctor.newInstance();
+		}
+
+		public static Language getByName(String name) {
 			name = name.trim().toLowerCase();
 			for (Language l : Language.values()) {
 				if(l.getName().contentEquals(name)) {
-					return l.getParser();
+					return l;
 				}
 			}
 
-			return UNSUPPORTED.getParser();
+			return UNSUPPORTED;
 		}
 	}
 
+	private static long frontEndLoadNanos = 0;
+
 	private static Properties prop;
 	private static List<String> extensions;
 
@@ -103,8 +111,8 @@ public class MapleDeadlockConfig {
 
 	public static MapleDeadlockGraphMaker getGraphMakerFromProperty(String key) {
 		try {
-			return Language.getGraphMakerByName(getProperty(key)).newInstance();
-		} catch (IllegalAccessException | InstantiationException | NullPointerException e) {
+			return Language.getByName(getProperty(key)).newGraphMaker();
+		} catch (ReflectiveOperationException | NullPointerException e) {
 			e.printStackTrace();
 			return null;
 		}
@@ -112,13 +120,47 @@ public class MapleDeadlockConfig {
 
 	public static ParseTreeListener getSourceParserFromProperty(String key) {
 		try {
-			return Language.getParserByName(getProperty(key));
-		} catch (NullPointerException e) {
+			return Language.getByName(getProperty(key)).newSourceParser();     // readers hold the state of a single source file, or of the project loaded into them
+		} catch (ReflectiveOperationException | NullPointerException e) {
 			e.printStackTrace();
 			return null;
 		}
 	}
 
+	public static long getFrontEndLoadTime() {
+		return frontEndLoadNanos / 1000000;
+	}
+
+	public static int getIntProperty(String key, int defaultValue) {
+		String value = getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			System.out.println("[Warning] Invalid value '" + value + "' for property '" + key + "', using " + defaultValue);
+			return defaultValue;
+		}
+	}
+
+	public static List<String> getListProperty(String key) {
+		List<String> ret = new ArrayList<>();
+
+		String value = getProperty(key);
+		if (value != null) {
+			for (String sp : value.split(",")) {
+				sp = sp.trim();
+				if (!sp.isEmpty()) {
+					ret.add(sp);
+				}
+			}
+		}
+
+		return ret;
+	}
+
 	public static List<String> getAssociatedFileExtensions() {
 		return extensions;
 	}
@@ -11,8 +11,11 @@
  */
 package mapledeadlocktracker;
 
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import mapledeadlocktracker.containers.MapleDeadlockFunction;
+import mapledeadlocktracker.containers.Pair;
 import mapledeadlocktracker.graph.MapleDeadlockGraphMethod;
 
 /**
@@ -21,9 +24,34 @@ import mapledeadlocktracker.graph.MapleDeadlockGraphMethod;
  */
 public class MapleDeadlockGraph {
 
+	static class TypedFunction {
+
+		// what typing a function gave, a later graph of the same project takes it over while the function reads the same
+		byte[] digest;
+		MapleDeadlockGraphMethod node;
+		String warnings = "";
+		boolean lockLookup = false;
+		int lockPrefix;     // locks created by the typing before this one, only matters when it looked a lock up
+		List<Pair<String, String>> createdLocks = new LinkedList<>();    // owner class and field of the locks this typing created
+
+		TypedFunction(byte[] digest) {
+			this.digest = digest;
+		}
+
+	}
+
 	private Map<MapleDeadlockFunction, Integer> mapleGraphFunctionIds;
 	private Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> mapleGraphFunctions;
 
+	// only kept for a graph made over a previous one, null otherwise
+	private byte[] declarationDigest = null;
+	private Map<MapleDeadlockFunction, String> functionKeys = null;     // null for keys met more than once
+	private Map<MapleDeadlockFunction, String> functionShapes = null;
+	private Map<String, TypedFunction> typedFunctions = null;
+	private List<String> createdLocks = null;
+	private Map<Integer, String> lockNames = null;
+	private int retypedFunctions = 0;
+
 	public MapleDeadlockGraph(Map<MapleDeadlockFunction, Integer> mapleGraphFunctionIds, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> mapleGraphFunctions) {
 		this.mapleGraphFunctionIds = mapleGraphFunctionIds;
 		this.mapleGraphFunctions = mapleGraphFunctions;
@@ -37,4 +65,43 @@ public class MapleDeadlockGraph {
 		return this.mapleGraphFunctions;
 	}
 
+	void setTypedFunctions(byte[] declarationDigest, Map<MapleDeadlockFunction, String> functionKeys, Map<MapleDeadlockFunction, String> functionShapes, Map<String, TypedFunction> typedFunctions, List<String> createdLocks, Map<Integer, String> lockNames, int retypedFunctions) {
+		this.declarationDigest = declarationDigest;
+		this.functionKeys = functionKeys;
+		this.functionShapes = functionShapes;
+		this.typedFunctions = typedFunctions;
+		this.createdLocks = createdLocks;
+		this.lockNames = lockNames;
+		this.retypedFunctions = retypedFunctions;
+	}
+
+	byte[] getDeclarationDigest() {
+		return declarationDigest;
+	}
+
+	public Map<MapleDeadlockFunction, String> getFunctionKeys() {
+		return functionKeys;
+	}
+
+	public Map<MapleDeadlockFunction, String> getFunctionShapes() {
+		// callee keys and lock names met in each function, in graph order. A function keeping its shape is walked the same way
+		return functionShapes;
+	}
+
+	Map<String, TypedFunction> getTypedFunctions() {
+		return typedFunctions;
+	}
+
+	List<String> getCreatedLocks() {
+		return createdLocks;
+	}
+
+	Map<Integer, String> getLockNames() {
+		return lockNames;
+	}
+
+	public int getRetypedFunctionCount() {
+		return retypedFunctions;
+	}
+
 }
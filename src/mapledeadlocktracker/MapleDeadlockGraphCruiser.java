@@ -12,26 +12,39 @@
 package mapledeadlocktracker;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.Stack;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import mapledeadlocktracker.containers.MapleDeadlockCycle;
 import mapledeadlocktracker.containers.MapleDeadlockEntry;
 import mapledeadlocktracker.containers.MapleDeadlockFunction;
+import mapledeadlocktracker.containers.MapleDeadlockIdSet;
+import mapledeadlocktracker.containers.MapleDeadlockLockSequence;
 import mapledeadlocktracker.containers.MapleDeadlockStorage;
 import mapledeadlocktracker.containers.Pair;
 import mapledeadlocktracker.graph.MapleDeadlockGraphEntry;
 import mapledeadlocktracker.graph.MapleDeadlockGraphMethod;
 import mapledeadlocktracker.graph.MapleDeadlockGraphNode;
+import mapledeadlocktracker.graph.MapleDeadlockGraphNodeType;
 
 /**
  *
@@ -39,18 +52,151 @@ import mapledeadlocktracker.graph.MapleDeadlockGraphNode;
  */
 public class MapleDeadlockGraphCruiser {
 
-	private final static MapleDeadlockGraphCruiser instance = new MapleDeadlockGraphCruiser();
+	private static class FunctionPathNode {
 
-	private class FunctionPathNode {
-
-		Set<Integer> acquiredLocks = new HashSet<>();
-		List<Integer> seqLocks = new LinkedList<>();
-		List<Integer> seqAcqLocks = new ArrayList<>();
+		MapleDeadlockIdSet acquiredLocks = new MapleDeadlockIdSet();     // dense lock indexes
+		MapleDeadlockLockSequence seqLocks = MapleDeadlockLockSequence.EMPTY;     // shared with the caller's until changed
+		MapleDeadlockLockSequence seqAcqLocks = MapleDeadlockLockSequence.EMPTY;
                 List<Integer> seqIntAcqLocks = Collections.emptyList();
+                int intAcqStart = 0;    // where seqIntAcqLocks starts in seqAcqLocks, laid out once the walk is done
                 Integer startAt;
 
 	}
 
+	private static class FunctionFrame {
+
+		// frames are kept on an explicit stack and reused by the functions visited at the same depth
+		MapleDeadlockFunction function;
+		FunctionPathNode trace = new FunctionPathNode();
+		FunctionPathNode uptrace;
+
+		Iterator<MapleDeadlockGraphEntry> entries;
+		Iterator<MapleDeadlockGraphNode> nodes = Collections.emptyIterator();
+		boolean pathBound;  // the outcome depends on the call path, a recursive call was cut or a script warned with the path
+		long milestoneEpoch;    // milestone changes seen by the walk when the function was entered
+
+
+		private MapleDeadlockGraphNode nextNode() {
+			while (!nodes.hasNext()) {
+				if (!entries.hasNext()) {
+					return null;
+				}
+
+				nodes = entries.next().getGraphEntryPoints().iterator();
+			}
+
+			return nodes.next();
+		}
+
+	}
+
+	private static class FunctionContext {
+
+		int functionId;
+		MapleDeadlockLockSequence seqLocks;     // held locks when the function was entered
+
+		private FunctionContext(int functionId, MapleDeadlockLockSequence seqLocks) {
+			this.functionId = functionId;
+			this.seqLocks = seqLocks;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * functionId + seqLocks.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof FunctionContext)) {
+				return false;
+			}
+
+			FunctionContext c = (FunctionContext) o;
+			return functionId == c.functionId && seqLocks.equals(c.seqLocks);
+		}
+
+	}
+
+	private static class FunctionContextMemo {
+
+		// held locks a function returns with, per context it was entered with, the least recently used ones go past the capacity
+		// a walk is only as good as the milestones it ran into, every result is dropped once a milestone changes
+		int capacity;
+		long milestoneEpoch = 0;
+		Map<FunctionContext, MapleDeadlockLockSequence> results;
+
+		long lookups = 0;
+		long hits = 0;
+		long evictions = 0;
+
+		private FunctionContextMemo(int capacity) {
+			this.capacity = capacity;
+			this.results = new LinkedHashMap<FunctionContext, MapleDeadlockLockSequence>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Entry<FunctionContext, MapleDeadlockLockSequence> eldest) {
+					if (size() > FunctionContextMemo.this.capacity) {
+						evictions++;
+						return true;
+					}
+
+					return false;
+				}
+			};
+		}
+
+		private void setMilestoneEpoch(long epoch) {
+			if (milestoneEpoch != epoch) {
+				milestoneEpoch = epoch;
+				results.clear();
+			}
+		}
+
+		private MapleDeadlockLockSequence get(MapleDeadlockFunction f, MapleDeadlockLockSequence seqLocks, long epoch) {
+			lookups++;
+			setMilestoneEpoch(epoch);
+
+			MapleDeadlockLockSequence ret = results.get(new FunctionContext(f.getId(), seqLocks));
+			if (ret != null) {
+				hits++;
+			}
+
+			return ret;
+		}
+
+		private void put(MapleDeadlockFunction f, MapleDeadlockLockSequence seqLocks, MapleDeadlockLockSequence result, long epoch) {
+			setMilestoneEpoch(epoch);
+			results.put(new FunctionContext(f.getId(), seqLocks), result);
+		}
+
+	}
+
+	private static class WalkBudget {
+
+		// shared by the walkers of a run, a limit of 0 is no limit
+		long deadline;
+		long nodeLimit;
+		long entryNodeLimit;
+
+		AtomicLong nodes = new AtomicLong(0);
+		volatile boolean exhausted = false;
+
+		private WalkBudget(long timeLimit, long nodeLimit, long entryNodeLimit) {
+			this.deadline = timeLimit > 0 ? System.nanoTime() + timeLimit * 1000000000L : Long.MAX_VALUE;
+			this.nodeLimit = nodeLimit;
+			this.entryNodeLimit = entryNodeLimit;
+		}
+
+		private boolean spend(long entryNodes) {
+			long n = nodes.incrementAndGet();
+			if ((nodeLimit > 0 && n > nodeLimit) || ((n & 1023) == 0 && System.nanoTime() > deadline)) {
+				exhausted = true;
+			}
+
+			return !exhausted && (entryNodeLimit <= 0 || entryNodes <= entryNodeLimit);
+		}
+
+	}
+
 	private class FunctionLockElement {
 
 		Integer lockId;
@@ -63,31 +209,42 @@ public class MapleDeadlockGraphCruiser {
 			this.count = 1;
 		}
 
-		protected void increment() {
-			this.count += 1;
-		}
+	}
 
-		protected boolean decrementAndZero() {
-			this.count -= 1;
-			return this.count <= 0;
-		}
+	Set<MapleDeadlockEntry> deadlocks = new LinkedHashSet<>();
+	List<MapleDeadlockCycle> lockCycles = new ArrayList<>();     // lock-order cycles over more than two locks
+	Integer lockCycleLimit = null;     // set when the cycles over more than two locks were cut at their limit
 
-	}
+	Map<MapleDeadlockFunction, MapleDeadlockIdSet> functionMilestones = new HashMap<>();     // dense lock indexes
+
+	Map<MapleDeadlockFunction, FunctionPathNode> functionLocks = new LinkedHashMap<>();     // function id order, regardless of object hashes
+	Map<Integer, MapleDeadlockIdSet> lockFunctions = new HashMap<>();     // lock id -> function ids
 
-	static Set<MapleDeadlockEntry> deadlocks = new HashSet<>();
+	Map<Integer, MapleDeadlockFunction> functions = new HashMap<>();
+	MapleDeadlockIdSet recursiveFunctions = new MapleDeadlockIdSet();     // function ids calling back into themselves, directly or not
+	long memoLookups = 0, memoHits = 0, memoEvictions = 0;
 
-	static Stack<MapleDeadlockFunction> functionStack = new Stack<>();
-	static Map<MapleDeadlockFunction, Integer> functionMap = new HashMap<>();
-	static Map<MapleDeadlockFunction, Set<Integer>> functionMilestones = new HashMap<>();
+	WalkBudget walkBudget = null;
+	MapleDeadlockIdSet visitedFunctions = new MapleDeadlockIdSet();
+	int reachableFunctions = 0;
+	int entryPoints = 0;
+	int completedEntryPoints = 0;
+	Map<Integer, Map<Integer, FunctionLockElement>> lockDependencies = new HashMap<>();
 
-	static Map<MapleDeadlockFunction, FunctionPathNode> functionLocks = new HashMap<>();
-	static Map<Integer, Set<MapleDeadlockFunction>> lockFunctions = new HashMap<>();
+	int lockBase = 0;
+	int[] lockIndexes = new int[0];  // lock id - lockBase -> dense lock index
+	int[] indexLocks = new int[0];   // dense lock index -> lock id
 
-	static Map<Integer, MapleDeadlockFunction> functions = new HashMap<>();
-	static Map<Integer, Map<Integer, FunctionLockElement>> lockDependencies = new HashMap<>();
+	// what the next walk over a changed graph of the same project takes over from this one
+	MapleDeadlockGraph sourceGraph = null;
+	Map<Integer, String> lockNames = null;
+	List<MapleDeadlockFunction> entryFunctionList = Collections.emptyList();
+	List<List<Integer>> entryGroupList = Collections.emptyList();
+	StringBuilder[] entryWarnings = new StringBuilder[0];
+	MapleDeadlockGraphCruiser previousCruiser = null;
 
 	private static Pattern p = Pattern.compile("([\\w\\d_\\.]*)(\\[([\\w\\d_\\.]*)\\])?");
-	private static List<Pair<String,String>> startingMethods = startingMethods(MapleDeadlockConfig.getProperty("entry_points"));
+	private List<Pair<String,String>> startingMethods = startingMethods(MapleDeadlockConfig.getProperty("entry_points"));
 
 	private static List<Pair<String,String>> startingMethods(String methodSeq) {
 		List<Pair<String,String>> list = new LinkedList<>();
@@ -103,7 +260,7 @@ public class MapleDeadlockGraphCruiser {
 		return list;
 	}
 
-	private static boolean isStartingFunction(MapleDeadlockFunction f) {
+	private boolean isStartingFunction(MapleDeadlockFunction f) {
 		String fName = f.getName();
 		String cName = MapleDeadlockStorage.getCanonClassName(f.getSourceClass());
 
@@ -116,26 +273,33 @@ public class MapleDeadlockGraphCruiser {
 		return false;
 	}
 
-	private static void commitFunctionAcquiredLocks(MapleDeadlockFunction f, FunctionPathNode trace, FunctionPathNode uptrace) {
-		Set<Integer> ongoingLocks = trace.acquiredLocks;
-		Set<Integer> locks = functionLocks.get(f).acquiredLocks;
-		List<Integer> acqLocks = functionLocks.get(f).seqAcqLocks;
+	private static void commitFunctionAcquiredLocks(FunctionPathNode fnode, FunctionPathNode trace, FunctionPathNode uptrace) {
+		MapleDeadlockIdSet ongoingLocks = trace.acquiredLocks;
+		MapleDeadlockIdSet locks = fnode.acquiredLocks;
 
-		if (acqLocks.size() < trace.seqAcqLocks.size()) {
+		if (fnode.seqAcqLocks.size() < trace.seqAcqLocks.size()) {
 			locks.clear();
 			locks.addAll(ongoingLocks);
 
-			acqLocks.clear();
-			acqLocks.addAll(trace.seqAcqLocks);
-                        
-                        if (uptrace.startAt < acqLocks.size()) {
-                                functionLocks.get(f).seqIntAcqLocks = acqLocks.subList(uptrace.startAt, acqLocks.size());
-                        } else {
-                                functionLocks.get(f).seqIntAcqLocks = Collections.emptyList();
-                        }
+			fnode.seqAcqLocks = trace.seqAcqLocks;
+			fnode.intAcqStart = Math.min(uptrace.startAt, trace.seqAcqLocks.size());
+		}
+
+		returnFunctionLockSequence(trace.seqLocks, uptrace);
+	}
+
+	private static void returnFunctionLockSequence(MapleDeadlockLockSequence seqLocks, FunctionPathNode uptrace) {
+		// sequences are immutable, the caller takes over the callee's instead of a copy
+		uptrace.seqAcqLocks = getHeldLockSequence(seqLocks);
+		uptrace.seqLocks = seqLocks.prefix(Math.min(uptrace.seqLocks.size(), seqLocks.size()));
+	}
+
+	private static MapleDeadlockLockSequence getHeldLockSequence(MapleDeadlockLockSequence seqLocks) {
+		if (!seqLocks.hasNonPositive()) {
+			return seqLocks;
 		}
 
-		List<Integer> list = new ArrayList<>(trace.seqLocks);
+		List<Integer> list = seqLocks.toList(0);
 		List<Integer> toRemove = new LinkedList<>();
 		for (int i = 0; i < list.size(); i++) {
 			if (list.get(i) <= 0) {
@@ -146,126 +310,774 @@ public class MapleDeadlockGraphCruiser {
 			list.remove(toRemove.get(i));
 		}
 
-		uptrace.seqAcqLocks = list;
-		uptrace.seqLocks = trace.seqLocks.subList(0, Math.min(uptrace.seqLocks.size(), trace.seqLocks.size()));
+		MapleDeadlockLockSequence ret = MapleDeadlockLockSequence.EMPTY;
+		for (Integer lockId : list) {
+			ret = ret.add(lockId);
+		}
+
+		return ret;
 	}
 
-	private static void sourceGraphFunctionLock(int lockId, FunctionPathNode ongoingLocks) {
-		ongoingLocks.seqLocks.add(lockId);
-		ongoingLocks.seqAcqLocks.add(lockId);
-		ongoingLocks.acquiredLocks.add(lockId);
+	private void sourceGraphFunctionLock(int lockId, FunctionPathNode ongoingLocks) {
+		ongoingLocks.seqLocks = ongoingLocks.seqLocks.add(lockId);
+		ongoingLocks.seqAcqLocks = ongoingLocks.seqAcqLocks.add(lockId);
+		ongoingLocks.acquiredLocks.add(getLockIndex(lockId));
 	}
 
 	private static void sourceGraphFunctionUnlock(int lockId, FunctionPathNode ongoingLocks) {
-		List<Integer> list = ongoingLocks.seqLocks;
-		int idx = list.lastIndexOf(lockId);
+		int idx = ongoingLocks.seqLocks.lastIndexOf(lockId);
 		if (idx > -1) {
-			list.remove(idx);
-			ongoingLocks.seqAcqLocks.add(-lockId); // represents unlock in a lane graph
+			ongoingLocks.seqLocks = ongoingLocks.seqLocks.remove(idx);
+			ongoingLocks.seqAcqLocks = ongoingLocks.seqAcqLocks.add(-lockId); // represents unlock in a lane graph
 		}
 	}
 
-	private static void sourceGraphFunctionScript(FunctionPathNode ongoingLocks) {
+	private static void sourceGraphFunctionScript(String callPath, FunctionPathNode ongoingLocks, StringBuilder warnings) {
 		if (!ongoingLocks.acquiredLocks.isEmpty()) {
+			String s = "[WARNING] " + callPath + " has acquired lock count: " + ongoingLocks.acquiredLocks.size();
+			if (warnings != null) {
+				warnings.append(s).append('\n');
+			} else {
+				System.out.println(s);
+			}
+		}
+	}
+
+	private class FunctionPathWalker {
+
+		// state of a single walk over the call graph, what it finds goes into the given milestone and lock tables
+		FunctionFrame[] functionStack = new FunctionFrame[64];
+		int functionDepth = 0;
+		Set<MapleDeadlockFunction> functionPath = new HashSet<>();
+
+		Map<MapleDeadlockFunction, MapleDeadlockIdSet> milestones;
+		Map<MapleDeadlockFunction, FunctionPathNode> locks;
+		FunctionContextMemo memo;
+		long milestoneEpoch = 0;    // counts the milestone changes of this walk
+
+		WalkBudget budget = walkBudget;
+		MapleDeadlockIdSet visited = walkBudget != null ? new MapleDeadlockIdSet() : null;
+		int completedEntries = 0;
+
+		StringBuilder warnings = null;     // when walked off the main thread, printed later in the entry point order
+
+		private FunctionPathWalker(Map<MapleDeadlockFunction, MapleDeadlockIdSet> milestones, Map<MapleDeadlockFunction, FunctionPathNode> locks) {
+			this.milestones = milestones;
+			this.locks = locks;
+
+			int memoSize = MapleDeadlockConfig.getIntProperty("context_memo_size", 0);
+			this.memo = memoSize > 0 ? new FunctionContextMemo(memoSize) : null;
+		}
+
+		private String getFunctionStackNames() {
 			String s = "";
 
-			ListIterator<MapleDeadlockFunction> i = functionStack.listIterator();
-			while (i.hasNext()) {
-				MapleDeadlockFunction f = i.next();
+			for (int i = 0; i < functionDepth; i++) {
+				MapleDeadlockFunction f = functionStack[i].function;
 				s += f.getName() + ",";
 			}
 
-			System.out.println("[WARNING] " + s.substring(0, s.length() - 1) + " has acquired lock count: " + ongoingLocks.acquiredLocks.size());
+			return s.substring(0, s.length() - 1);
 		}
-	}
 
-	private static void insertGraphFunction(MapleDeadlockFunction f) {
-		Integer i = functionMap.get(f);
-		if (i == null) functionMap.put(f, 1);
-		else functionMap.put(f, i + 1);
+		private void enterGraphFunction(MapleDeadlockFunction f, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g, FunctionPathNode uptrace) {
+			MapleDeadlockIdSet s = milestones.computeIfAbsent(f, k -> new MapleDeadlockIdSet());
+			boolean changed = s.addAll(uptrace.acquiredLocks);
+			if (changed) {
+				milestoneEpoch++;
+			}
+
+			// a function is explored again only when reached holding locks not seen there yet, and never while already in the call path
+			if (changed || s.isEmpty()) {
+				if (functionPath.contains(f)) {
+					if (functionDepth > 0) {
+						functionStack[functionDepth - 1].pathBound = true;
+					}
+					return;
+				}
+
+				if (memo != null) {
+					// entered before holding the same locks, with no milestone changed since, the walk would go the same way again
+					MapleDeadlockLockSequence seqLocks = memo.get(f, uptrace.seqLocks, milestoneEpoch);
+					if (seqLocks != null) {
+						returnFunctionLockSequence(seqLocks, uptrace);
+						return;
+					}
+				}
+
+				functionPath.add(f);
+				if (visited != null) {
+					visited.add(f.getId());
+				}
+
+				if (functionDepth == functionStack.length) {
+					functionStack = Arrays.copyOf(functionStack, 2 * functionDepth);
+				}
+
+				FunctionFrame frame = functionStack[functionDepth];
+				if (frame == null) {
+					frame = new FunctionFrame();
+					functionStack[functionDepth] = frame;
+				}
+				functionDepth++;
+
+				FunctionPathNode ftrace = frame.trace;
+				ftrace.acquiredLocks.clear();
+				ftrace.seqAcqLocks = MapleDeadlockLockSequence.EMPTY;
+				ftrace.seqLocks = uptrace.seqLocks;
+				ftrace.startAt = ftrace.seqLocks.size();
+
+				frame.function = f;
+				frame.uptrace = uptrace;
+				frame.entries = g.get(f).getEntryList().iterator();
+				frame.nodes = Collections.emptyIterator();
+				frame.pathBound = false;
+				frame.milestoneEpoch = milestoneEpoch;
+			}
+		}
+
+		private void leaveGraphFunction(FunctionFrame frame, int baseDepth, boolean complete) {
+			// only a walk leaving every milestone as it was can be skipped later on, it would go the same way, its outcome is already in the tables
+			// in a recursive function the call path decides where the walk is cut, it isn't remembered
+			if (memo != null && complete && !frame.pathBound && frame.milestoneEpoch == milestoneEpoch && !recursiveFunctions.contains(frame.function.getId())) {
+				memo.put(frame.function, frame.uptrace.seqLocks, frame.trace.seqLocks, milestoneEpoch);
+			}
+			if (frame.pathBound && functionDepth - 1 > baseDepth) {
+				functionStack[functionDepth - 2].pathBound = true;
+			}
+
+			commitFunctionAcquiredLocks(locks.computeIfAbsent(frame.function, k -> newFunctionPathNode()), frame.trace, frame.uptrace);
+			functionPath.remove(frame.function);
+
+			frame.function = null;
+			frame.uptrace = null;
+			frame.entries = null;
+			functionDepth--;
+		}
+
+		private void runSourceGraphFunction(MapleDeadlockFunction f, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g, FunctionPathNode uptrace) {
+			// depth-first over the call graph, calls push a frame instead of recursing so deep call chains don't need a deep thread stack
+			int baseDepth = functionDepth;
+			long entryNodes = 0;
+			enterGraphFunction(f, g, uptrace);
+
+			while (functionDepth > baseDepth) {
+				FunctionFrame frame = functionStack[functionDepth - 1];
+				FunctionPathNode ftrace = frame.trace;
+
+				MapleDeadlockGraphNode n = frame.nextNode();
+				if (n == null) {
+					leaveGraphFunction(frame, baseDepth, true);
+					continue;
+				}
+
+				if (budget != null && !budget.spend(++entryNodes)) {
+					// out of budget, the locks seen so far are kept, the unfinished functions just aren't remembered as walked through
+					while (functionDepth > baseDepth) {
+						leaveGraphFunction(functionStack[functionDepth - 1], baseDepth, false);
+					}
+					return;
+				}
+
+				switch (n.getType()) {
+				case CALL:
+					enterGraphFunction(functions.get(n.getValue()), g, ftrace);
+					break;
+
+				case LOCK:
+					sourceGraphFunctionLock(n.getLockId(), ftrace);
+					break;
+
+				case UNLOCK:
+					sourceGraphFunctionUnlock(n.getLockId(), ftrace);
+					break;
+
+				case SCRIPT:
+					sourceGraphFunctionScript(getFunctionStackNames(), ftrace, warnings);
+					frame.pathBound |= !ftrace.acquiredLocks.isEmpty();
+					break;
+				}
+			}
+
+			completedEntries++;
+		}
 	}
 
-	private static void removeGraphFunction(MapleDeadlockFunction f) {
-		Integer i = functionMap.get(f);
-		if (i == 1) functionMap.remove(f);
-		else functionMap.put(f, i - 1);
+	private List<MapleDeadlockFunction> getFunctionCallees(MapleDeadlockFunction f, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g) {
+		Set<MapleDeadlockFunction> callees = new LinkedHashSet<>();
+		for (MapleDeadlockGraphEntry e : g.get(f).getEntryList()) {
+			for (MapleDeadlockGraphNode n : e.getGraphEntryPoints()) {
+				if (n.getType() == MapleDeadlockGraphNodeType.CALL) {
+					callees.add(functions.get(n.getValue()));
+				}
+			}
+		}
+
+		return new ArrayList<>(callees);
 	}
 
-	private void runSourceGraphFunction(MapleDeadlockFunction f, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g, FunctionPathNode uptrace) {
-		Set<Integer> s = functionMilestones.get(f);
-		int size = s.size();
-		s.addAll(uptrace.acquiredLocks);
+	private static <T> List<List<T>> findStrongComponents(List<T> roots, Function<T, List<T>> successors) {
+		// Tarjan's strongly connected components over what is reachable from the roots, components reached from another come out first
+		List<List<T>> components = new ArrayList<>();
 
-		if (s.size() > size || s.size() == 0) {
-			int curBaseIdx = functionStack.size();
-			functionStack.add(f);
+		Map<T, Integer> index = new HashMap<>();
+		Map<T, Integer> lowlink = new HashMap<>();
+		Set<T> onStack = new HashSet<>();
+		Deque<T> stack = new ArrayDeque<>();
 
-			while (functionStack.size() > curBaseIdx) {
-				MapleDeadlockFunction mdf = functionStack.pop();
-				if (!functionMap.containsKey(mdf)) {
-					functionStack.add(mdf);
-					insertGraphFunction(mdf);
+		Deque<Pair<T, Iterator<T>>> work = new ArrayDeque<>();     // explicit stack, call chains can be very deep
 
-                                        
-                                        FunctionPathNode ftrace = new FunctionPathNode();
-					ftrace.seqLocks.addAll(uptrace.seqLocks);
-                                        ftrace.startAt = ftrace.seqLocks.size();
+		for (T root : roots) {
+			if (index.containsKey(root)) {
+				continue;
+			}
 
-					for (MapleDeadlockGraphEntry e : g.get(mdf).getEntryList()) {
-						for (MapleDeadlockGraphNode n : e.getGraphEntryPoints()) {
-							switch (n.getType()) {
-							case CALL:
-								runSourceGraphFunction(functions.get(n.getValue()), g, ftrace);
-								break;
+			index.put(root, index.size());
+			lowlink.put(root, index.get(root));
+			stack.push(root);
+			onStack.add(root);
+			work.push(new Pair<>(root, successors.apply(root).iterator()));
+
+			while (!work.isEmpty()) {
+				Pair<T, Iterator<T>> top = work.peek();
+				T v = top.left;
+
+				if (top.right.hasNext()) {
+					T w = top.right.next();
+					if (!index.containsKey(w)) {
+						index.put(w, index.size());
+						lowlink.put(w, index.get(w));
+						stack.push(w);
+						onStack.add(w);
+						work.push(new Pair<>(w, successors.apply(w).iterator()));
+					} else if (onStack.contains(w)) {
+						lowlink.put(v, Math.min(lowlink.get(v), index.get(w)));
+					}
+					continue;
+				}
 
-							case LOCK:
-								sourceGraphFunctionLock(n.getLockId(), ftrace);
-								break;
+				work.pop();
+				if (!work.isEmpty()) {
+					T u = work.peek().left;
+					lowlink.put(u, Math.min(lowlink.get(u), lowlink.get(v)));
+				}
 
-							case UNLOCK:
-								sourceGraphFunctionUnlock(n.getLockId(), ftrace);
-								break;
+				if (lowlink.get(v).equals(index.get(v))) {
+					List<T> component = new ArrayList<>();
 
-							case SCRIPT:
-								sourceGraphFunctionScript(ftrace);
-								break;
-							}
-						}
-					}
+					T w;
+					do {
+						w = stack.pop();
+						onStack.remove(w);
+						component.add(w);    // deepest first, as the path walk would finish them
+					} while (w != v);
 
-					commitFunctionAcquiredLocks(mdf, ftrace, uptrace);
-					removeGraphFunction(mdf);
-					functionStack.pop();
+					components.add(component);
 				}
 			}
 		}
+
+		return components;
 	}
 
-	private static void prepareFunctionMilestones() {
+	private void prepareFunctionMilestones() {
 		for (Entry<Integer, MapleDeadlockFunction> f : functions.entrySet()) {
-			functionMilestones.put(f.getValue(), new HashSet<>(5));
+			functionMilestones.put(f.getValue(), new MapleDeadlockIdSet());
 		}
 	}
 
-	public static void makeRemissiveIndexFunctions(MapleDeadlockGraph graph) {
+	public void makeRemissiveIndexFunctions(MapleDeadlockGraph graph) {
 		for (Entry<MapleDeadlockFunction, Integer> e : graph.getFunctionIds().entrySet()) {
 			functions.put(e.getValue(), e.getKey());
 		}
 	}
 
+	private void makeRemissiveIndexLocks(MapleDeadlockGraph graph) {
+		// lock ids are remapped to a dense range, so lock sets are plain bit words
+		TreeSet<Integer> lockIds = new TreeSet<>();
+		for (MapleDeadlockGraphMethod m : graph.getFunctionGraph().values()) {
+			for (MapleDeadlockGraphEntry e : m.getEntryList()) {
+				for (MapleDeadlockGraphNode n : e.getGraphEntryPoints()) {
+					if (n.getType() == MapleDeadlockGraphNodeType.LOCK || n.getType() == MapleDeadlockGraphNodeType.UNLOCK) {
+						lockIds.add(n.getLockId());
+					}
+				}
+			}
+		}
+
+		if (lockIds.isEmpty()) {
+			lockBase = 0;
+			lockIndexes = new int[0];
+			indexLocks = new int[0];
+			return;
+		}
+
+		lockBase = lockIds.first();
+		lockIndexes = new int[lockIds.last() - lockBase + 1];
+		indexLocks = new int[lockIds.size()];
+
+		int b = 0;
+		for (Integer lockId : lockIds) {
+			lockIndexes[lockId - lockBase] = b;
+			indexLocks[b] = lockId;
+			b++;
+		}
+	}
+
+	private int getLockIndex(int lockId) {
+		return lockIndexes[lockId - lockBase];
+	}
+
+	private List<Integer> getLockIds(MapleDeadlockIdSet s) {
+		List<Integer> list = new ArrayList<>();
+		for (int b = s.nextId(0); b >= 0; b = s.nextId(b + 1)) {
+			list.add(indexLocks[b]);
+		}
+
+		return list;
+	}
+
+	private Set<Integer> getMilestoneLockIds(MapleDeadlockIdSet s) {
+		// listed the way the milestone sets were before being kept as bit words, in hash set order
+		Set<Integer> set = new HashSet<>(5);
+		set.addAll(getLockIds(s));
+		return set;
+	}
+
 	private void findFunctionLocks(MapleDeadlockGraph graph, MapleDeadlockStorage storage) {
 		prepareFunctionMilestones();
 
 		Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> functionGraph = graph.getFunctionGraph();
                 Set<MapleDeadlockFunction> runMethods = storage.getRunnableMethods();
                 
+                List<MapleDeadlockFunction> entryFunctions = new ArrayList<>();
 		for (Entry<MapleDeadlockFunction, MapleDeadlockGraphMethod> e : functionGraph.entrySet()) {
 			MapleDeadlockFunction f = e.getKey();
                         if (isStartingFunction(f) || runMethods.contains(f)) {
-				//System.out.println("Reading " + MapleDeadlockStorage.getCanonClassName(f.getSourceClass()) + " >> " + f.getName());
-				FunctionPathNode trace = new FunctionPathNode();
-                                trace.startAt = 0;
-				runSourceGraphFunction(f, functionGraph, trace);
+				entryFunctions.add(f);
+			}
+		}
+
+		walkBudget = getWalkBudget();
+		entryPoints = entryFunctions.size();
+
+		// entry points reaching no function in common don't see each other's milestones, each group is walked on its own
+		int[] entryGroups = getEntryFunctionGroups(entryFunctions, functionGraph);
+		if (MapleDeadlockConfig.getIntProperty("context_memo_size", 0) > 0) {
+			findRecursiveFunctions(entryFunctions, functionGraph);
+		}
+
+		List<List<Integer>> groups = getEntryGroupLists(entryGroups);
+		if (walkBudget != null) {
+			groups = prioritizeEntryGroups(groups, entryFunctions, functionGraph);
+		}
+
+		entryFunctionList = entryFunctions;
+		entryGroupList = groups;
+		entryWarnings = new StringBuilder[entryFunctions.size()];
+		if (previousCruiser != null && walkBudget == null) {
+			groups = takeOverEntryGroups(groups, entryFunctions, graph);
+		}
+
+		int nThreads = getCruiserThreadCount();
+		if (nThreads > 1) {
+			walkEntryFunctions(entryFunctions, groups, functionGraph, nThreads);
+		} else {
+			for (List<Integer> entries : groups) {
+				FunctionPathWalker walker = new FunctionPathWalker(functionMilestones, functionLocks);
+				runEntryGroup(walker, entries, entryFunctions, entryWarnings, functionGraph);
+				countFunctionPathWalker(walker);
+			}
+		}
+		printEntryWarnings(entryWarnings);
+
+		reportFunctionContextMemo();
+		if (isPartialWalk()) {
+			System.out.println("[Warning] Exploration budget ran out after " + walkBudget.nodes.get() + " graph nodes, " + completedEntryPoints + "/" + entryPoints + " entry points walked through, " + String.format("%.1f", getCoverage()) + "% of the reachable functions visited\n");
+		}
+	}
+
+	private void findRecursiveFunctions(List<MapleDeadlockFunction> entryFunctions, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g) {
+		for (List<MapleDeadlockFunction> component : findStrongComponents(entryFunctions, f -> getFunctionCallees(f, g))) {
+			MapleDeadlockFunction f = component.get(0);
+			if (component.size() > 1 || getFunctionCallees(f, g).contains(f)) {
+				for (MapleDeadlockFunction r : component) {
+					recursiveFunctions.add(r.getId());
+				}
+			}
+		}
+	}
+
+	private static WalkBudget getWalkBudget() {
+		long timeLimit = MapleDeadlockConfig.getIntProperty("cruiser_time_limit", 0);
+		long nodeLimit = MapleDeadlockConfig.getIntProperty("cruiser_node_limit", 0);
+		long entryNodeLimit = MapleDeadlockConfig.getIntProperty("cruiser_entry_node_limit", 0);
+
+		if (timeLimit <= 0 && nodeLimit <= 0 && entryNodeLimit <= 0) {
+			return null;
+		}
+
+		return new WalkBudget(timeLimit, nodeLimit, entryNodeLimit);
+	}
+
+	private boolean isPartialWalk() {
+		return walkBudget != null && completedEntryPoints < entryPoints;
+	}
+
+	private double getCoverage() {
+		return reachableFunctions > 0 ? 100.0 * visitedFunctions.size() / reachableFunctions : 100.0;
+	}
+
+	public Double getPartialCoverage() {
+		// percentage of the reachable functions visited when the walk was cut short by its budget, null after a full walk
+		return isPartialWalk() ? getCoverage() : null;
+	}
+
+	private void countFunctionPathWalker(FunctionPathWalker walker) {
+		completedEntryPoints += walker.completedEntries;
+		if (walker.visited != null) {
+			visitedFunctions.addAll(walker.visited);
+		}
+
+		countFunctionContextMemo(walker);
+	}
+
+	private void countFunctionContextMemo(FunctionPathWalker walker) {
+		if (walker.memo != null) {
+			memoLookups += walker.memo.lookups;
+			memoHits += walker.memo.hits;
+			memoEvictions += walker.memo.evictions;
+		}
+	}
+
+	private void reportFunctionContextMemo() {
+		if (MapleDeadlockConfig.getIntProperty("context_memo_size", 0) > 0) {
+			double hitRate = memoLookups > 0 ? 100.0 * memoHits / memoLookups : 0.0;
+			System.out.println("Calling-context memo: " + memoHits + " hits, " + (memoLookups - memoHits) + " misses (" + String.format("%.1f", hitRate) + "% hit rate), " + memoEvictions + " evicted\n");
+		}
+	}
+
+	private static int getCruiserThreadCount() {
+		int nThreads = MapleDeadlockConfig.getIntProperty("cruiser_threads", 1);
+		if (nThreads <= 0) {
+			nThreads = Runtime.getRuntime().availableProcessors();
+		}
+
+		return nThreads;
+	}
+
+	private static FunctionPathNode newFunctionPathNode() {
+		FunctionPathNode n = new FunctionPathNode();
+		n.startAt = 0;
+		return n;
+	}
+
+	private int[] getEntryFunctionGroups(List<MapleDeadlockFunction> entryFunctions, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g) {
+		// entry points sharing some reachable function fall in the same group, groups are numbered by their first entry point
+		int nEntries = entryFunctions.size();
+		int[] parent = new int[nEntries];
+
+		Map<MapleDeadlockFunction, Integer> owners = new HashMap<>();
+		Deque<MapleDeadlockFunction> stack = new ArrayDeque<>();
+
+		for (int i = 0; i < nEntries; i++) {
+			parent[i] = i;
+
+			stack.push(entryFunctions.get(i));
+			while (!stack.isEmpty()) {
+				MapleDeadlockFunction f = stack.pop();
+
+				Integer owner = owners.get(f);
+				if (owner != null) {
+					// already reached from an earlier entry point, so is everything under it
+					int a = findEntryGroup(parent, owner), b = findEntryGroup(parent, i);
+					parent[Math.max(a, b)] = Math.min(a, b);
+					continue;
+				}
+
+				owners.put(f, i);
+				reachableFunctions++;
+				for (MapleDeadlockFunction callee : getFunctionCallees(f, g)) {
+					stack.push(callee);
+				}
+			}
+		}
+
+		int[] groups = new int[nEntries];
+		for (int i = 0; i < nEntries; i++) {
+			groups[i] = findEntryGroup(parent, i);
+		}
+
+		return groups;
+	}
+
+	private static List<List<Integer>> getEntryGroupLists(int[] entryGroups) {
+		// entry point indexes of each group, groups in the order of their first entry point
+		Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < entryGroups.length; i++) {
+			groups.computeIfAbsent(entryGroups[i], k -> new ArrayList<>()).add(i);
+		}
+
+		return new ArrayList<>(groups.values());
+	}
+
+	private List<List<Integer>> prioritizeEntryGroups(List<List<Integer>> groups, List<MapleDeadlockFunction> entryFunctions, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g) {
+		// groups reaching the most distinct locks go first, so a walk cut short has covered the lock-heavy parts of the project. Entry points
+		// keep their order within a group, and groups don't see each other's milestones, so a budget never reached finds the same
+		int[] lockReach = new int[groups.size()];
+		for (int k = 0; k < groups.size(); k++) {
+			MapleDeadlockIdSet locks = new MapleDeadlockIdSet();
+
+			Set<MapleDeadlockFunction> visited = new HashSet<>();
+			Deque<MapleDeadlockFunction> stack = new ArrayDeque<>();
+			for (Integer i : groups.get(k)) {
+				stack.push(entryFunctions.get(i));
+			}
+
+			while (!stack.isEmpty()) {
+				MapleDeadlockFunction f = stack.pop();
+				if (!visited.add(f)) {
+					continue;
+				}
+
+				for (MapleDeadlockGraphEntry e : g.get(f).getEntryList()) {
+					for (MapleDeadlockGraphNode n : e.getGraphEntryPoints()) {
+						if (n.getType() == MapleDeadlockGraphNodeType.LOCK) {
+							locks.add(getLockIndex(n.getLockId()));
+						}
+					}
+				}
+
+				for (MapleDeadlockFunction callee : getFunctionCallees(f, g)) {
+					stack.push(callee);
+				}
+			}
+
+			lockReach[k] = locks.size();
+		}
+
+		List<Integer> order = new ArrayList<>();
+		for (int k = 0; k < groups.size(); k++) {
+			order.add(k);
+		}
+		order.sort((k1, k2) -> Integer.compare(lockReach[k2], lockReach[k1]));     // stable, ties keep program order
+
+		List<List<Integer>> ret = new ArrayList<>(groups.size());
+		for (Integer k : order) {
+			ret.add(groups.get(k));
+		}
+		return ret;
+	}
+
+	private static int findEntryGroup(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+
+		return i;
+	}
+
+	private class EntryGroupTask extends RecursiveTask<FunctionPathWalker> {
+
+		private static final long serialVersionUID = 1L;
+
+		List<Integer> entries;
+		List<MapleDeadlockFunction> entryFunctions;
+		StringBuilder[] entryWarnings;
+		Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g;
+
+		private EntryGroupTask(List<Integer> entries, List<MapleDeadlockFunction> entryFunctions, StringBuilder[] entryWarnings, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g) {
+			this.entries = entries;
+			this.entryFunctions = entryFunctions;
+			this.entryWarnings = entryWarnings;
+			this.g = g;
+		}
+
+		@Override
+		protected FunctionPathWalker compute() {
+			FunctionPathWalker walker = new FunctionPathWalker(new HashMap<>(), new HashMap<>());
+			runEntryGroup(walker, entries, entryFunctions, entryWarnings, g);
+			return walker;
+		}
+
+	}
+
+	private void runEntryGroup(FunctionPathWalker walker, List<Integer> entries, List<MapleDeadlockFunction> entryFunctions, StringBuilder[] entryWarnings, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g) {
+		// the group's entry points in their order, warnings are kept per entry point and printed in program order once all groups are walked
+		for (Integer i : entries) {
+			if (walker.budget != null && walker.budget.exhausted) {
+				break;
+			}
+
+			walker.warnings = new StringBuilder();
+			entryWarnings[i] = walker.warnings;
+
+			//System.out.println("Reading " + MapleDeadlockStorage.getCanonClassName(entryFunctions.get(i).getSourceClass()) + " >> " + entryFunctions.get(i).getName());
+			walker.runSourceGraphFunction(entryFunctions.get(i), g, newFunctionPathNode());
+		}
+	}
+
+	private static void printEntryWarnings(StringBuilder[] entryWarnings) {
+		for (StringBuilder sb : entryWarnings) {
+			if (sb != null) {
+				System.out.print(sb);
+			}
+		}
+	}
+
+	private void walkEntryFunctions(List<MapleDeadlockFunction> entryFunctions, List<List<Integer>> groups, Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> g, int nThreads) {
+		// groups share no function, so merging their tables gives back what the serial walk finds
+		ForkJoinPool pool = new ForkJoinPool(nThreads);
+		try {
+			List<EntryGroupTask> tasks = new ArrayList<>(groups.size());
+			for (List<Integer> entries : groups) {
+				EntryGroupTask task = new EntryGroupTask(entries, entryFunctions, entryWarnings, g);
+				pool.execute(task);
+				tasks.add(task);
+			}
+
+			for (int i = 0; i < tasks.size(); i++) {
+				mergeFunctionPathWalker(tasks.get(i).join());
+				tasks.set(i, null);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static List<String> getEntryKeys(List<Integer> entries, List<MapleDeadlockFunction> entryFunctions, Map<MapleDeadlockFunction, String> keys) {
+		List<String> list = new ArrayList<>(entries.size());
+		for (Integer i : entries) {
+			list.add(keys.get(entryFunctions.get(i)));
+		}
+
+		return list;
+	}
+
+	private List<MapleDeadlockFunction> getUnchangedGroupFunctions(List<Integer> entries, List<MapleDeadlockFunction> entryFunctions, MapleDeadlockGraph graph, Map<String, MapleDeadlockFunction> previousFunctions) {
+		// every function the group reaches, null when one of them isn't shaped as it was
+		Map<MapleDeadlockFunction, String> keys = graph.getFunctionKeys(), shapes = graph.getFunctionShapes();
+		Map<MapleDeadlockFunction, String> previousShapes = previousCruiser.sourceGraph.getFunctionShapes();
+
+		Set<MapleDeadlockFunction> visited = new LinkedHashSet<>();
+		Deque<MapleDeadlockFunction> stack = new ArrayDeque<>();
+		for (Integer i : entries) {
+			stack.push(entryFunctions.get(i));
+		}
+
+		while (!stack.isEmpty()) {
+			MapleDeadlockFunction f = stack.pop();
+			if (!visited.add(f)) {
+				continue;
+			}
+
+			String key = keys.get(f), shape = shapes.get(f);
+			MapleDeadlockFunction pf = (key != null) ? previousFunctions.get(key) : null;
+			if (shape == null || pf == null || !shape.equals(previousShapes.get(pf))) {
+				return null;
+			}
+
+			for (MapleDeadlockFunction callee : getFunctionCallees(f, graph.getFunctionGraph())) {
+				stack.push(callee);
+			}
+		}
+
+		return new ArrayList<>(visited);
+	}
+
+	private MapleDeadlockIdSet getPreviousLockIndexes(MapleDeadlockIdSet s) {
+		// lock ids are the same in both walks, the dense indexes may not be
+		MapleDeadlockIdSet ret = new MapleDeadlockIdSet();
+		for (int b = s.nextId(0); b >= 0; b = s.nextId(b + 1)) {
+			ret.add(getLockIndex(previousCruiser.indexLocks[b]));
+		}
+
+		return ret;
+	}
+
+	private boolean hasPreviousLockNames() {
+		for (Entry<Integer, String> e : previousCruiser.lockNames.entrySet()) {
+			if (!e.getValue().equals(lockNames.get(e.getKey()))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private List<List<Integer>> takeOverEntryGroups(List<List<Integer>> groups, List<MapleDeadlockFunction> entryFunctions, MapleDeadlockGraph graph) {
+		// a group with the same entry points, reaching only functions shaped as before, would be walked the same way: what the previous
+		// walk found there is taken over. Only the other groups are walked, the groups to walk are returned
+		Map<MapleDeadlockFunction, String> keys = graph.getFunctionKeys();
+		MapleDeadlockGraph previousGraph = previousCruiser.sourceGraph;
+		if (keys == null || previousGraph == null || previousGraph.getFunctionKeys() == null || !hasPreviousLockNames()) {
+			System.out.println("Locks numbered otherwise than in the previous walk, all " + groups.size() + " entry groups walked again\n");
+			return groups;
+		}
+
+		Map<String, MapleDeadlockFunction> previousFunctions = new HashMap<>();
+		for (Entry<MapleDeadlockFunction, String> e : previousGraph.getFunctionKeys().entrySet()) {
+			if (e.getValue() != null) {
+				previousFunctions.put(e.getValue(), e.getKey());
+			}
+		}
+
+		Map<List<String>, List<Integer>> previousGroups = new HashMap<>();
+		for (List<Integer> entries : previousCruiser.entryGroupList) {
+			previousGroups.put(getEntryKeys(entries, previousCruiser.entryFunctionList, previousGraph.getFunctionKeys()), entries);
+		}
+
+		List<List<Integer>> walked = new ArrayList<>();
+		for (List<Integer> entries : groups) {
+			List<String> entryKeys = getEntryKeys(entries, entryFunctions, keys);
+			List<Integer> previousEntries = !entryKeys.contains(null) ? previousGroups.get(entryKeys) : null;
+			List<MapleDeadlockFunction> reached = (previousEntries != null) ? getUnchangedGroupFunctions(entries, entryFunctions, graph, previousFunctions) : null;
+			if (reached == null) {
+				walked.add(entries);
+				continue;
+			}
+
+			for (MapleDeadlockFunction f : reached) {
+				MapleDeadlockFunction pf = previousFunctions.get(keys.get(f));
+
+				functionMilestones.get(f).addAll(getPreviousLockIndexes(previousCruiser.functionMilestones.get(pf)));
+
+				FunctionPathNode pnode = previousCruiser.functionLocks.get(pf);
+				FunctionPathNode fnode = functionLocks.get(f);
+				fnode.acquiredLocks.addAll(getPreviousLockIndexes(pnode.acquiredLocks));
+				fnode.seqAcqLocks = pnode.seqAcqLocks;
+				fnode.intAcqStart = pnode.intAcqStart;
+			}
+
+			for (int k = 0; k < entries.size(); k++) {
+				entryWarnings[entries.get(k)] = previousCruiser.entryWarnings[previousEntries.get(k)];
+			}
+			completedEntryPoints += entries.size();
+		}
+
+		System.out.println("Entry groups walked again: " + walked.size() + "/" + groups.size() + ", the others taken over from the previous walk\n");
+		return walked;
+	}
+
+	private void mergeFunctionPathWalker(FunctionPathWalker walker) {
+		countFunctionPathWalker(walker);
+
+		for (Entry<MapleDeadlockFunction, MapleDeadlockIdSet> e : walker.milestones.entrySet()) {
+			functionMilestones.get(e.getKey()).addAll(e.getValue());
+		}
+
+		// no other group reaches these functions, a walked one just takes the place of its empty node
+		for (Entry<MapleDeadlockFunction, FunctionPathNode> e : walker.locks.entrySet()) {
+			FunctionPathNode node = e.getValue();
+			FunctionPathNode fnode = functionLocks.get(e.getKey());
+
+			if (fnode.seqAcqLocks.size() < node.seqAcqLocks.size()) {
+				fnode.acquiredLocks.clear();
+				fnode.acquiredLocks.addAll(node.acquiredLocks);
+
+				fnode.seqAcqLocks = node.seqAcqLocks;
+				fnode.intAcqStart = node.intAcqStart;
 			}
 		}
 	}
@@ -280,41 +1092,53 @@ public class MapleDeadlockGraphCruiser {
 		return n;   // in the end of who knows when
 	}
 
-	private void incrementLockInFunction(Integer i, Integer k, MapleDeadlockFunction nf) {
-		if(functionMilestones.get(nf).contains(k)) return;
-            
-                Map<Integer, FunctionLockElement> locks = lockDependencies.get(i);
-		if (locks == null) {
-			locks = new HashMap<>();
-			lockDependencies.put(i, locks);
+	private static class LockPairSequence {
+
+		// what one function's lock sequence does to a lock pair count, as x -> max(x + shift, floor) with counts never below 0
+		int shift = 0;
+		int floor = 0;
+		int createdUpTo = Integer.MIN_VALUE;  // counts up to this one reach 0 before an acquire, so the pair is taken anew
+		int unlocks = 0;
+
+		private void acquire() {
+			if (floor == 0) {
+				createdUpTo = Math.max(createdUpTo, -shift);
+			}
+
+			shift += 1;
+			floor += 1;
 		}
-                
-                if (locks.containsKey(k)) {
-                        locks.get(k).increment();
-                } else {
-                        locks.put(k, new FunctionLockElement(k, nf));
-                }
-	}
 
-	private void decrementLockInFunction(Integer i, Integer k) {
-		Map<Integer, FunctionLockElement> locks = lockDependencies.get(i);
-		if (locks != null && locks.get(-k) != null) {
-			if (locks.get(-k).decrementAndZero()) {
-				locks.remove(-k);
-				if (locks.isEmpty()) {
-					lockDependencies.remove(i);
-				}
+		private void release() {
+			shift -= 1;
+			floor = Math.max(floor - 1, 0);
+			unlocks += 1;
+		}
+
+		private long apply(long x, long n) {
+			// the same sequence run n times in a row
+			if (n <= 0) {
+				return x;
 			}
+
+			return Math.max(x + n * shift, shift >= 0 ? floor + (n - 1) * shift : floor);
 		}
+
+	}
+
+	private static LockPairSequence getLockPairSequence(Map<Integer, Map<Integer, LockPairSequence>> seqs, Integer i, Integer k) {
+		return seqs.computeIfAbsent(i, x -> new LinkedHashMap<>()).computeIfAbsent(k, x -> new LockPairSequence());
 	}
 
-	private void fetchLockDependenciesInFunction(MapleDeadlockFunction f, MapleDeadlockFunction nf, FunctionPathNode n) {
-		List<Integer> fl = functionLocks.get(f).seqIntAcqLocks;
+	private static Map<Integer, Map<Integer, LockPairSequence>> fetchLockSequencesInFunction(FunctionPathNode n) {
+		Map<Integer, Map<Integer, LockPairSequence>> seqs = new LinkedHashMap<>();
+
+		List<Integer> fl = n.seqIntAcqLocks;
                 Set<Integer> locks = new HashSet<>();
-		for (int a = functionLocks.get(f).startAt; a < fl.size(); a++) {
+		for (int a = n.startAt; a < fl.size(); a++) {
 			Integer i = fl.get(a);  // lockId
 			if (i > 0) {
-                                incrementLockInFunction(i, i, nf);
+                                getLockPairSequence(seqs, i, i).acquire();
                                 
                                 int j = fetchUnlockIndex(fl, i, a + 1, fl.size());
                                 for (int h = a + 1; h < j; h++) {
@@ -325,9 +1149,9 @@ public class MapleDeadlockGraphCruiser {
                                                         for (int m = h; m < j; m++) {
                                                                 Integer g = fl.get(m);
                                                                 if (g > 0) {
-                                                                        incrementLockInFunction(i, g, nf);
+                                                                        getLockPairSequence(seqs, i, g).acquire();
                                                                 } else if (g < 0) {
-                                                                        decrementLockInFunction(i, g);
+                                                                        getLockPairSequence(seqs, i, -g).release();
                                                                 }
                                                         }
                                                 }
@@ -335,41 +1159,106 @@ public class MapleDeadlockGraphCruiser {
                                 }
                                 
                                 locks.add(i);
-			} else if (i < 0) {
-				decrementLockInFunction(-i, -i);
 			}
 		}
+
+		return seqs;
 	}
-        
-	private void fetchLockDependencies() {
-		Set<MapleDeadlockFunction> r = new HashSet<>();
 
-		for (Entry<MapleDeadlockFunction, FunctionPathNode> e : functionLocks.entrySet()) {
-			MapleDeadlockFunction ek = e.getKey();
-			r.add(ek);
+	private Map<Integer, int[]> getMilestoneFunctionIndex(List<MapleDeadlockFunction> fnList) {
+		// lock -> positions of the functions having it as milestone, ascending
+		Map<Integer, List<Integer>> m = new HashMap<>();
+		for (int q = 0; q < fnList.size(); q++) {
+			MapleDeadlockIdSet s = functionMilestones.get(fnList.get(q));
+			for (int b = s.nextId(0); b >= 0; b = s.nextId(b + 1)) {
+				m.computeIfAbsent(indexLocks[b], x -> new ArrayList<>()).add(q);
+			}
+		}
 
-			for (Entry<MapleDeadlockFunction, FunctionPathNode> f : functionLocks.entrySet()) {
-				if (!r.contains(f.getKey())) {
-					fetchLockDependenciesInFunction(ek, f.getKey(), f.getValue());
-				}
+		Map<Integer, int[]> ret = new HashMap<>();
+		for (Entry<Integer, List<Integer>> e : m.entrySet()) {
+			int[] a = new int[e.getValue().size()];
+			for (int q = 0; q < a.length; q++) {
+				a[q] = e.getValue().get(q);
 			}
+
+			ret.put(e.getKey(), a);
 		}
+
+		return ret;
 	}
 
-	private static boolean containsLock(Integer i, Collection<FunctionLockElement> es) {
-		for (FunctionLockElement e : es) {
-			if (i.equals(e.lockId)) return true;
+	private void updateLockDependency(Integer i, Integer k, MapleDeadlockFunction f, LockPairSequence s, int p, int nFunctions, int[] hits) {
+		// f's sequence is run once for each function after it, acquires are skipped where k is already a milestone of that function
+		Map<Integer, FunctionLockElement> locks = lockDependencies.get(i);
+		FunctionLockElement elem = locks != null ? locks.get(k) : null;
+
+		long x = elem != null ? elem.count : 0;
+		boolean created = false;
+
+		int h = Arrays.binarySearch(hits, p + 1);
+		if (h < 0) {
+			h = -h - 1;
 		}
 
-		return false;
+		int cur = p + 1;
+		for (; h <= hits.length; h++) {
+			int q = h < hits.length ? hits[h] : nFunctions;
+
+			int n = q - cur;
+			if (n > 0) {
+				// counts run monotonically over repeated runs, the lowest one is either the first or the last
+				if (Math.min(x, s.apply(x, n - 1)) <= s.createdUpTo) {
+					created = true;
+				}
+				x = s.apply(x, n);
+			}
+
+			if (q < nFunctions) {
+				x = Math.max(x - s.unlocks, 0);
+			}
+			cur = q + 1;
+		}
+
+		if (x > 0) {
+			if (elem == null || created) {
+				if (locks == null) {
+					locks = new HashMap<>();
+					lockDependencies.put(i, locks);
+				}
+
+				elem = new FunctionLockElement(k, f);     // the function taking k while holding i
+				locks.put(k, elem);
+			}
+
+			elem.count = (int) x;
+		} else if (elem != null) {
+			locks.remove(k);
+			if (locks.isEmpty()) {
+				lockDependencies.remove(i);
+			}
+		}
 	}
 
-	private static boolean detectDeadlocksInLockSequence(Integer i1, Collection<FunctionLockElement> e1, Integer i2, Collection<FunctionLockElement> e2) {
-		boolean v1 = containsLock(i2, e1), v2 = containsLock(i1, e2);
-		return v1 && v2;
+	private void fetchLockDependencies() {
+		// each function sequence is read once, the functions coming after it only matter where they hold a milestone over a lock in it
+		List<MapleDeadlockFunction> fnList = new ArrayList<>(functionLocks.keySet());
+		Map<Integer, int[]> milestoneIndex = getMilestoneFunctionIndex(fnList);
+		int[] noHits = new int[0];
+
+		int nFunctions = fnList.size();
+		for (int p = 0; p < nFunctions; p++) {
+			MapleDeadlockFunction f = fnList.get(p);
+
+			for (Entry<Integer, Map<Integer, LockPairSequence>> e : fetchLockSequencesInFunction(functionLocks.get(f)).entrySet()) {
+				for (Entry<Integer, LockPairSequence> ek : e.getValue().entrySet()) {
+					updateLockDependency(e.getKey(), ek.getKey(), f, ek.getValue(), p, nFunctions, milestoneIndex.getOrDefault(ek.getKey(), noHits));
+				}
+			}
+		}
 	}
 
-	private static void makeRemissiveIndexLockFunctions() {
+	private void makeRemissiveIndexLockFunctions() {
 		Set<Integer> acqLocks = new HashSet<>();
 		for (FunctionPathNode n : functionLocks.values()) {
 			for (Integer l : n.seqIntAcqLocks) {
@@ -380,35 +1269,174 @@ public class MapleDeadlockGraphCruiser {
 		}
 
 		for (Integer k : acqLocks) {
-			lockFunctions.put(k, new HashSet<>(5));
+			lockFunctions.put(k, new MapleDeadlockIdSet());
 		}
 
 		for (Entry<MapleDeadlockFunction, FunctionPathNode> e : functionLocks.entrySet()) {
 			for (Integer i : e.getValue().seqIntAcqLocks) {
-				if (i > 0) lockFunctions.get(i).add(e.getKey());
+				if (i > 0) lockFunctions.get(i).add(e.getKey().getId());
 			}
 		}
 	}
 
-	private void detectDeadlocksInLockDependencies() {
-		Set<Integer> r = new HashSet<>();
-
+	private Map<Integer, List<Integer>> getLockOrderGraph() {
+		// lock -> locks taken while holding it, only locks holding others can be part of a cycle
+		Map<Integer, List<Integer>> graph = new TreeMap<>();
 		for (Entry<Integer, Map<Integer, FunctionLockElement>> e : lockDependencies.entrySet()) {
-			Integer ek = e.getKey();
-			r.add(ek);
-
-			for (Entry<Integer, Map<Integer, FunctionLockElement>> f : lockDependencies.entrySet()) {
-				if (!r.contains(f.getKey())) {
-					if (detectDeadlocksInLockSequence(ek, e.getValue().values(), f.getKey(), f.getValue().values())) {
-						for (MapleDeadlockFunction m : lockFunctions.get(ek)) {
-							for (MapleDeadlockFunction n : lockFunctions.get(f.getKey())) {
-								deadlocks.add(new MapleDeadlockEntry(ek, f.getKey(), m, n));
-							}
-						}
+			List<Integer> next = new ArrayList<>();
+			for (Integer k : e.getValue().keySet()) {
+				if (!k.equals(e.getKey()) && lockDependencies.containsKey(k)) {
+					next.add(k);
+				}
+			}
+
+			Collections.sort(next);
+			graph.put(e.getKey(), next);
+		}
+
+		return graph;
+	}
+
+	private static void unblockLockCycle(Integer u, Set<Integer> blocked, Map<Integer, Set<Integer>> blockedBy) {
+		blocked.remove(u);
+
+		Set<Integer> b = blockedBy.get(u);
+		if (b != null) {
+			blockedBy.remove(u);
+			for (Integer w : b) {
+				if (blocked.contains(w)) {
+					unblockLockCycle(w, blocked, blockedBy);
+				}
+			}
+		}
+	}
+
+	private static boolean findLockCycles(Integer v, Integer s, Map<Integer, List<Integer>> graph, Set<Integer> allowed, Set<Integer> blocked, Map<Integer, Set<Integer>> blockedBy, Deque<Integer> path, List<List<Integer>> cycles, int maxCycles) {
+		// Johnson's circuit search, elementary cycles through s over locks not below it
+		boolean found = false;
+
+		path.addLast(v);
+		blocked.add(v);
+
+		for (Integer w : graph.get(v)) {
+			if (cycles.size() >= maxCycles) {
+				break;
+			}
+
+			if (!allowed.contains(w)) {
+				continue;
+			}
+
+			if (w.equals(s)) {
+				if (path.size() > 2) {    // lock pairs are all taken apart from here, whatever the limit
+					cycles.add(new ArrayList<>(path));
+				}
+				found = true;
+			} else if (!blocked.contains(w)) {
+				if (findLockCycles(w, s, graph, allowed, blocked, blockedBy, path, cycles, maxCycles)) {
+					found = true;
+				}
+			}
+		}
+
+		if (found) {
+			unblockLockCycle(v, blocked, blockedBy);
+		} else {
+			for (Integer w : graph.get(v)) {
+				if (allowed.contains(w)) {
+					blockedBy.computeIfAbsent(w, k -> new HashSet<>()).add(v);
+				}
+			}
+		}
+
+		path.removeLast();
+		return found;
+	}
+
+	private static List<List<Integer>> findLockPairCycles(Map<Integer, List<Integer>> graph) {
+		// lock pairs taken in both orders, in the order the circuit search used to come across them
+		List<List<Integer>> cycles = new ArrayList<>();
+
+		for (List<Integer> component : findStrongComponents(new ArrayList<>(graph.keySet()), graph::get)) {
+			if (component.size() < 2) {
+				continue;
+			}
+
+			List<Integer> locks = new ArrayList<>(component);
+			Collections.sort(locks);
+
+			Set<Integer> allowed = new HashSet<>(locks);
+			for (Integer v : locks) {
+				for (Integer w : graph.get(v)) {
+					if (v < w && allowed.contains(w) && Collections.binarySearch(graph.get(w), v) >= 0) {
+						cycles.add(Arrays.asList(v, w));
 					}
 				}
 			}
 		}
+
+		return cycles;
+	}
+
+	private static List<List<Integer>> findLockOrderCycles(Map<Integer, List<Integer>> graph, int maxCycles) {
+		// cycles over more than two locks, up to maxCycles of them
+		List<List<Integer>> cycles = new ArrayList<>();
+
+		for (List<Integer> component : findStrongComponents(new ArrayList<>(graph.keySet()), graph::get)) {
+			if (component.size() < 2) {
+				continue;
+			}
+
+			// each cycle is found once, from its lowest lock id
+			List<Integer> locks = new ArrayList<>(component);
+			Collections.sort(locks);
+
+			Set<Integer> allowed = new HashSet<>(locks);
+			for (Integer s : locks) {
+				if (cycles.size() >= maxCycles) {
+					return cycles;
+				}
+
+				findLockCycles(s, s, graph, allowed, new HashSet<>(), new HashMap<>(), new ArrayDeque<>(), cycles, maxCycles);
+				allowed.remove(s);
+			}
+		}
+
+		return cycles;
+	}
+
+	private void detectDeadlocksInLockDependencies() {
+		Map<Integer, List<Integer>> graph = getLockOrderGraph();
+
+		for (List<Integer> cycle : findLockPairCycles(graph)) {
+			Integer ek = cycle.get(0), fk = cycle.get(1);
+			MapleDeadlockIdSet ms = lockFunctions.get(ek), ns = lockFunctions.get(fk);
+			for (int m = ms.nextId(0); m >= 0; m = ms.nextId(m + 1)) {
+				for (int n = ns.nextId(0); n >= 0; n = ns.nextId(n + 1)) {
+					deadlocks.add(new MapleDeadlockEntry(ek, fk, functions.get(m), functions.get(n)));
+				}
+			}
+		}
+
+		int maxCycles = MapleDeadlockConfig.getIntProperty("max_lock_cycles", 1000);
+
+		// one cycle past the limit tells whether any were left out
+		List<List<Integer>> cycles = findLockOrderCycles(graph, Math.max(maxCycles, 0) + 1);
+		if (cycles.size() > maxCycles) {
+			cycles = cycles.subList(0, Math.max(maxCycles, 0));
+			lockCycleLimit = Math.max(maxCycles, 0);
+			System.out.println("[Warning] Lock-order cycle limit reached (" + maxCycles + "), further cycles over 3 or more locks are not reported\n");
+		}
+
+		for (List<Integer> cycle : cycles) {
+			List<MapleDeadlockFunction> cycleFunctions = new ArrayList<>(cycle.size());
+			for (int i = 0; i < cycle.size(); i++) {
+				Integer next = cycle.get((i + 1) % cycle.size());
+				cycleFunctions.add(lockDependencies.get(cycle.get(i)).get(next).function);
+			}
+
+			lockCycles.add(new MapleDeadlockCycle(cycle, cycleFunctions));
+		}
 	}
 
 	private void detectDeadlocks(Map<Integer, String> mapleLockNames) {
@@ -427,7 +1455,14 @@ public class MapleDeadlockGraphCruiser {
 		}
 	}
 
-	private static void dumpLockDependency(Map<Integer, String> mapleLockNames) {
+	private void fetchFunctionIntLockSequences() {
+		// the part of each kept sequence from where the function was entered, laid out once for the dependency pass
+		for (FunctionPathNode fnode : functionLocks.values()) {
+			fnode.seqIntAcqLocks = fnode.seqAcqLocks.toList(fnode.intAcqStart);
+		}
+	}
+
+	private void dumpLockDependency(Map<Integer, String> mapleLockNames) {
 		System.out.println("Lock dependency:");
 		for (Entry<Integer, Map<Integer, FunctionLockElement>> e : lockDependencies.entrySet()) {
 			String s = mapleLockNames.get(e.getKey()) + " [";
@@ -443,7 +1478,7 @@ public class MapleDeadlockGraphCruiser {
 		System.out.println();
 	}
         
-        private static void dumpDeadlockFunctions(Map<Integer, String> mapleLockNames) {
+        private void dumpDeadlockFunctions(Map<Integer, String> mapleLockNames) {
                 System.out.println();
                 
                 Set<Integer> locks = new HashSet<>();
@@ -451,6 +1486,9 @@ public class MapleDeadlockGraphCruiser {
                         locks.add(e.getLockId1());
                         locks.add(e.getLockId2());
                 }
+                for (MapleDeadlockCycle c : lockCycles) {
+                        locks.addAll(c.getLockIds());
+                }
                 
                 System.out.println("Dead Lock ids:");
                 for (Integer i : locks) {
@@ -459,24 +1497,74 @@ public class MapleDeadlockGraphCruiser {
                 System.out.println();
                 
                 System.out.println("Function acquired Locks:");
-                Set<MapleDeadlockFunction> functions = new HashSet<>();
+                Set<MapleDeadlockFunction> functions = new LinkedHashSet<>();
 		for (Entry<MapleDeadlockFunction, FunctionPathNode> e : functionLocks.entrySet()) {
                         for (Integer i : locks) {
-                                if (e.getValue().acquiredLocks.contains(i)) {
+                                if (e.getValue().acquiredLocks.contains(getLockIndex(i))) {
                                         functions.add(e.getKey());
                                 }
                         }
 		}
                 
                 for (MapleDeadlockFunction f : functions) {
-                        System.out.println(f + " : " + functionLocks.get(f).seqIntAcqLocks + "," + functionMilestones.get(f));
+                        System.out.println(f + " : " + functionLocks.get(f).seqIntAcqLocks + "," + getMilestoneLockIds(functionMilestones.get(f)));
                 }
 	}
 
+	private void clearGraphData() {
+		deadlocks = new LinkedHashSet<>();  // the former results may still be in use
+		lockCycles = new ArrayList<>();
+		lockCycleLimit = null;
+
+		functionMilestones.clear();
+
+		functionLocks.clear();
+		lockFunctions.clear();
+
+		functions.clear();
+		recursiveFunctions = new MapleDeadlockIdSet();
+		lockDependencies.clear();
+
+		memoLookups = 0;
+		memoHits = 0;
+		memoEvictions = 0;
+
+		walkBudget = null;
+		visitedFunctions = new MapleDeadlockIdSet();
+		reachableFunctions = 0;
+		entryPoints = 0;
+		completedEntryPoints = 0;
+	}
+
+	public List<MapleDeadlockCycle> getLockCycles() {
+		return lockCycles;
+	}
+
+	public Integer getLockCycleLimit() {
+		// the limit the cycles over more than two locks were cut at, null when all of them are listed
+		return lockCycleLimit;
+	}
+
+	public Set<MapleDeadlockEntry> runSourceGraph(MapleDeadlockGraph graph, MapleDeadlockStorage storage, Map<Integer, String> mapleLockNames, MapleDeadlockGraphCruiser previous) {
+		// entry groups walking as they did over the previous graph aren't walked again
+		previousCruiser = previous;
+		try {
+			return runSourceGraph(graph, storage, mapleLockNames);
+		} finally {
+			previousCruiser = null;     // not kept any longer, or every past walk would stay in memory
+		}
+	}
+
 	public Set<MapleDeadlockEntry> runSourceGraph(MapleDeadlockGraph graph, MapleDeadlockStorage storage, Map<Integer, String> mapleLockNames) {
+		clearGraphData();
+		sourceGraph = graph;
+		lockNames = mapleLockNames;
+
 		createFunctionAcquiredLocks(graph);
 		makeRemissiveIndexFunctions(graph);
+		makeRemissiveIndexLocks(graph);
 		findFunctionLocks(graph, storage);
+		fetchFunctionIntLockSequences();
 
 		detectDeadlocks(mapleLockNames);
 		return deadlocks;
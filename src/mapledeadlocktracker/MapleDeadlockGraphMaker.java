@@ -11,34 +11,60 @@
  */
 package mapledeadlocktracker;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import mapledeadlocktracker.containers.MapleDeadlockClass;
+import mapledeadlocktracker.containers.MapleDeadlockDispatchTable;
 import mapledeadlocktracker.containers.MapleDeadlockEnum;
+import mapledeadlocktracker.containers.MapleDeadlockExpression;
 import mapledeadlocktracker.containers.MapleDeadlockFunction;
 import mapledeadlocktracker.containers.MapleDeadlockLock;
 import mapledeadlocktracker.containers.MapleDeadlockStorage;
+import mapledeadlocktracker.containers.MapleDeadlockTypeTable;
 import mapledeadlocktracker.containers.Pair;
 import mapledeadlocktracker.graph.MapleDeadlockAbstractType;
 import mapledeadlocktracker.graph.MapleDeadlockGraphEntry;
+import mapledeadlocktracker.graph.MapleDeadlockGraphNode;
 import mapledeadlocktracker.graph.MapleDeadlockGraphNodeCall;
 import mapledeadlocktracker.graph.MapleDeadlockGraphNodeLock;
 import mapledeadlocktracker.graph.MapleDeadlockGraphNodeScript;
 import mapledeadlocktracker.graph.MapleDeadlockGraphMethod;
-import mapledeadlocktracker.source.CSharpReader;
+import mapledeadlocktracker.graph.MapleDeadlockGraphNodeType;
 import mapledeadlocktracker.strings.MapleLinkedTypes;
 
-import language.java.JavaParser;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
 
 /**
@@ -46,6 +72,8 @@ import org.antlr.v4.runtime.tree.ParseTreeListener;
  * @author RonanLana
  */
 public abstract class MapleDeadlockGraphMaker {
+	protected MapleDeadlockStorage mapleStorage;
+
 	protected Map<String, Map<String, MapleDeadlockClass>> maplePublicClasses;
 	protected Map<String, Map<String, MapleDeadlockClass>> maplePrivateClasses;
 	protected Map<String, MapleDeadlockClass> mapleAllClasses;
@@ -61,6 +89,7 @@ public abstract class MapleDeadlockGraphMaker {
 
 	protected Map<Integer, Pair<Integer, Map<String, Integer>>> mapleReflectedClasses;
 	protected Map<MapleDeadlockClass, List<MapleDeadlockClass>> mapleInheritanceTree;
+	private MapleDeadlockDispatchTable mapleDispatchTable;
 	protected Pair<Integer, Integer> mapleIgnoredDataRange;
 
 	protected Set<MapleDeadlockFunction> mapleRunnableMethods;
@@ -69,34 +98,90 @@ public abstract class MapleDeadlockGraphMaker {
 	protected Map<Integer, MapleDeadlockClass> mapleClassDataTypes = new HashMap<>();
 	protected Map<Integer, MapleDeadlockAbstractType> mapleAbstractDataTypes = new HashMap<>();
 	protected Map<Integer, String> mapleBasicDataTypes = new HashMap<>();
-	protected Map<String, Integer> mapleDereferencedDataTypes = new HashMap<>();
+	protected Map<String, Integer> mapleDereferencedDataTypes = new ConcurrentHashMap<>();
 
 	protected Map<Integer, String> mapleEveryDataTypes = new HashMap<>();
 	protected Map<String, Integer> mapleEveryDataTypeIds = new HashMap<>();
 
 	private Map<Integer, Set<Integer>> mapleSuperClasses = new HashMap<>();
-	private Map<Integer, Integer> mapleDataWrapper = new HashMap<>();
-
-	private Map<MapleDeadlockFunction, Integer> mapleGraphFunctionIds = new HashMap<>();
-	private Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> mapleGraphFunctions = new HashMap<>();
+	private MapleDeadlockTypeTable mapleTypeTable;
+	private Map<Integer, Integer> mapleDataWrapper = new ConcurrentHashMap<>();
+
+	private Map<MapleDeadlockFunction, Integer> mapleGraphFunctionIds = new LinkedHashMap<>();     // function id order, regardless of object hashes
+	private Map<MapleDeadlockFunction, MapleDeadlockGraphMethod> mapleGraphFunctions = new LinkedHashMap<>();
+
+	// only when the graph is made over a previous one, functions reading the same as then take over what typing them gave
+	private boolean keepTypedFunctions = false;
+	private boolean retypeAll = true;
+	private MapleDeadlockGraph previousGraph = null;
+	private Map<Integer, String> previousFunctionKeys = new HashMap<>();
+	private byte[] declarationDigest = null;
+	private Map<String, MapleDeadlockFunction> mapleKeyFunctions = new HashMap<>();     // null for keys met more than once
+	private Map<MapleDeadlockFunction, String> mapleFunctionKeys = new LinkedHashMap<>();
+	private Map<MapleDeadlockFunction, byte[]> mapleFunctionDigests = new HashMap<>();
+	private Map<String, MapleDeadlockClass> mapleCanonClasses = new HashMap<>();
+	private Map<String, MapleDeadlockGraph.TypedFunction> mapleTypedFunctions = new ConcurrentHashMap<>();
+	private List<String> mapleCreatedLocks = new ArrayList<>();     // synchronized locks created while typing, in that order
+	private boolean createdLocksMatch = true;
+	private AtomicInteger retypedFunctions = new AtomicInteger(0);
+	private final ThreadLocal<MapleDeadlockGraph.TypedFunction> typedFunction = new ThreadLocal<>();
+
+	private Map<CallSite, CallResolution> mapleCallResolutions = new ConcurrentHashMap<>();     // call targets and return types by receiver type, method name and argument types
+	private AtomicLong callLookups = new AtomicLong(0);
+	private AtomicLong callHits = new AtomicLong(0);
         
-        protected MapleDeadlockClass refClass = null;
+        // what the calling thread is typing at the moment, methods may be parsed by several threads
+        protected final ThreadLocal<MapleDeadlockClass> refClass = new ThreadLocal<>();
+	private final ThreadLocal<Integer> lockId = new ThreadLocal<>();
+	private final ThreadLocal<StringBuilder> warningBuffer = new ThreadLocal<>();
 
 	private Integer runningFid = 0;
-	private Integer lockId;
-
-	public abstract void parseSourceFile(String fileName, ParseTreeListener listener);
-	public abstract Integer getLiteralType(ParserRuleContext ctx);
-	public abstract List<ParserRuleContext> getArgumentList(ParserRuleContext ctx);
-	public abstract Set<Integer> getMethodReturnType(MapleDeadlockGraphMethod node, Integer classType, ParserRuleContext methodCall, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass);
-	public abstract Set<Integer> parseMethodCalls(MapleDeadlockGraphMethod node, ParserRuleContext callCtx, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass, boolean filter);	
-	public abstract String parseMethodName(ParserRuleContext callCtx);
-        public abstract ParserRuleContext generateExpression(String expressionText);
-        public abstract boolean isUnlockMethodCall(String expressionText);
+
+	private AtomicInteger fullContextParsedFiles = new AtomicInteger(0);
+
+	public abstract void parseSourceFile(String fileName, CharStream input, ParseTreeListener listener);
+	public abstract Set<Integer> getMethodReturnType(MapleDeadlockGraphMethod node, Integer classType, MapleDeadlockExpression methodCall, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass);
+	public abstract Set<Integer> parseMethodCalls(MapleDeadlockGraphMethod node, MapleDeadlockExpression call, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass, boolean filter);	
+	public abstract String parseMethodName(MapleDeadlockExpression call);
+        public abstract String getGrammarSignature();
         
-        protected List<Integer> getArgumentTypes(MapleDeadlockGraphMethod node, ParserRuleContext expList, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
+	protected static void resetSourceParser(Parser parser, CharStream input) {
+		// reuses the lexer, token stream and parser already instanced by this thread
+		CommonTokenStream tokens = (CommonTokenStream) parser.getTokenStream();
+		Lexer lexer = (Lexer) tokens.getTokenSource();
+
+		lexer.setInputStream(input);
+		tokens.setTokenSource(lexer);
+		parser.setTokenStream(tokens);
+	}
+
+	protected <P extends Parser> ParserRuleContext parseSourceTree(P parser, Function<P, ParserRuleContext> startRule) {
+		// SLL prediction is tried first, bailing out on the first syntax error, as only then full LL prediction is really needed
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.setErrorHandler(new BailErrorStrategy());
+		parser.removeErrorListeners();
+
+		try {
+			return startRule.apply(parser);
+		} catch (ParseCancellationException e) {
+			fullContextParsedFiles.incrementAndGet();
+
+			parser.reset();
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			parser.setErrorHandler(new DefaultErrorStrategy());
+			parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+
+			return startRule.apply(parser);
+		}
+	}
+
+	public int getFullContextParsedFiles() {
+		return fullContextParsedFiles.get();
+	}
+
+        protected List<Integer> getArgumentTypes(MapleDeadlockGraphMethod node, List<MapleDeadlockExpression> expList, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
 		List<Integer> ret = new LinkedList<>();
-		for(ParserRuleContext exp : getArgumentList(expList)) {
+		for(MapleDeadlockExpression exp : expList) {
 			for (Integer argType : parseMethodCalls(node, exp, sourceMethod, sourceClass)) {
 				ret.add((argType != -1 && !argType.equals(mapleElementalTypes[7])) ? argType : -2);  // make accept any non-determined argument-type
 			}
@@ -105,17 +190,25 @@ public abstract class MapleDeadlockGraphMaker {
 		return ret;
 	}
 
-	private Integer getWrappedValue(Integer dataType) {
-		Integer ret = mapleDataWrapper.get(dataType);
-
-		if(ret == null) {
-			List<Integer> cdt = mapleCompoundDataTypes.get(dataType);
-
-			ret = cdt.get(cdt.size() - 2);
-			mapleDataWrapper.put(dataType, ret);
+	protected void printWarning(String message) {
+		StringBuilder sb = warningBuffer.get();
+		if (sb != null) {
+			sb.append(message).append('\n');     // printed later on, in method order
+		} else {
+			System.out.println(message);
 		}
+	}
 
-		return ret;
+	protected void clearCallState() {
+		refClass.remove();
+		lockId.remove();
+	}
+
+	private Integer getWrappedValue(Integer dataType) {
+		return mapleDataWrapper.computeIfAbsent(dataType, t -> {
+			List<Integer> cdt = mapleCompoundDataTypes.get(t);
+			return cdt.get(cdt.size() - 2);
+		});
 	}
 
 	private Integer evaluateLockFunction(String methodName, List<Integer> argTypes, Integer dataType, MapleDeadlockGraphMethod node) {
@@ -123,12 +216,12 @@ public abstract class MapleDeadlockGraphMaker {
 		case "lock":
 		case "tryLock":
 			//System.out.println("adding lock node " + lockId);
-			node.addGraphEntry(new MapleDeadlockGraphEntry(new MapleDeadlockGraphNodeLock(lockId, true)));
+			node.addGraphEntry(new MapleDeadlockGraphEntry(new MapleDeadlockGraphNodeLock(lockId.get(), true)));
 			break;
 
 		case "unlock":
 			//System.out.println("adding unlock node " + lockId);
-			node.addGraphEntry(new MapleDeadlockGraphEntry(new MapleDeadlockGraphNodeLock(lockId, false)));
+			node.addGraphEntry(new MapleDeadlockGraphEntry(new MapleDeadlockGraphNodeLock(lockId.get(), false)));
 			break;
 		}
 
@@ -192,7 +285,15 @@ public abstract class MapleDeadlockGraphMaker {
 		runningFid++;
 	}
 
+	private void markLockLookup() {
+		// what a lock lookup finds depends on the locks created by the methods typed before
+		MapleDeadlockGraph.TypedFunction t = typedFunction.get();
+		if (t != null) t.lockLookup = true;
+	}
+
 	private Integer getLockId(String identifier, MapleDeadlockClass sourceClass) {
+		if (keepTypedFunctions) markLockLookup();
+
 		String lockName = MapleDeadlockStorage.getCanonClassName(sourceClass) + "." + identifier;
 		MapleDeadlockLock lock = mapleLocks.get(lockName);
 
@@ -314,7 +415,7 @@ public abstract class MapleDeadlockGraphMaker {
 				}
 
 				// maybe class-based types
-				MapleDeadlockClass mdc = MapleDeadlockStorage.locateClass(name, sourceClass);
+				MapleDeadlockClass mdc = mapleStorage.locateClass(name, sourceClass);
 				if(mdc != null) {
 					return mapleClassDataTypeIds.get(mdc);
 				}
@@ -335,7 +436,7 @@ public abstract class MapleDeadlockGraphMaker {
 		}
                 
 		if(t.equals(mapleElementalTypes[5]) || t == 0) {
-			lockId = getLockId(name, sourceClass);
+			lockId.set(getLockId(name, sourceClass));
 		}
 
 		return t;
@@ -365,7 +466,7 @@ public abstract class MapleDeadlockGraphMaker {
 	}
         
         protected Integer getTypeId(String name, MapleDeadlockClass sourceClass) {
-                MapleDeadlockClass mdc = MapleDeadlockStorage.locateClass(name, sourceClass);
+                MapleDeadlockClass mdc = mapleStorage.locateClass(name, sourceClass);
                 if (mdc != null) {
                         return mapleClassDataTypeIds.get(mdc);
                 } else if (mapleBasicDataTypeIds.containsKey(name)) {
@@ -440,7 +541,7 @@ public abstract class MapleDeadlockGraphMaker {
         }
 
 	private Pair<MapleDeadlockFunction, Set<Integer>> getMethodDefinitionFromClass(MapleDeadlockClass c, String method, List<Integer> argTypes) {
-		MapleDeadlockFunction mdf = c.getMethod(false, method, argTypes);
+		MapleDeadlockFunction mdf = c.getMethod(mapleTypeTable, false, method, argTypes);
 		if(mdf != null) {
 			Set<Integer> templateTypes = c.getMaskedTypeSet();
 			return new Pair<>(mdf, templateTypes);
@@ -450,15 +551,10 @@ public abstract class MapleDeadlockGraphMaker {
 	}
 
 	private void getMethodImplementationsFromSubclasses(MapleDeadlockClass c, String method, Integer expType, List<Integer> argTypes, Map<Integer, Integer> elementalTypes, Set<Pair<MapleDeadlockFunction, Set<Integer>>> implementedFunctions) {
-		List<MapleDeadlockClass> subclasses = mapleInheritanceTree.get(c);
-		if(subclasses != null) {
-			for(MapleDeadlockClass mdc : subclasses) {
-				getMethodImplementationsFromSubclasses(mdc, method, expType, argTypes, elementalTypes, implementedFunctions);
-
-				Pair<MapleDeadlockFunction, Set<Integer>> classMethodImplementation = getMethodDefinitionFromClass(mdc, method, argTypes);
-				if(classMethodImplementation != null && !classMethodImplementation.left.isAbstract()) {
-					implementedFunctions.add(classMethodImplementation);
-				}
+		for(MapleDeadlockClass mdc : mapleDispatchTable.getDispatchClasses(c, method)) {
+			Pair<MapleDeadlockFunction, Set<Integer>> classMethodImplementation = getMethodDefinitionFromClass(mdc, method, argTypes);
+			if(classMethodImplementation != null && !classMethodImplementation.left.isAbstract()) {
+				implementedFunctions.add(classMethodImplementation);
 			}
 		}
 	}
@@ -478,7 +574,7 @@ public abstract class MapleDeadlockGraphMaker {
 			// will need to access superclasses to return a method accessible by the inputted class
 
 			for(MapleDeadlockClass sup : c.getSuperList()) {
-				MapleDeadlockFunction m = sup.getMethod(true, method, argTypes);
+				MapleDeadlockFunction m = sup.getMethod(mapleTypeTable, true, method, argTypes);
 				if(m != null) {
 					retMethod = new Pair<>(m, m.getSourceClass().getMaskedTypeSet());
 
@@ -495,7 +591,7 @@ public abstract class MapleDeadlockGraphMaker {
 				MapleDeadlockClass parent = c.getParent();
 
 				if(parent != null) {
-					MapleDeadlockFunction m = parent.getMethod(true, method, argTypes);
+					MapleDeadlockFunction m = parent.getMethod(mapleTypeTable, true, method, argTypes);
 					if(m != null) {
 						retMethod = new Pair<>(m, m.getSourceClass().getMaskedTypeSet());
 
@@ -516,7 +612,7 @@ public abstract class MapleDeadlockGraphMaker {
 	}
 
 	private Pair<MapleDeadlockFunction, Set<Integer>> getTemplateMethodDefinitionFromClass(MapleDeadlockClass c, String method, List<Integer> argTypes) {
-		MapleDeadlockFunction mdf = c.getTemplateMethod(false, method, argTypes);
+		MapleDeadlockFunction mdf = c.getTemplateMethod(mapleTypeTable, false, method, argTypes);
 		if(mdf != null) {
 			Set<Integer> templateTypes = c.getMaskedTypeSet();
 			return new Pair<>(mdf, templateTypes);
@@ -526,15 +622,10 @@ public abstract class MapleDeadlockGraphMaker {
 	}
 
 	private void getTemplateMethodImplementationsFromSubclasses(MapleDeadlockClass c, String method, Integer expType, List<Integer> argTypes, Map<Integer, Integer> elementalTypes, Set<Pair<MapleDeadlockFunction, Set<Integer>>> implementedFunctions) {
-		List<MapleDeadlockClass> subclasses = mapleInheritanceTree.get(c);
-		if(subclasses != null) {
-			for(MapleDeadlockClass mdc : subclasses) {
-				getTemplateMethodImplementationsFromSubclasses(mdc, method, expType, argTypes, elementalTypes, implementedFunctions);
-
-				Pair<MapleDeadlockFunction, Set<Integer>> classMethodImplementation = getTemplateMethodDefinitionFromClass(mdc, method, argTypes);
-				if(classMethodImplementation != null && !classMethodImplementation.left.isAbstract()) {
-					implementedFunctions.add(classMethodImplementation);
-				}
+		for(MapleDeadlockClass mdc : mapleDispatchTable.getDispatchClasses(c, method)) {
+			Pair<MapleDeadlockFunction, Set<Integer>> classMethodImplementation = getTemplateMethodDefinitionFromClass(mdc, method, argTypes);
+			if(classMethodImplementation != null && !classMethodImplementation.left.isAbstract()) {
+				implementedFunctions.add(classMethodImplementation);
 			}
 		}
 	}
@@ -554,7 +645,7 @@ public abstract class MapleDeadlockGraphMaker {
 			// will need to access superclasses to return a method accessible by the inputted class
 
 			for(MapleDeadlockClass sup : c.getSuperList()) {
-				MapleDeadlockFunction m = sup.getTemplateMethod(true, method, argTypes);
+				MapleDeadlockFunction m = sup.getTemplateMethod(mapleTypeTable, true, method, argTypes);
 				if(m != null) {
 					retMethod = new Pair<>(m, m.getSourceClass().getMaskedTypeSet());
 
@@ -571,7 +662,7 @@ public abstract class MapleDeadlockGraphMaker {
 				MapleDeadlockClass parent = c.getParent();
 
 				if(parent != null) {
-					MapleDeadlockFunction m = parent.getTemplateMethod(true, method, argTypes);
+					MapleDeadlockFunction m = parent.getTemplateMethod(mapleTypeTable, true, method, argTypes);
 					if(m != null) {
 						retMethod = new Pair<>(m, m.getSourceClass().getMaskedTypeSet());
 
@@ -591,7 +682,51 @@ public abstract class MapleDeadlockGraphMaker {
 		return new Pair<>(retMethod, implementedFunctions);
 	}
 
-	protected Set<Integer> getReturnType(MapleDeadlockGraphMethod node, String method, Integer expType, List<Integer> argTypes, ParserRuleContext methodCall) {
+	private static class CallSite {
+
+		Integer expType;
+		String method;
+		List<Integer> argTypes;
+
+		private CallSite(Integer expType, String method, List<Integer> argTypes) {
+			this.expType = expType;
+			this.method = method;
+			this.argTypes = argTypes;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * expType + method.hashCode()) + argTypes.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof CallSite)) {
+				return false;
+			}
+
+			CallSite c = (CallSite) o;
+			return expType.equals(c.expType) && method.equals(c.method) && argTypes.equals(c.argTypes);
+		}
+
+	}
+
+	private static class CallResolution {
+
+		// what calls alike resolve to, shared between all of them so it's never modified
+		MapleDeadlockClass targetClass;
+		List<List<MapleDeadlockFunction>> targets;     // implementations for each graph entry, null if the call adds no entry
+		Set<Integer> retTypes;
+
+		private CallResolution(MapleDeadlockClass targetClass, List<List<MapleDeadlockFunction>> targets, Set<Integer> retTypes) {
+			this.targetClass = targetClass;
+			this.targets = targets;
+			this.retTypes = Collections.unmodifiableSet(retTypes);
+		}
+
+	}
+
+	private CallResolution resolveCall(String method, Integer expType, List<Integer> argTypes) {
 		Set<Integer> ret = new HashSet<>();
 		MapleDeadlockClass c = getClassFromType(expType);
 
@@ -609,35 +744,35 @@ public abstract class MapleDeadlockGraphMaker {
 				int t = cTypes.get(cTypes.size() - 1);
 				if (t == -2) {
 					ret.add(-2);
-					return ret;
+					return new CallResolution(c, null, ret);
 				}
 
 				c = getClassFromType(t);
 				if(c == null) {
 					ret.add(-1);
-					return ret;
+					return new CallResolution(c, null, ret);
 				}
 
 				metImpl.add(getTemplateMethodImplementations(c, method, expType, argTypes, mapleElementalDataTypes));
 			} else {
 				ret.add(-1);
-				return ret;
+				return new CallResolution(c, null, ret);
 			}
 		} else {
 			if(c.isEnum()) {
                                 String methodName = method.toLowerCase();
 				if(methodName.contentEquals("values")) {    // this will return a Collection of enums, since Collection is being ignored, so this is
 					ret.add(-2);
-					return ret;
+					return new CallResolution(c, null, ret);
 				} else if(methodName.contentEquals("ordinal")) {
 					ret.add(mapleElementalTypes[0]);
-					return ret;
+					return new CallResolution(c, null, ret);
 				} else if(methodName.contentEquals("name")) {
 					ret.add(mapleElementalTypes[3]);
-					return ret;
+					return new CallResolution(c, null, ret);
 				} else if(methodName.contentEquals("equals")) {
 					ret.add(mapleElementalTypes[4]);
-					return ret;
+					return new CallResolution(c, null, ret);
 				}
 			} else if(c.isInterface()) {
 				for(MapleDeadlockClass sc : mapleInheritanceTree.get(c)) {
@@ -652,39 +787,14 @@ public abstract class MapleDeadlockGraphMaker {
 			allMethodImplementations.add(new LinkedList<>(i.right));
 		}
 
-		//System.out.println("conflicting funct " + mdf.getName() + " on " + DeadlockStorage.getCanonClassName(mdf.getSourceClass()));
-		//System.out.println("adding node " + fid);
-
-		/*
-                if(node.getId() == 986) {
-                        System.out.println("DEBUG DO_gachapon");
-
-                        for(int i = 0; i < allMethodImplementations.size(); i++) {
-                                DeadlockFunction mdf = allMethodImplementations.get(i);
-
-                                System.out.println("  " + mdf.getName() + " src " + DeadlockStorage.getCanonClassName(mdf.getSourceClass()));
-                        }
-                }
-                */
-
-		if(allMethodImplementations.isEmpty()) {
-			System.out.println("[Warning] EMPTY method node: " + methodCall.getText() + " @ " + method + " from " + MapleDeadlockStorage.getCanonClassName(c));
-		}
-
-		if (!allMethodImplementations.isEmpty()) {
-			for(List<Pair<MapleDeadlockFunction, Set<Integer>>> mi : allMethodImplementations) {
-				MapleDeadlockGraphEntry entry = new MapleDeadlockGraphEntry();
-
-				for(Pair<MapleDeadlockFunction, Set<Integer>> mip : mi) {
-					MapleDeadlockFunction mdf = mip.left;
-					//Set<Integer> tt = mi.right;
-
-					Integer fid = mapleGraphFunctionIds.get(mdf);
-					entry.addGraphEntryPoint(new MapleDeadlockGraphNodeCall(fid));
-				}
-
-				node.addGraphEntry(entry);
+		List<List<MapleDeadlockFunction>> targets = new ArrayList<>(allMethodImplementations.size());
+		for(List<Pair<MapleDeadlockFunction, Set<Integer>>> mi : allMethodImplementations) {
+			List<MapleDeadlockFunction> entry = new ArrayList<>(mi.size());
+			for(Pair<MapleDeadlockFunction, Set<Integer>> mip : mi) {
+				entry.add(mip.left);
 			}
+
+			targets.add(Collections.unmodifiableList(entry));
 		}
 
 		Set<Integer> retTypes = new HashSet<>();
@@ -703,7 +813,51 @@ public abstract class MapleDeadlockGraphMaker {
                         ret.add(-3);
                 }
 
-		return ret;
+		return new CallResolution(c, Collections.unmodifiableList(targets), ret);
+	}
+
+	private CallResolution getCallResolution(String method, Integer expType, List<Integer> argTypes) {
+		callLookups.incrementAndGet();
+
+		CallResolution r = mapleCallResolutions.get(new CallSite(expType, method, argTypes));
+		if (r != null) {
+			callHits.incrementAndGet();
+			return r;
+		}
+
+		// threads resolving the same call at once get the same result, the first one stored is kept
+		r = resolveCall(method, expType, argTypes);
+		CallResolution cur = mapleCallResolutions.putIfAbsent(new CallSite(expType, method, new ArrayList<>(argTypes)), r);
+		return (cur != null) ? cur : r;
+	}
+
+	protected Set<Integer> getReturnType(MapleDeadlockGraphMethod node, String method, Integer expType, List<Integer> argTypes, String methodCallText) {
+		CallResolution r = getCallResolution(method, expType, argTypes);
+
+		if (r.targets != null) {
+			if(r.targets.isEmpty()) {
+				printWarning("[Warning] EMPTY method node: " + methodCallText + " @ " + method + " from " + MapleDeadlockStorage.getCanonClassName(r.targetClass));
+			}
+
+			for(List<MapleDeadlockFunction> mi : r.targets) {
+				MapleDeadlockGraphEntry entry = new MapleDeadlockGraphEntry();
+
+				for(MapleDeadlockFunction mdf : mi) {
+					Integer fid = mapleGraphFunctionIds.get(mdf);     // looked up on each call, runnable methods get their ids later on
+					entry.addGraphEntryPoint(new MapleDeadlockGraphNodeCall(fid));
+				}
+
+				node.addGraphEntry(entry);
+			}
+		}
+
+		return new HashSet<>(r.retTypes);
+	}
+
+	private void reportCallResolutions() {
+		long lookups = callLookups.get(), hits = callHits.get();
+		double hitRate = lookups > 0 ? 100.0 * hits / lookups : 0.0;
+		System.out.println("Call resolution cache: " + hits + " hits, " + (lookups - hits) + " misses (" + String.format("%.1f", hitRate) + "% hit rate), " + mapleCallResolutions.size() + " call sites\n");
 	}
 
 	protected Integer getPreparedReturnType(String methodName, Integer thisType) {
@@ -754,71 +908,98 @@ public abstract class MapleDeadlockGraphMaker {
 	}
 
 	protected Integer getDereferencedType(String derTypeName, MapleDeadlockClass derClass) {
+		if (derClass != null) return mapleClassDataTypeIds.get(derClass);     // same name may stand for different classes, not cached
+
 		Integer derType = mapleDereferencedDataTypes.get(derTypeName);
 		if(derType != null) return derType;
 
-		if (derClass == null) derType = mapleBasicDataTypeIds.get(derTypeName);
-		else derType = mapleClassDataTypeIds.get(derClass);
-
-		mapleDereferencedDataTypes.put(derTypeName, derType);
+		derType = mapleBasicDataTypeIds.get(derTypeName);
+		if(derType != null) mapleDereferencedDataTypes.put(derTypeName, derType);
 		return derType;
 	}
 
-	protected void skimArrayInitializer(JavaParser.ArrayInitializerContext ainiCtx, MapleDeadlockGraphMethod node, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
-		// just process expressions inside and add them to the function graph, disregard return values
+        private MapleDeadlockClass getLockFieldOwner(String fieldName, MapleDeadlockClass sourceClass) {
+                // the class declaring the field, the lock stays the same whichever subclass the field is read from
+                if (sourceClass.getFieldVariable(fieldName) != null) return sourceClass;
 
-		for(JavaParser.VariableInitializerContext var : ainiCtx.variableInitializer()) {
-			if(var.expression() != null) {
-				parseMethodCalls(node, var.expression(), sourceMethod, sourceClass);
-			} else if(var.arrayInitializer() != null) {
-				skimArrayInitializer(var.arrayInitializer(), node, sourceMethod, sourceClass);
-			}
-		}
-	}
+                for(MapleDeadlockClass mdc : sourceClass.getSuperList()) {
+                        MapleDeadlockClass c = getLockFieldOwner(fieldName, mdc);
+                        if (c != null) return c;
+                }
+
+                if (sourceClass.getParent() != null) return getLockFieldOwner(fieldName, sourceClass.getParent());
+                return null;
+        }
+
+        private MapleDeadlockClass fetchLockOwner(MapleDeadlockExpression call, MapleDeadlockGraphMethod node, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
+                Set<Integer> ownerTypes = parseMethodCalls(node, call.getReceiver(), sourceMethod, sourceClass, false);
+                if (ownerTypes.size() != 1) return null;
+
+                MapleDeadlockClass c = getClassFromType(ownerTypes.iterator().next());
+                if (c == null) return null;
+
+                MapleDeadlockClass owner = getLockFieldOwner(call.getName(), c);
+                return (owner != null) ? owner : c;     // the object itself is locked, e.g. "this"
+        }
         
-        private String getLockFieldName(String resourceName) {
-                String[] sp = resourceName.split("_");
-                if (sp.length > 1) {
-                        String lockFieldName = "";
-                        for (int i = 0; i < sp.length - 2; i++) {
-                                lockFieldName += sp[i] + "_";
+        private void createSyncLock(MapleDeadlockClass c, String synchLockName) {
+                c.addFieldVariable(0, synchLockName);
+                String lockName = MapleDeadlockStorage.getCanonClassName(c) + "." + synchLockName;
+                mapleLocks.put(lockName, mapleStorage.newLock(lockName));   // create a lock representation of the synchronized modifier
+
+                if (keepTypedFunctions) {
+                        // lock ids follow the creation order, a typing taken over is only right while the locks are created as before
+                        List<String> previousLocks = (previousGraph != null) ? previousGraph.getCreatedLocks() : null;
+                        int i = mapleCreatedLocks.size();
+                        if (previousLocks == null || i >= previousLocks.size() || !previousLocks.get(i).equals(lockName)) {
+                                createdLocksMatch = false;
                         }
-                        lockFieldName = lockFieldName.substring(0, lockFieldName.length() - 1);
+                        mapleCreatedLocks.add(lockName);
 
-                        return lockFieldName;
-                } else {
-                        return resourceName;
+                        MapleDeadlockGraph.TypedFunction t = typedFunction.get();
+                        if (t != null) t.createdLocks.add(new Pair<>(MapleDeadlockStorage.getCanonClassName(c), synchLockName));
                 }
         }
 
-        private Pair<Integer, String> fetchLockField(String expressionText, boolean isLock, MapleDeadlockGraphMethod node, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
-                ParserRuleContext ctx = generateExpression(expressionText);
-                parseMethodCalls(node, ctx, sourceMethod, sourceClass, true);
-                int typeId = mapleClassDataTypeIds.get(refClass);
-
-                int idx = Integer.MAX_VALUE;
+        private void parseSyncLockCall(MapleDeadlockGraphMethod node, MapleDeadlockExpression call, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
+                String lockMethod = (call.getKind() == MapleDeadlockExpression.Kind.LOCK) ? "lock" : "unlock";
+                if (keepTypedFunctions) markLockLookup();
+                
+                if (call.getReceiver() == null) {   // lock field already placed by the reader on the source class
+                        Integer id = getLockId(call.getName(), sourceClass);
+                        if (id == -1) {
+                                if (call.getKind() == MapleDeadlockExpression.Kind.LOCK) printWarning("[Warning] NO LOCK FIELD " + call.getName() + " on src " + MapleDeadlockStorage.getCanonClassName(sourceClass));
+                                return;
+                        }
 
-                int idx1 = ctx.getText().lastIndexOf('.');  // upper field : '.'
-                if (idx1 > -1) {
-                        idx = Math.min(idx, idx1);
+                        lockId.set(id);
+                        evaluateLockFunction(lockMethod, Collections.emptyList(), 0, node);
+                        return;
                 }
-
-                int idx2 = ctx.getText().lastIndexOf('>');  // upper field : '->'
-                if (idx2 > -1) {
-                        idx = Math.min(idx, idx2 - 1);
+                
+                // otherwise the lock is named after the locked field, on the class holding it
+                MapleDeadlockClass c = fetchLockOwner(call, node, sourceMethod, sourceClass);
+                if (c == null) {
+                        if (call.getKind() == MapleDeadlockExpression.Kind.LOCK) printWarning("[Warning] COULD NOT DETERMINE lock owner " + call.getReceiver().getText() + " of " + call.getName() + " on src " + MapleDeadlockStorage.getCanonClassName(sourceClass));
+                        return;
                 }
 
-                if (idx < Integer.MAX_VALUE) {
-                        expressionText = ctx.getText().substring(0, idx);
+                String synchLockName = MapleDeadlockGraphMaker.getSyncLockName(call.getName(), 0);
+                Integer field = c.getFieldVariable(synchLockName);
+                if (field == null) {
+                        createSyncLock(c, synchLockName);
                 }
 
-                
-                return new Pair<>(isLock ? typeId : -typeId, expressionText);
+                lockId.set(getLockId(synchLockName, c));
+                evaluateLockFunction(lockMethod, Collections.emptyList(), 0, node);
         }
         
-	protected Set<Integer> parseMethodCalls(MapleDeadlockGraphMethod node, ParserRuleContext call, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
-                String callText = call.getText();
-            
+	protected Set<Integer> parseMethodCalls(MapleDeadlockGraphMethod node, MapleDeadlockExpression call, MapleDeadlockFunction sourceMethod, MapleDeadlockClass sourceClass) {
+                if (call.getKind() == MapleDeadlockExpression.Kind.LOCK || call.getKind() == MapleDeadlockExpression.Kind.UNLOCK) {
+                        parseSyncLockCall(node, call, sourceMethod, sourceClass);
+                        return new HashSet<>();
+                }
+
                 Set<Integer> metRetTypes = parseMethodCalls(node, call, sourceMethod, sourceClass, false);
 
 		Set<Integer> retTypes = new HashSet<>();
@@ -862,33 +1043,7 @@ public abstract class MapleDeadlockGraphMaker {
                                                 }
                                         }
 
-                                        System.out.println("[Warning] COULD NOT DETERMINE " + call.getText() + " on src " + MapleDeadlockStorage.getCanonClassName(sourceClass) + ", ret " + ret);
-                                } else if (ret == -3) {
-                                        String prefixLockName = MapleDeadlockGraphMaker.getSyncLockName();
-                                        
-                                        if (callText.startsWith(prefixLockName)) {
-                                                String fieldExpr = getLockFieldName(callText.substring(prefixLockName.length()));
-                                                Pair<Integer, String> lockField = fetchLockField(fieldExpr, !isUnlockMethodCall(callText), node, sourceMethod, sourceClass);
-                                                if (lockField != null) {
-                                                        MapleDeadlockClass c = getClassFromType(Math.abs(lockField.getLeft()));
-                                                        if(c != null) {
-                                                                String synchLockName = MapleDeadlockGraphMaker.getSyncLockName(lockField.getRight(), 0);
-                                                                Integer field = c.getFieldVariable(synchLockName);
-                                                                if (field == null) {
-                                                                        c.addFieldVariable(0, synchLockName);
-                                                                        CSharpReader.processLock(c, "SynchLock", synchLockName, synchLockName);   // create a lock representation of the synchronized modifier
-                                                                }
-                                                                
-                                                                getPrimaryType(synchLockName, sourceMethod, c);     // to retrieve lockId
-
-                                                                if (lockField.getLeft() > 0) {
-                                                                        evaluateLockFunction("lock", Collections.emptyList(), lockField.getLeft(), node);
-                                                                } else {
-                                                                        evaluateLockFunction("unlock", Collections.emptyList(), lockField.getLeft(), node);
-                                                                }
-                                                        }
-                                                }
-                                        }
+                                        printWarning("[Warning] COULD NOT DETERMINE " + call.getText() + " on src " + MapleDeadlockStorage.getCanonClassName(sourceClass) + ", ret " + ret);
                                 }
                         }
 		}
@@ -899,25 +1054,8 @@ public abstract class MapleDeadlockGraphMaker {
 		return retTypes;
 	}
 
-	private boolean isIgnoredRange(Integer type) {
-		return type >= mapleIgnoredDataRange.left && type < mapleIgnoredDataRange.right;
-	}
-
 	protected boolean isIgnoredType(Integer type) {
-		if(isIgnoredRange(type)) {
-			return true;
-		}
-
-		List<Integer> cType = mapleCompoundDataTypes.get(type);
-		if(cType != null) {
-			for(Integer i : cType) {
-				if(isIgnoredType(i)) {
-					return true;
-				}
-			}
-		}
-
-		return false;
+		return mapleTypeTable.isIgnoredType(type);
 	}
 
 	protected Integer getThisType(MapleDeadlockClass sourceClass) {
@@ -937,8 +1075,9 @@ public abstract class MapleDeadlockGraphMaker {
         
         private void parseMethodNode(MapleDeadlockFunction method, MapleDeadlockClass sourceClass) {
 		MapleDeadlockGraphMethod node = mapleGraphFunctions.get(method);
+                clearCallState();
                 
-		for(ParserRuleContext call : method.getMethodCalls()) {
+		for(MapleDeadlockExpression call : method.getMethodCalls()) {
                         parseMethodCalls(node, call, method, sourceClass);
 		}
 	}
@@ -1021,21 +1160,247 @@ public abstract class MapleDeadlockGraphMaker {
 		}
 	}
 
-	private void parseMethodNodes(Map<String, Map<String, MapleDeadlockClass>> packageClasses) {
+	private void listMethodNodes(Map<String, Map<String, MapleDeadlockClass>> packageClasses, List<Pair<MapleDeadlockFunction, MapleDeadlockClass>> methods) {
 		for(Map<String, MapleDeadlockClass> m : packageClasses.values()) {
 			for(MapleDeadlockClass c : m.values()) {
 				for(MapleDeadlockFunction f : c.getMethods()) {
-					parseMethodNode(f, c);
+					methods.add(new Pair<>(f, c));
+				}
+			}
+		}
+	}
+
+	private static int getGraphThreadCount() {
+		int nThreads = MapleDeadlockConfig.getIntProperty("graph_threads", 1);
+		if (nThreads <= 0) {
+			nThreads = Runtime.getRuntime().availableProcessors();
+		}
+
+		return nThreads;
+	}
+
+	private static boolean hasSyncLockTarget(MapleDeadlockFunction method) {
+		for(MapleDeadlockExpression call : method.getMethodCalls()) {
+			if ((call.getKind() == MapleDeadlockExpression.Kind.LOCK || call.getKind() == MapleDeadlockExpression.Kind.UNLOCK) && call.getReceiver() != null) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private String parseBufferedMethodNode(MapleDeadlockFunction method, MapleDeadlockClass sourceClass) {
+		StringBuilder sb = new StringBuilder();
+
+		warningBuffer.set(sb);
+		try {
+			parseMethodNode(method, sourceClass);
+		} finally {
+			warningBuffer.remove();
+		}
+
+		return sb.toString();
+	}
+
+	private class MethodNodeTask extends RecursiveTask<String> {
+
+		private static final long serialVersionUID = 1L;
+
+		MapleDeadlockFunction method;
+		MapleDeadlockClass sourceClass;
+
+		private MethodNodeTask(MapleDeadlockFunction method, MapleDeadlockClass sourceClass) {
+			this.method = method;
+			this.sourceClass = sourceClass;
+		}
+
+		@Override
+		protected String compute() {
+			return typeMethodNode(method, sourceClass);
+		}
+
+	}
+
+	private void parseMethodNodes(List<Pair<MapleDeadlockFunction, MapleDeadlockClass>> methods, int nThreads) {
+		if (nThreads == 1) {
+			for(Pair<MapleDeadlockFunction, MapleDeadlockClass> p : methods) {
+				if (keepTypedFunctions) {
+					System.out.print(replayOrTypeMethodNode(p.left, p.right));
+				} else {
+					parseMethodNode(p.left, p.right);
+				}
+			}
+
+			return;
+		}
+
+		// methods locking on another object's monitor add lock fields to classes, these go first and in order so lock ids stay the same
+		String[] warnings = new String[methods.size()];
+		for (int i = 0; i < warnings.length; i++) {
+			Pair<MapleDeadlockFunction, MapleDeadlockClass> p = methods.get(i);
+			if (hasSyncLockTarget(p.left)) {
+				warnings[i] = replayOrTypeMethodNode(p.left, p.right);
+			} else {
+				warnings[i] = replayMethodNode(p.left);
+			}
+		}
+
+		// then each method is typed on its own, warnings are printed in method order so they don't depend on thread timing
+		ForkJoinPool pool = new ForkJoinPool(nThreads);
+		try {
+			List<MethodNodeTask> tasks = new ArrayList<>(warnings.length);
+			for (int i = 0; i < warnings.length; i++) {
+				MethodNodeTask task = null;
+				if (warnings[i] == null) {
+					Pair<MapleDeadlockFunction, MapleDeadlockClass> p = methods.get(i);
+					task = new MethodNodeTask(p.left, p.right);
+					pool.execute(task);
 				}
+				tasks.add(task);
+			}
+
+			for (int i = 0; i < warnings.length; i++) {
+				String w = (tasks.get(i) != null) ? tasks.get(i).join() : warnings[i];
+				System.out.print(w);
 			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private String replayOrTypeMethodNode(MapleDeadlockFunction method, MapleDeadlockClass sourceClass) {
+		String w = replayMethodNode(method);
+		return (w != null) ? w : typeMethodNode(method, sourceClass);
+	}
+
+	private String typeMethodNode(MapleDeadlockFunction method, MapleDeadlockClass sourceClass) {
+		if (!keepTypedFunctions) {
+			return parseBufferedMethodNode(method, sourceClass);
+		}
+
+		MapleDeadlockGraph.TypedFunction t = new MapleDeadlockGraph.TypedFunction(mapleFunctionDigests.get(method));
+		t.lockPrefix = mapleCreatedLocks.size();
+
+		typedFunction.set(t);
+		try {
+			t.warnings = parseBufferedMethodNode(method, sourceClass);
+		} finally {
+			typedFunction.remove();
+		}
+		t.node = mapleGraphFunctions.get(method);
+
+		keepTypedFunction(method, t);
+		retypedFunctions.incrementAndGet();
+		return t.warnings;
+	}
+
+	private void keepTypedFunction(MapleDeadlockFunction method, MapleDeadlockGraph.TypedFunction t) {
+		String key = mapleFunctionKeys.get(method);
+		if (key != null) {
+			mapleTypedFunctions.put(key, t);
 		}
 	}
 
-	private void parseRunnableMethodNodes() {
+	private String replayMethodNode(MapleDeadlockFunction method) {
+		// the method reads the same as in the previous graph, and so does everything it's typed against: its nodes are taken over, with
+		// the callees and locks numbered as in this graph. Null when it has to be typed again
+		if (retypeAll) return null;
+
+		String key = mapleFunctionKeys.get(method);
+		if (key == null) return null;
+
+		MapleDeadlockGraph.TypedFunction prev = previousGraph.getTypedFunctions().get(key);
+		if (prev == null || !Arrays.equals(prev.digest, mapleFunctionDigests.get(method))) return null;
+		if (prev.lockLookup && !(createdLocksMatch && mapleCreatedLocks.size() == prev.lockPrefix)) return null;
+
+		List<MapleDeadlockClass> owners = new ArrayList<>(prev.createdLocks.size());
+		Set<String> ownerLocks = new HashSet<>();
+		for (Pair<String, String> p : prev.createdLocks) {
+			MapleDeadlockClass c = mapleCanonClasses.get(p.left);
+			if (c == null || c.getFieldVariable(p.right) != null) return null;
+			owners.add(c);
+			ownerLocks.add(p.left + "." + p.right);
+		}
+
+		for (MapleDeadlockGraphEntry e : prev.node.getEntryList()) {
+			for (MapleDeadlockGraphNode n : e.getGraphEntryPoints()) {
+				if (n.getType() == MapleDeadlockGraphNodeType.CALL) {
+					if (getReplayedFunctionId(n.getValue()) == null) return null;
+				} else if (n.getType() == MapleDeadlockGraphNodeType.LOCK || n.getType() == MapleDeadlockGraphNodeType.UNLOCK) {
+					Integer lockId = ((MapleDeadlockGraphNodeLock) n).getLock();
+					if (lockId != null && lockId != -1) {
+						String lockName = previousGraph.getLockNames().get(lockId);
+						if (lockName == null || (mapleLocks.get(lockName) == null && !ownerLocks.contains(lockName))) return null;
+					}
+				}
+			}
+		}
+
+		MapleDeadlockGraph.TypedFunction t = new MapleDeadlockGraph.TypedFunction(prev.digest);
+		t.warnings = prev.warnings;
+		t.lockLookup = prev.lockLookup;
+		t.lockPrefix = mapleCreatedLocks.size();
+		t.createdLocks = prev.createdLocks;
+
+		for (int i = 0; i < owners.size(); i++) {
+			createSyncLock(owners.get(i), prev.createdLocks.get(i).right);
+		}
+
+		List<MapleDeadlockGraphEntry> entries = new ArrayList<>(prev.node.getEntryList().size());
+		for (MapleDeadlockGraphEntry e : prev.node.getEntryList()) {
+			MapleDeadlockGraphEntry entry = new MapleDeadlockGraphEntry();
+
+			for (MapleDeadlockGraphNode n : e.getGraphEntryPoints()) {
+				switch (n.getType()) {
+				case CALL:
+					entry.addGraphEntryPoint(new MapleDeadlockGraphNodeCall(getReplayedFunctionId(n.getValue())));
+					break;
+
+				case LOCK:
+				case UNLOCK:
+					Integer lockId = ((MapleDeadlockGraphNodeLock) n).getLock();
+					if (lockId != null && lockId != -1) {
+						lockId = mapleLocks.get(previousGraph.getLockNames().get(lockId)).getId();
+					}
+
+					entry.addGraphEntryPoint(new MapleDeadlockGraphNodeLock(lockId, n.getType() == MapleDeadlockGraphNodeType.LOCK));
+					break;
+
+				default:
+					entry.addGraphEntryPoint(new MapleDeadlockGraphNodeScript());
+					break;
+				}
+			}
+
+			entries.add(entry);
+		}
+
+		MapleDeadlockGraphMethod node = mapleGraphFunctions.get(method);
+		for (MapleDeadlockGraphEntry entry : entries) {
+			node.addGraphEntry(entry);
+		}
+		t.node = node;
+
+		keepTypedFunction(method, t);
+		return t.warnings;
+	}
+
+	private Integer getReplayedFunctionId(int previousId) {
+		String key = previousFunctionKeys.get(previousId);
+		if (key == null) return null;
+
+		MapleDeadlockFunction f = mapleKeyFunctions.get(key);
+		return (f != null) ? mapleGraphFunctionIds.get(f) : null;
+	}
+
+	private void parseRunnableMethodNodes(int nThreads) {
+		List<Pair<MapleDeadlockFunction, MapleDeadlockClass>> methods = new ArrayList<>(mapleRunnableMethods.size());
 		for(MapleDeadlockFunction f : mapleRunnableMethods) {
 			createGraphFunction(f);
-			parseMethodNode(f, f.getSourceClass());
+			methods.add(new Pair<>(f, f.getSourceClass()));
 		}
+
+		parseMethodNodes(methods, nThreads);
 	}
         
         public static String getSyncLockName() {
@@ -1101,6 +1466,16 @@ public abstract class MapleDeadlockGraphMaker {
 	}
 
 	public MapleDeadlockGraph generateSourceGraph(MapleDeadlockStorage metadata) {
+		return generateSourceGraph(metadata, null, false);
+	}
+
+	public MapleDeadlockGraph generateSourceGraph(MapleDeadlockStorage metadata, MapleDeadlockGraph previous) {
+		// what typing each method gave is kept, methods reading the same as in the previous graph aren't typed again
+		return generateSourceGraph(metadata, previous, true);
+	}
+
+	private MapleDeadlockGraph generateSourceGraph(MapleDeadlockStorage metadata, MapleDeadlockGraph previous, boolean keepTyped) {
+		mapleStorage = metadata;
 		reinstanceCachedMaps(metadata);
 		objectSetId = defineObjectSet();
 
@@ -1119,6 +1494,7 @@ public abstract class MapleDeadlockGraphMaker {
 		mapleElementalTypes = metadata.getElementalTypes();
 		mapleReflectedClasses = metadata.getReflectedClasses();
 		mapleInheritanceTree = metadata.getInheritanceTree();
+		mapleDispatchTable = new MapleDeadlockDispatchTable(mapleInheritanceTree);     // every subclass declaring a method is then a table lookup away
 		mapleIgnoredDataRange = metadata.getIgnoredDataRange();
 
 		mapleRunnableMethods = metadata.getRunnableMethods();
@@ -1131,13 +1507,21 @@ public abstract class MapleDeadlockGraphMaker {
 		generateMethodNodes(maplePublicClasses);
 		generateMethodNodes(maplePrivateClasses);
 
-		MapleDeadlockFunction.installTypeReferences(mapleElementalDataTypes, mapleCompoundDataTypes, mapleSuperClasses, mapleEnumDataTypes, mapleIgnoredDataRange, mapleElementalTypes[0]);
+		mapleTypeTable = new MapleDeadlockTypeTable(mapleElementalDataTypes, mapleCompoundDataTypes, mapleSuperClasses, mapleEnumDataTypes, mapleIgnoredDataRange, mapleElementalTypes[0], mapleBasicDataTypeIds.get("Object"));
 
 		try {
-			parseMethodNodes(maplePublicClasses);
-			parseMethodNodes(maplePrivateClasses);
+			int nThreads = getGraphThreadCount();
 
-			parseRunnableMethodNodes();
+			List<Pair<MapleDeadlockFunction, MapleDeadlockClass>> methods = new ArrayList<>();
+			listMethodNodes(maplePublicClasses, methods);
+			listMethodNodes(maplePrivateClasses, methods);
+			if (keepTyped) {
+				prepareTypedFunctions(methods, previous);
+			}
+			parseMethodNodes(methods, nThreads);
+
+			parseRunnableMethodNodes(nThreads);
+			reportCallResolutions();
 		} catch (Exception e) {
 			//e.printStackTrace();
 
@@ -1145,7 +1529,268 @@ public abstract class MapleDeadlockGraphMaker {
                         throw e;
 		}
 
-		return new MapleDeadlockGraph(mapleGraphFunctionIds, mapleGraphFunctions);
+		MapleDeadlockGraph graph = new MapleDeadlockGraph(mapleGraphFunctionIds, mapleGraphFunctions);
+		if (keepTyped) {
+			keepTypedFunctions(graph);
+		}
+
+		return graph;
+	}
+
+	private void prepareTypedFunctions(List<Pair<MapleDeadlockFunction, MapleDeadlockClass>> methods, MapleDeadlockGraph previous) {
+		keepTypedFunctions = true;
+
+		List<MapleDeadlockFunction> functions = new ArrayList<>(methods.size() + mapleRunnableMethods.size());
+		for (Pair<MapleDeadlockFunction, MapleDeadlockClass> p : methods) {
+			functions.add(p.left);
+		}
+		functions.addAll(mapleRunnableMethods);
+
+		for (MapleDeadlockFunction f : functions) {
+			String key = getFunctionKey(f);
+			MapleDeadlockFunction g = mapleKeyFunctions.get(key);
+			if (g == null && !mapleKeyFunctions.containsKey(key)) {
+				mapleKeyFunctions.put(key, f);
+			} else if (g != f) {
+				mapleKeyFunctions.put(key, null);    // overloads read alike can't be told apart, these are always typed
+			}
+		}
+
+		for (MapleDeadlockFunction f : functions) {
+			String key = getFunctionKey(f);
+			mapleFunctionKeys.put(f, (mapleKeyFunctions.get(key) == f) ? key : null);
+			mapleFunctionDigests.put(f, getFunctionDigest(f));
+		}
+
+		for (MapleDeadlockClass c : mapleAllClasses.values()) {
+			String name = MapleDeadlockStorage.getCanonClassName(c);
+			MapleDeadlockClass d = mapleCanonClasses.get(name);
+			if (d == null && !mapleCanonClasses.containsKey(name)) {
+				mapleCanonClasses.put(name, c);
+			} else if (d != c) {
+				mapleCanonClasses.put(name, null);
+			}
+		}
+
+		declarationDigest = getDeclarationDigest();
+
+		previousGraph = previous;
+		retypeAll = previous == null || previous.getTypedFunctions() == null || !Arrays.equals(previous.getDeclarationDigest(), declarationDigest);
+		if (!retypeAll) {
+			for (Entry<MapleDeadlockFunction, Integer> e : previous.getFunctionIds().entrySet()) {
+				String key = previous.getFunctionKeys().get(e.getKey());
+				if (key != null) {
+					previousFunctionKeys.put(e.getValue(), key);
+				}
+			}
+		}
+	}
+
+	private void keepTypedFunctions(MapleDeadlockGraph graph) {
+		Map<Integer, String> lockNames = new HashMap<>();
+		for (Entry<String, MapleDeadlockLock> e : mapleLocks.entrySet()) {
+			if (e.getValue() != null) lockNames.put(e.getValue().getId(), e.getKey());
+		}
+
+		Map<Integer, String> functionKeys = new HashMap<>();
+		for (Entry<MapleDeadlockFunction, Integer> e : mapleGraphFunctionIds.entrySet()) {
+			functionKeys.put(e.getValue(), mapleFunctionKeys.get(e.getKey()));
+		}
+
+		Map<MapleDeadlockFunction, String> functionShapes = new HashMap<>();
+		for (Entry<MapleDeadlockFunction, MapleDeadlockGraphMethod> e : mapleGraphFunctions.entrySet()) {
+			functionShapes.put(e.getKey(), getFunctionShape(e.getValue(), functionKeys, lockNames));
+		}
+
+		int nFunctions = mapleGraphFunctions.size(), nTyped = retypedFunctions.get();
+		graph.setTypedFunctions(declarationDigest, mapleFunctionKeys, functionShapes, mapleTypedFunctions, mapleCreatedLocks, lockNames, nTyped);
+
+		if (previousGraph != null) {
+			if (retypeAll) {
+				System.out.println("Project declarations changed, all " + nFunctions + " functions typed again\n");
+			} else {
+				System.out.println("Functions typed again: " + nTyped + "/" + nFunctions + ", the others taken over from the previous graph\n");
+			}
+		}
+	}
+
+	private static String getFunctionShape(MapleDeadlockGraphMethod node, Map<Integer, String> functionKeys, Map<Integer, String> lockNames) {
+		// the node with callees and locks named instead of numbered, null when some callee can't be named
+		StringBuilder sb = new StringBuilder();
+		for (MapleDeadlockGraphEntry e : node.getEntryList()) {
+			sb.append('[');
+			for (MapleDeadlockGraphNode n : e.getGraphEntryPoints()) {
+				switch (n.getType()) {
+				case CALL:
+					String key = functionKeys.get(n.getValue());
+					if (key == null) return null;
+					sb.append("C ").append(key);
+					break;
+
+				case LOCK:
+				case UNLOCK:
+					String lockName = lockNames.get(n.getLockId());
+					sb.append(n.getType() == MapleDeadlockGraphNodeType.LOCK ? "L " : "U ").append(lockName != null ? lockName : n.getLockId());
+					break;
+
+				default:
+					sb.append("S");
+					break;
+				}
+				sb.append(';');
+			}
+			sb.append(']');
+		}
+
+		return sb.toString();
+	}
+
+	private static MessageDigest getDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String getFunctionKey(MapleDeadlockFunction f) {
+		if (f.getSourceClass() == null) return " >> " + f.getName();     // the file scope some readers place methods in, no heading
+		return MapleDeadlockStorage.getCanonClassName(f.getSourceClass()) + " >> " + f.getName() + " " + f.getParameters();
+	}
+
+	private static String getFunctionHeading(MapleDeadlockFunction f) {
+		if (f.getSourceClass() == null) return getFunctionKey(f);
+		return getFunctionKey(f) + " " + f.getReturn() + " " + f.isAbstract() + " " + f.isEllipsis() + " " + new TreeMap<>(f.getParameterVariables());
+	}
+
+	private static void appendExpression(StringBuilder sb, MapleDeadlockExpression e) {
+		sb.append('(').append(e.getKind()).append(' ').append(e.getName()).append(' ').append(e.getIndex()).append(' ').append(e.getText());
+		if (e.getReceiver() != null) {
+			appendExpression(sb, e.getReceiver());
+		}
+		for (MapleDeadlockExpression o : e.getOperands()) {
+			appendExpression(sb, o);
+		}
+		sb.append(')');
+	}
+
+	private static byte[] getFunctionDigest(MapleDeadlockFunction f) {
+		// what typing a method reads of it: heading, local variables and calls, then the same for the methods it's declared in
+		MessageDigest md = getDigest();
+
+		for (MapleDeadlockFunction m = f; m != null; m = m.getParent()) {
+			StringBuilder sb = new StringBuilder(getFunctionHeading(m));
+
+			Map<Long, Set<Integer>> localVars = new TreeMap<>();
+			for (Entry<Long, Set<Integer>> e : m.getLocalVariables().entrySet()) {
+				localVars.put(e.getKey(), new TreeSet<>(e.getValue()));
+			}
+			sb.append('\n').append(localVars);
+			sb.append('\n').append(new TreeMap<>(m.getVolatileLocalVariables()));
+			sb.append('\n').append(new TreeSet<>(m.getLocalVariableNames()));
+
+			for (MapleDeadlockExpression call : m.getMethodCalls()) {
+				sb.append('\n');
+				appendExpression(sb, call);
+			}
+			sb.append('\n');
+
+			md.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+		}
+
+		return md.digest();
+	}
+
+	private static String getClassName(MapleDeadlockClass c) {
+		return (c != null) ? MapleDeadlockStorage.getCanonClassName(c) : null;
+	}
+
+	private static List<String> getClassNames(List<MapleDeadlockClass> list) {
+		List<String> names = new ArrayList<>(list.size());
+		for (MapleDeadlockClass c : list) {
+			names.add(getClassName(c));
+		}
+
+		return names;
+	}
+
+	private static void addClassDeclarations(List<String> lines, String scope, Map<String, Map<String, MapleDeadlockClass>> packageClasses) {
+		for (Entry<String, Map<String, MapleDeadlockClass>> m : packageClasses.entrySet()) {
+			for (Entry<String, MapleDeadlockClass> e : m.getValue().entrySet()) {
+				MapleDeadlockClass c = e.getValue();
+				String name = scope + " " + m.getKey() + " " + e.getKey();
+
+				lines.add(name + " class " + getClassName(c) + " " + c.getName() + " " + c.getPackageName() + " " + c.getPathName() + " " + c.isEnum() + " " + c.isInterface() + " " + getClassName(c.getParent()) + " " + c.getSuperNameList() + " " + getClassNames(c.getSuperList()) + " " + c.getMaskedTypes());
+				for (Pair<String, MapleDeadlockClass> i : c.getImports()) {
+					lines.add(name + " import " + i.left + " " + getClassName(i.right));
+				}
+				lines.add(name + " fields " + new TreeMap<>(c.getFieldVariables()));
+				if (c.isEnum()) {
+					lines.add(name + " items " + new TreeSet<>(((MapleDeadlockEnum) c).getEnumItems()));
+				}
+
+				int i = 0;
+				for (MapleDeadlockFunction f : c.getMethods()) {
+					lines.add(name + " method " + i + " " + getFunctionHeading(f));
+					i++;
+				}
+			}
+		}
+	}
+
+	private byte[] getDeclarationDigest() {
+		// what every method is typed against, classes with their fields and method headings, type ids and locks. When any of it changes,
+		// all methods are typed again
+		List<String> lines = new ArrayList<>();
+		addClassDeclarations(lines, "public", maplePublicClasses);
+		addClassDeclarations(lines, "private", maplePrivateClasses);
+
+		for (Entry<String, MapleDeadlockLock> e : mapleLocks.entrySet()) {
+			lines.add("lock " + e.getKey() + " " + ((e.getValue() != null) ? e.getValue().getId() : null));
+		}
+		for (Entry<String, MapleDeadlockLock> e : mapleStorage.getReadWriteLocks().entrySet()) {
+			lines.add("rwlock " + e.getKey() + " " + ((e.getValue() != null) ? e.getValue().getId() : null));
+		}
+
+		for (Entry<MapleDeadlockClass, Integer> e : mapleClassDataTypeIds.entrySet()) {
+			lines.add("classtype " + getClassName(e.getKey()) + " " + e.getValue());
+		}
+		for (Entry<Integer, List<Integer>> e : mapleCompoundDataTypes.entrySet()) {
+			lines.add("compoundtype " + e.getKey() + " " + e.getValue());
+		}
+		for (Entry<Integer, String> e : mapleBasicDataTypes.entrySet()) {
+			lines.add("basictype " + e.getKey() + " " + e.getValue());
+		}
+		for (Entry<Integer, Integer> e : mapleElementalDataTypes.entrySet()) {
+			lines.add("elementaltype " + e.getKey() + " " + e.getValue());
+		}
+		lines.add("elementaltypes " + Arrays.toString(mapleElementalTypes));
+
+		for (Entry<Integer, Pair<Integer, Map<String, Integer>>> e : mapleReflectedClasses.entrySet()) {
+			lines.add("reflected " + e.getKey() + " " + e.getValue().left + " " + new TreeMap<>(e.getValue().right));
+		}
+		for (Entry<MapleDeadlockClass, List<MapleDeadlockClass>> e : mapleInheritanceTree.entrySet()) {
+			lines.add("inherits " + getClassName(e.getKey()) + " " + getClassNames(e.getValue()));
+		}
+		if (mapleIgnoredDataRange != null) {
+			lines.add("ignored " + mapleIgnoredDataRange.left + " " + mapleIgnoredDataRange.right);
+		}
+
+		int i = 0;
+		for (MapleDeadlockFunction f : mapleRunnableMethods) {
+			lines.add("runnable " + i + " " + getFunctionHeading(f));
+			i++;
+		}
+
+		Collections.sort(lines);
+
+		MessageDigest md = getDigest();
+		for (String line : lines) {
+			md.update(line.getBytes(StandardCharsets.UTF_8));
+			md.update((byte) '\n');
+		}
+
+		return md.digest();
 	}
 
 	private List<Pair<Integer, Pair<MapleDeadlockFunction, MapleDeadlockGraphMethod>>> generateDumpEntries() {
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import mapledeadlocktracker.containers.MapleDeadlockCycle;
 import mapledeadlocktracker.containers.MapleDeadlockEntry;
 
 /**
@@ -39,19 +40,53 @@ public class MapleDeadlockGraphResult {
 		return deadlocks;
 	}
 
-	public static void reportDeadlocks(Set<MapleDeadlockEntry> deadlocksSet, Map<Integer, String> mapleLockNames) {
+	public static void reportDeadlocks(Set<MapleDeadlockEntry> deadlocksSet, List<MapleDeadlockCycle> lockCycles, Integer lockCycleLimit, Map<Integer, String> mapleLockNames, Double coverage) {
 		List<MapleDeadlockEntry> deadlocks = sortDeadlockEntries(deadlocksSet);
 		Set<Integer> locks = new HashSet<>();
 		for (MapleDeadlockEntry e : deadlocks) {
 			locks.add(e.getLockId1());
 			locks.add(e.getLockId2());
 		}
+		for (MapleDeadlockCycle c : lockCycles) {
+			locks.addAll(c.getLockIds());
+		}
 
                 System.out.println();
-		System.out.println("List of deadlocks:");
+		if (coverage != null) {
+			System.out.println("List of deadlocks (partial, " + String.format("%.1f", coverage) + "% of the reachable functions walked):");
+		} else {
+			System.out.println("List of deadlocks:");
+		}
 		for (Integer i : locks) {
 			System.out.println(mapleLockNames.get(i));
 		}
+
+		if (!lockCycles.isEmpty() || lockCycleLimit != null) {
+			reportLockCycles(lockCycles, lockCycleLimit, mapleLockNames);
+		}
+	}
+
+	private static void reportLockCycles(List<MapleDeadlockCycle> lockCycles, Integer lockCycleLimit, Map<Integer, String> mapleLockNames) {
+		System.out.println();
+		if (lockCycleLimit != null) {
+			System.out.println("Lock-order cycles (truncated, only the first " + lockCycleLimit + " are listed):");
+		} else {
+			System.out.println("Lock-order cycles:");
+		}
+		for (MapleDeadlockCycle c : lockCycles) {
+			List<Integer> lockIds = c.getLockIds();
+
+			String s = "";
+			for (int i = 0; i < lockIds.size(); i++) {
+				s += mapleLockNames.get(lockIds.get(i)) + " -> ";
+			}
+			s += mapleLockNames.get(lockIds.get(0));
+			System.out.println(s);
+
+			for (int i = 0; i < lockIds.size(); i++) {
+				System.out.println("    " + c.getFunctions().get(i) + " takes " + mapleLockNames.get(lockIds.get((i + 1) % lockIds.size())) + " holding " + mapleLockNames.get(lockIds.get(i)));
+			}
+		}
 	}
 
 }
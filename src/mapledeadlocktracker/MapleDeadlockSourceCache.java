@@ -0,0 +1,171 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import mapledeadlocktracker.containers.MapleDeadlockSourceFile;
+
+import org.antlr.v4.runtime.RuntimeMetaData;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockSourceCache {
+
+	// increase whenever the events recorded by the source readers, or the way they are written, change
+	private static final int EXTRACTION_VERSION = 7;
+	private static final int CACHE_MAGIC = 0x4D44540A;
+
+	private final Path cacheDir;
+	private final byte[] toolDigest;
+
+	private final AtomicInteger hits = new AtomicInteger(0);
+	private final AtomicInteger misses = new AtomicInteger(0);
+
+	public MapleDeadlockSourceCache(String cacheFolder, MapleDeadlockGraphMaker g) throws IOException {
+		cacheDir = Paths.get(cacheFolder);
+		toolDigest = getToolDigest(g);
+
+		Files.createDirectories(cacheDir);
+	}
+
+	private static MessageDigest getDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static byte[] getToolDigest(MapleDeadlockGraphMaker g) {
+		MessageDigest md = getDigest();
+
+		md.update(("" + EXTRACTION_VERSION + ";" + RuntimeMetaData.VERSION + ";" + g.getClass().getName() + ";").getBytes(StandardCharsets.UTF_8));
+		md.update(g.getGrammarSignature().getBytes(StandardCharsets.UTF_8));
+
+		return md.digest();
+	}
+
+	public String getSourceKey(String fileName, ByteBuffer content) {
+		// the file path takes part in the key, since readers may take the package name from it
+		MessageDigest md = getDigest();
+
+		md.update(toolDigest);
+		md.update(fileName.getBytes(StandardCharsets.UTF_8));
+		md.update((byte) 0);
+		md.update(content);     // same bytes the parser is fed, the file is not read twice
+
+		StringBuilder sb = new StringBuilder();
+		for (byte b : md.digest()) {
+			sb.append(String.format("%02x", b));
+		}
+
+		return sb.toString();
+	}
+
+	private Path getEntryPath(String key) {
+		return cacheDir.resolve(key.substring(0, 2)).resolve(key + ".bin");
+	}
+
+	private static int getChecksum(byte[] b, int offset, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(b, offset, length);
+		return (int) crc.getValue();
+	}
+
+	public MapleDeadlockSourceFile loadSourceFile(String key) {
+		Path entry = getEntryPath(key);
+		if (!Files.isRegularFile(entry)) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		try {
+			// magic, events, then the checksum of the events
+			byte[] b = Files.readAllBytes(entry);
+			if (b.length < 8 || ByteBuffer.wrap(b).getInt() != CACHE_MAGIC) {
+				throw new IOException("Invalid cache entry");
+			}
+
+			int length = b.length - 8;
+			if (ByteBuffer.wrap(b).getInt(b.length - 4) != getChecksum(b, 4, length)) {
+				throw new IOException("Checksum mismatch");
+			}
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(b, 4, length));
+			MapleDeadlockSourceFile ret = MapleDeadlockSourceFile.readEvents(in);
+			if (in.available() > 0) {
+				throw new IOException("Trailing data in cache entry");
+			}
+
+			hits.incrementAndGet();
+			return ret;
+		} catch (Exception e) {
+			// whatever went wrong decoding it, the file is just parsed again
+			System.out.println("[Warning] Discarding source cache entry '" + entry + "': " + e.getMessage());
+			misses.incrementAndGet();
+			return null;
+		}
+	}
+
+	public void saveSourceFile(String key, MapleDeadlockSourceFile sourceFile) {
+		Path entry = getEntryPath(key);
+
+		try {
+			Files.createDirectories(entry.getParent());
+
+			ByteArrayOutputStream events = new ByteArrayOutputStream();
+			sourceFile.writeEvents(new DataOutputStream(events));
+			byte[] b = events.toByteArray();
+
+			// written apart and then moved in, so a cache entry is never seen half-written
+			Path temp = Files.createTempFile(entry.getParent(), key, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(CACHE_MAGIC);
+				out.write(b);
+				out.writeInt(getChecksum(b, 0, b.length));
+			} catch (IOException e) {
+				Files.deleteIfExists(temp);
+				throw e;
+			}
+
+			Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.out.println("[Warning] Could not write source cache entry '" + entry + "': " + e.getMessage());
+		}
+	}
+
+	public int getHits() {
+		return hits.get();
+	}
+
+	public int getMisses() {
+		return misses.get();
+	}
+}
@@ -0,0 +1,197 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockSourceFinder {
+
+	private final Path root;
+	private final List<PathMatcher> includes;
+	private final List<PathMatcher> excludes;
+	private final int nThreads;
+
+	public MapleDeadlockSourceFinder(String directoryName, int nThreads) {
+		this.root = Paths.get(directoryName).toAbsolutePath();
+		this.includes = getPathMatchers(MapleDeadlockConfig.getListProperty("include"));
+		this.excludes = getPathMatchers(MapleDeadlockConfig.getListProperty("exclude"));
+		this.nThreads = nThreads;
+	}
+
+	private static List<PathMatcher> getPathMatchers(List<String> globs) {
+		List<PathMatcher> ret = new ArrayList<>(globs.size());
+		for (String glob : globs) {
+			ret.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+		}
+
+		return ret;
+	}
+
+	private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+		for (PathMatcher m : matchers) {
+			if (m.matches(path)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean hasSourceExtension(String fName) {
+		List<String> list = MapleDeadlockConfig.getAssociatedFileExtensions();
+
+		if (list.isEmpty()) {
+			return true;
+		}
+
+		for (String ext : list) {
+			if (fName.endsWith(ext)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private Path getRelativePath(Path path) {
+		// globs are matched against the path from the source folder
+		path = path.toAbsolutePath();
+		return path.startsWith(root) ? root.relativize(path) : path;
+	}
+
+	public boolean isSourceFile(Path file) {
+		if (!hasSourceExtension(file.getFileName().toString())) {
+			return false;
+		}
+
+		Path relPath = getRelativePath(file);
+		if (matchesAny(excludes, relPath)) {
+			return false;
+		}
+
+		return includes.isEmpty() || matchesAny(includes, relPath);
+	}
+
+	public boolean isExcludedFolder(Path directory) {
+		Path relPath = getRelativePath(directory);
+		return !relPath.toString().isEmpty() && matchesAny(excludes, relPath);
+	}
+
+	private class SourceFolderTask extends RecursiveTask<List<String>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path directory;
+		private final Set<Path> ancestors;  // real paths of the folders above, to cut symbolic link loops
+
+		private SourceFolderTask(Path directory, Set<Path> ancestors) {
+			this.directory = directory;
+			this.ancestors = ancestors;
+		}
+
+		@Override
+		protected List<String> compute() {
+			Set<Path> folderChain;
+			try {
+				Path realPath = directory.toRealPath();
+				if (ancestors.contains(realPath)) {
+					System.out.println("[Warning] Skipping folder '" + directory + "', it links back to one of its parents");
+					return Collections.emptyList();
+				}
+
+				folderChain = new HashSet<>(ancestors);
+				folderChain.add(realPath);
+			} catch (IOException e) {
+				System.out.println("[Warning] Could not read folder '" + directory + "': " + e.getMessage());
+				return Collections.emptyList();
+			}
+
+			// entries are kept in listing order, subfolders are walked concurrently and their files are put in place afterwards
+			List<Object> entries = new ArrayList<>();
+			try {
+				Files.walkFileTree(directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						if (attrs.isDirectory()) {
+							if (!isExcludedFolder(file)) {   // pruned folders are never opened
+								SourceFolderTask task = new SourceFolderTask(file, folderChain);
+								task.fork();
+								entries.add(task);
+							}
+						} else if (attrs.isRegularFile() && isSourceFile(file)) {
+							entries.add(file.toString());
+						}
+
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException e) {
+						if (!(e instanceof NoSuchFileException)) {    // dangling links are skipped silently
+							System.out.println("[Warning] Could not read '" + file + "': " + e.getMessage());
+						}
+
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} catch (IOException e) {
+				System.out.println("[Warning] Could not read folder '" + directory + "': " + e.getMessage());
+			}
+
+			List<String> ret = new ArrayList<>();
+			for (Object o : entries) {
+				if (o instanceof SourceFolderTask) {
+					ret.addAll(((SourceFolderTask) o).join());
+				} else {
+					ret.add((String) o);
+				}
+			}
+
+			return ret;
+		}
+	}
+
+	public List<String> listSourceFiles() {
+		return listSourceFiles(root);
+	}
+
+	public List<String> listSourceFiles(Path directory) {
+		ForkJoinPool pool = new ForkJoinPool(nThreads);
+		try {
+			return pool.invoke(new SourceFolderTask(directory.toAbsolutePath(), Collections.emptySet()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,318 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import mapledeadlocktracker.containers.MapleDeadlockSourceFile;
+import mapledeadlocktracker.source.CSharpReader;
+import mapledeadlocktracker.source.JavaReader;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockSourcePipeline {
+
+	private static final int MAPPED_FILE_SIZE = 1 << 20;     // larger sources are memory-mapped instead of copied to the read buffer
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	private static final SourceText END_OF_FILES = new SourceText(-1, null);
+
+	private final MapleDeadlockGraphMaker g;
+	private final MapleDeadlockSourceCache cache;
+	private final int nReadThreads;
+	private final int nParseThreads;
+
+	private final ThreadLocal<ByteBuffer> readBuffer = new ThreadLocal<>();
+
+	private static class SourceText {
+		private final int index;
+		private final String fileName;
+
+		private long size;
+		private String key;
+		private CharStream input;
+		private MapleDeadlockSourceFile sourceFile;    // set once parsed, or when already known from the cache
+
+		private SourceText(int index, String fileName) {
+			this.index = index;
+			this.fileName = fileName;
+		}
+	}
+
+	private static class Stage {
+		private final String name;
+		private final int nThreads;
+
+		private final AtomicInteger files = new AtomicInteger(0);
+		private final AtomicLong bytes = new AtomicLong(0);
+		private final AtomicLong busyNanos = new AtomicLong(0);
+
+		private Stage(String name, int nThreads) {
+			this.name = name;
+			this.nThreads = nThreads;
+		}
+
+		private void count(long fileBytes, long startNanos) {
+			files.incrementAndGet();
+			bytes.addAndGet(fileBytes);
+			busyNanos.addAndGet(System.nanoTime() - startNanos);
+		}
+
+		private double getUtilization(long wallNanos) {
+			return wallNanos > 0 ? (double) busyNanos.get() / ((long) nThreads * wallNanos) : 0.0;
+		}
+
+		private void report(long wallNanos) {
+			double busySec = busyNanos.get() / 1e9;
+			double filesPerSec = busySec > 0 ? files.get() * nThreads / busySec : 0.0;
+
+			String s = String.format("  %-6s %3d thread(s) %6d files %8.1f MB  %7.0f files/s  %5.1f%% busy", name, nThreads, files.get(), bytes.get() / (1024.0 * 1024.0), filesPerSec, 100.0 * getUtilization(wallNanos));
+			System.out.println(s);
+		}
+	}
+
+	public MapleDeadlockSourcePipeline(MapleDeadlockGraphMaker g, MapleDeadlockSourceCache cache, int nReadThreads, int nParseThreads) {
+		this.g = g;
+		this.cache = cache;
+		this.nReadThreads = Math.max(nReadThreads, 1);
+		this.nParseThreads = Math.max(nParseThreads, 1);
+	}
+
+	private ByteBuffer readSourceBytes(String fileName) throws IOException {
+		try (FileChannel fc = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			long size = fc.size();
+			if (size >= MAPPED_FILE_SIZE) {
+				return fc.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+
+			// each reader thread keeps its own buffer, content is decoded before the next file is read into it
+			ByteBuffer buf = readBuffer.get();
+			if (buf == null || buf.capacity() < size) {
+				buf = ByteBuffer.allocate(Math.max(READ_BUFFER_SIZE, Integer.highestOneBit((int) size) << 1));
+				readBuffer.set(buf);
+			}
+
+			buf.clear();
+			while (fc.read(buf) > 0) {}
+			buf.flip();
+
+			return buf;
+		}
+	}
+
+	private static CharStream decodeSource(String fileName, ByteBuffer content) throws CharacterCodingException {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+		decoder.onMalformedInput(CodingErrorAction.REPLACE);
+		decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		return CharStreams.fromString(decoder.decode(content).toString(), fileName);
+	}
+
+	private void readSourceText(SourceText text, Stage stage) throws IOException {
+		long start = System.nanoTime();
+
+		ByteBuffer content = readSourceBytes(text.fileName);
+		text.size = content.remaining();
+
+		if (cache != null) {
+			text.key = cache.getSourceKey(text.fileName, content.duplicate());
+			text.sourceFile = cache.loadSourceFile(text.key);
+		}
+
+		if (text.sourceFile == null) {
+			text.input = decodeSource(text.fileName, content);
+		}
+
+		stage.count(text.size, start);
+	}
+
+	private void parseSourceText(SourceText text, Stage stage) {
+		if (text.sourceFile != null) {
+			return;     // unchanged file, no need to parse it again
+		}
+
+		long start = System.nanoTime();
+
+		ParseTreeListener reader = MapleDeadlockConfig.getSourceParserFromProperty("language");
+		g.parseSourceFile(text.fileName, text.input, reader);
+
+		MapleDeadlockSourceFile ret;
+		if (reader instanceof JavaReader) {
+			ret = ((JavaReader) reader).getSourceFile();
+		} else if (reader instanceof CSharpReader) {
+			ret = ((CSharpReader) reader).getSourceFile();
+		} else {
+			ret = null;
+		}
+
+		if (text.key != null && ret != null) {
+			cache.saveSourceFile(text.key, ret);
+		}
+
+		text.sourceFile = ret;
+		text.input = null;
+
+		stage.count(text.size, start);
+	}
+
+	public void readSourceFiles(List<String> fileNames, BiConsumer<String, MapleDeadlockSourceFile> loader) {
+		// read -> parse -> load, stages are linked by bounded queues so only a window of files is held in memory at once
+		// files are read and parsed in any order, the loader still gets them in the listing order to keep the project data deterministic
+		int nFiles = fileNames.size();
+		int queueSize = 2 * nParseThreads;
+
+		BlockingQueue<SourceText> parseQueue = new ArrayBlockingQueue<>(queueSize);
+		Semaphore window = new Semaphore(queueSize + 4 * nParseThreads);
+
+		List<CompletableFuture<SourceText>> results = new ArrayList<>(nFiles);
+		for (int i = 0; i < nFiles; i++) {
+			results.add(new CompletableFuture<>());
+		}
+
+		Stage readStage = new Stage("read", nReadThreads);
+		Stage parseStage = new Stage("parse", nParseThreads);
+		Stage loadStage = new Stage("load", 1);
+
+		AtomicInteger nextFile = new AtomicInteger(0);
+		AtomicInteger activeReaders = new AtomicInteger(nReadThreads);
+
+		ExecutorService readers = Executors.newFixedThreadPool(nReadThreads);
+		ExecutorService parsers = Executors.newFixedThreadPool(nParseThreads);
+
+		long start = System.nanoTime();
+		try {
+			for (int i = 0; i < nReadThreads; i++) {
+				readers.submit(() -> {
+					try {
+						while (true) {
+							window.acquire();
+
+							int idx = nextFile.getAndIncrement();
+							if (idx >= nFiles) {
+								break;
+							}
+
+							// a file failing to be read fails on its own, the loader reports it when its turn comes
+							SourceText text = new SourceText(idx, fileNames.get(idx));
+							try {
+								readSourceText(text, readStage);
+							} catch (Throwable t) {
+								results.get(idx).completeExceptionally(t);
+								continue;
+							}
+
+							parseQueue.put(text);
+						}
+
+						if (activeReaders.decrementAndGet() == 0) {
+							for (int j = 0; j < nParseThreads; j++) {
+								parseQueue.put(END_OF_FILES);
+							}
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+
+			for (int i = 0; i < nParseThreads; i++) {
+				parsers.submit(() -> {
+					try {
+						while (true) {
+							SourceText text = parseQueue.take();
+							if (text == END_OF_FILES) {
+								break;
+							}
+
+							try {
+								parseSourceText(text, parseStage);
+								results.get(text.index).complete(text);
+							} catch (Throwable t) {
+								results.get(text.index).completeExceptionally(t);
+							}
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+
+			for (int i = 0; i < nFiles; i++) {
+				SourceText text;
+				try {
+					text = results.get(i).get();
+				} catch (ExecutionException e) {
+					throw new RuntimeException("Could not read source file '" + fileNames.get(i) + "'", e.getCause());
+				}
+				results.set(i, null);
+
+				long loadStart = System.nanoTime();
+				loader.accept(text.fileName, text.sourceFile);
+				loadStage.count(text.size, loadStart);
+
+				window.release();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} finally {
+			readers.shutdownNow();
+			parsers.shutdownNow();
+		}
+
+		if (nFiles > 0) {
+			reportStages(System.nanoTime() - start, readStage, parseStage, loadStage);
+		}
+	}
+
+	private static void reportStages(long wallNanos, Stage... stages) {
+		// the busiest stage, relative to its threads, is the one holding back the others
+		Stage bottleneck = stages[0];
+		for (Stage s : stages) {
+			if (s.getUtilization(wallNanos) > bottleneck.getUtilization(wallNanos)) {
+				bottleneck = s;
+			}
+		}
+
+		System.out.println("Source reading pipeline, " + (wallNanos / 1000000) + " ms:");
+		for (Stage s : stages) {
+			s.report(wallNanos);
+		}
+		System.out.println("  bottleneck: " + bottleneck.name);
+	}
+}
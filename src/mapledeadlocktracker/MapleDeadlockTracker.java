@@ -15,18 +15,29 @@ import org.antlr.v4.runtime.tree.*;
 
 import mapledeadlocktracker.containers.MapleDeadlockEntry;
 import mapledeadlocktracker.containers.MapleDeadlockLock;
+import mapledeadlocktracker.containers.MapleDeadlockSourceFile;
 import mapledeadlocktracker.containers.MapleDeadlockStorage;
 import mapledeadlocktracker.source.JavaReader;
 import mapledeadlocktracker.source.CSharpReader;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.List;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -34,49 +45,74 @@ import java.util.Set;
  */
 public class MapleDeadlockTracker {
 
-	private static boolean isSourceFile(String fName) {
-		List<String> list = MapleDeadlockConfig.getAssociatedFileExtensions();
+	private static final int WATCH_SETTLE_MS = 300;
 
-		if (list.isEmpty()) {
-			return true;
-		}
+	private static long startTime;
 
-		for (String ext : list) {
-			if (fName.endsWith(ext)) {
-				return true;
-			}
+	// one analysis session, everything read from the project stays here so sessions don't share any state
+	private Map<String, MapleDeadlockSourceFile> projectSourceFiles = new LinkedHashMap<>();   // what was read from each file, in listing order
+	private MapleDeadlockSourceFinder sourceFinder;
+
+	// in watch mode, the last analysis: functions and entry points not touched by a change take over what was found for them there
+	private boolean watching = false;
+	private MapleDeadlockGraph previousGraph = null;
+	private MapleDeadlockGraphCruiser previousCruiser = null;
+
+	private static MapleDeadlockSourceCache getSourceCache(MapleDeadlockGraphMaker g) {
+		String cacheFolder = MapleDeadlockConfig.getProperty("cache_folder");
+		if (cacheFolder == null || cacheFolder.trim().isEmpty()) {
+			return null;
 		}
 
-		return false;
+		try {
+			return new MapleDeadlockSourceCache(cacheFolder.trim(), g);
+		} catch (IOException e) {
+			System.out.println("[Warning] Source cache unavailable at '" + cacheFolder.trim() + "', parsing all files");
+			return null;
+		}
 	}
 
-	private static void listSourceFiles(String directoryName, List<String> files) {
-		File directory = new File(directoryName);
+	private static void loadSourceFile(MapleDeadlockSourceFile sourceFile, ParseTreeListener reader) {
+		if (reader instanceof JavaReader) {
+			((JavaReader) reader).loadSourceFile(sourceFile);
+		} else if (reader instanceof CSharpReader) {
+			((CSharpReader) reader).loadSourceFile(sourceFile);
+		}
+	}
 
-		// get all the files from a directory
-		File[] fList = directory.listFiles();
-		for (File file : fList) {
-			if (file.isFile()) {
-				String fName = file.getName();
-				if(isSourceFile(fName)) {
-					files.add(file.getAbsolutePath());
-				}
-			} else if (file.isDirectory()) {
-				listSourceFiles(file.getAbsolutePath(), files);
-			}
+	private static int getParseThreadCount() {
+		int nThreads = MapleDeadlockConfig.getIntProperty("parse_threads", 1);
+		if (nThreads <= 0) {
+			nThreads = Runtime.getRuntime().availableProcessors();
 		}
+
+		return nThreads;
 	}
 
-	private static MapleDeadlockStorage parseSourceProject(String directoryName, MapleDeadlockGraphMaker g, ParseTreeListener reader) {
-		List<String> fileNames = new ArrayList<>();
-		listSourceFiles(directoryName, fileNames);
+	private static MapleDeadlockSourcePipeline getSourcePipeline(MapleDeadlockGraphMaker g, MapleDeadlockSourceCache cache) {
+		return new MapleDeadlockSourcePipeline(g, cache, MapleDeadlockConfig.getIntProperty("read_threads", 1), getParseThreadCount());
+	}
 
-		for(String fName : fileNames) {
+	private MapleDeadlockStorage parseSourceProject(MapleDeadlockGraphMaker g, MapleDeadlockSourceCache cache, ParseTreeListener reader) {
+		List<String> fileNames = sourceFinder.listSourceFiles();
+
+		getSourcePipeline(g, cache).readSourceFiles(fileNames, (fName, sourceFile) -> {
 			System.out.println("Parsing '" + fName + "'");
-			g.parseSourceFile(fName, reader);
+
+			projectSourceFiles.put(fName, sourceFile);
+			loadSourceFile(sourceFile, reader);
+		});
+
+		int slowFiles = g.getFullContextParsedFiles();
+		if (slowFiles > 0) {
+			System.out.println("Full LL prediction needed for " + slowFiles + "/" + fileNames.size() + " source files");
 		}
 		System.out.println("Project file reading complete!\n");
 
+		return compileProjectData(reader);
+	}
+
+	private static MapleDeadlockStorage compileProjectData(ParseTreeListener reader) {
 		MapleDeadlockStorage ret;
 		if (reader instanceof JavaReader) {
 			ret = ((JavaReader) reader).compileProjectData();
@@ -112,30 +148,176 @@ public class MapleDeadlockTracker {
 		return r;
 	}
 
-	private static void executeDeadlockTracker() {
+	private static void resetProjectData(ParseTreeListener reader) {
+		if (reader instanceof JavaReader) {
+			((JavaReader) reader).resetProjectData();
+		} else if (reader instanceof CSharpReader) {
+			((CSharpReader) reader).resetProjectData();
+		}
+	}
+
+	private MapleDeadlockStorage reloadSourceProject(Set<String> changedFiles, MapleDeadlockGraphMaker g, MapleDeadlockSourceCache cache, ParseTreeListener reader) {
+		List<String> fileNames = sourceFinder.listSourceFiles();
+
+		// only new or modified files are read again, the others are loaded from what was read before
+		List<String> readFileNames = new LinkedList<>();
+		for (String fName : fileNames) {
+			if (!projectSourceFiles.containsKey(fName) || changedFiles.contains(fName)) {
+				readFileNames.add(fName);
+			}
+		}
+
+		Map<String, MapleDeadlockSourceFile> readFiles = new HashMap<>();
+		getSourcePipeline(g, cache).readSourceFiles(readFileNames, (fName, sourceFile) -> {
+			System.out.println("Parsing '" + fName + "'");
+			readFiles.put(fName, sourceFile);
+		});
+
+		Map<String, MapleDeadlockSourceFile> sourceFiles = new LinkedHashMap<>();
+		for (String fName : fileNames) {
+			MapleDeadlockSourceFile sourceFile = readFiles.get(fName);
+			sourceFiles.put(fName, sourceFile != null ? sourceFile : projectSourceFiles.get(fName));
+		}
+		projectSourceFiles = sourceFiles;
+
+		resetProjectData(reader);
+		for (MapleDeadlockSourceFile sourceFile : sourceFiles.values()) {
+			loadSourceFile(sourceFile, reader);
+		}
+		System.out.println("Project file reading complete!\n");
+
+		return compileProjectData(reader);
+	}
+
+	private void analyzeSourceProject(MapleDeadlockStorage md, MapleDeadlockGraphMaker g) {
+		MapleDeadlockGraph mdg = watching ? g.generateSourceGraph(md, previousGraph) : g.generateSourceGraph(md);
+		System.out.println("Project graph generated!\n");
+
+		Map<Integer, String> r = getGraphLockNames(g);
+		MapleDeadlockGraphCruiser cruiser = new MapleDeadlockGraphCruiser();
+		Set<MapleDeadlockEntry> mds = watching ? cruiser.runSourceGraph(mdg, md, r, previousCruiser) : cruiser.runSourceGraph(mdg, md, r);
+		MapleDeadlockGraphResult.reportDeadlocks(mds, cruiser.getLockCycles(), cruiser.getLockCycleLimit(), r, cruiser.getPartialCoverage());
+
+		if (watching) {
+			previousGraph = mdg;
+			previousCruiser = cruiser;
+		}
+	}
+
+	private void registerSourceFolders(WatchService watcher, File directory) throws IOException {
+		directory.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+		for (File file : directory.listFiles()) {
+			if (file.isDirectory() && !sourceFinder.isExcludedFolder(file.toPath())) {
+				registerSourceFolders(watcher, file);
+			}
+		}
+	}
+
+	private Set<String> pollSourceChanges(WatchService watcher) throws IOException, InterruptedException {
+		Set<String> changedFiles = new LinkedHashSet<>();
+
+		WatchKey key = watcher.take();
+		do {
+			Path dir = (Path) key.watchable();
+			for (WatchEvent<?> e : key.pollEvents()) {
+				if (e.kind() == StandardWatchEventKinds.OVERFLOW) {
+					changedFiles.addAll(sourceFinder.listSourceFiles());    // events were lost, read everything again
+					continue;
+				}
+
+				File file = dir.resolve((Path) e.context()).toFile();
+				if (e.kind() == StandardWatchEventKinds.ENTRY_CREATE && file.isDirectory()) {
+					if (!sourceFinder.isExcludedFolder(file.toPath())) {
+						registerSourceFolders(watcher, file);
+						changedFiles.addAll(sourceFinder.listSourceFiles(file.toPath()));
+					}
+				} else if (sourceFinder.isSourceFile(file.toPath())) {
+					changedFiles.add(file.getAbsolutePath());
+				}
+			}
+			key.reset();
+
+			key = watcher.poll(WATCH_SETTLE_MS, TimeUnit.MILLISECONDS);    // editors often save a file in several steps
+		} while (key != null);
+
+		return changedFiles;
+	}
+
+	private void watchSourceProject(String directoryName, MapleDeadlockGraphMaker g, MapleDeadlockSourceCache cache, ParseTreeListener reader) {
+		try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+			registerSourceFolders(watcher, new File(directoryName));
+
+			while (true) {
+				System.out.println("Watching '" + directoryName + "' for changes...\n");
+
+				Set<String> changedFiles = pollSourceChanges(watcher);
+				if (changedFiles.isEmpty()) {
+					continue;
+				}
+
+				long start = System.currentTimeMillis();
+				System.out.println("Source changes detected in " + changedFiles.size() + " file(s), parsing them again and updating the analysis");
+
+				try {
+					MapleDeadlockStorage md = reloadSourceProject(changedFiles, g, cache, reader);
+					System.out.println("Project parse complete!\n");
+
+					analyzeSourceProject(md, MapleDeadlockConfig.getGraphMakerFromProperty("language"));
+				} catch (RuntimeException e) {
+					e.printStackTrace();    // keep watching, the next save may fix it
+				}
+
+				System.out.println("Project analysis updated in " + (System.currentTimeMillis() - start) + " ms\n");
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void reportStartupTime() {
+		// JVM launch up to a ready front-end, that is the fixed cost paid by every run
+		long now = System.currentTimeMillis();
+		long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+		System.out.println("Startup took " + (now - jvmStart) + " ms (tracker " + (now - startTime) + " ms, '" + MapleDeadlockConfig.getProperty("language") + "' front-end loaded in " + MapleDeadlockConfig.getFrontEndLoadTime() + " ms)\n");
+	}
+
+	private void executeDeadlockTracker() {
 		loadPropertiesFile();
 
 		MapleDeadlockGraphMaker g = MapleDeadlockConfig.getGraphMakerFromProperty(("language"));
 		ParseTreeListener l = MapleDeadlockConfig.getSourceParserFromProperty(("language"));
+		reportStartupTime();
 
 		String directoryName = MapleDeadlockConfig.getProperty("src_folder");
-		if (l instanceof CSharpReader) ((CSharpReader) l).setSourceDirPrefixPath(directoryName);
 
-		MapleDeadlockStorage md = parseSourceProject(directoryName, g, l);
+		sourceFinder = new MapleDeadlockSourceFinder(directoryName, getParseThreadCount());
+
+		MapleDeadlockSourceCache cache = getSourceCache(g);
+		MapleDeadlockStorage md = parseSourceProject(g, cache, l);
 		System.out.println("Project parse complete!\n");
 
-		MapleDeadlockGraph mdg = g.generateSourceGraph(md);
-		System.out.println("Project graph generated!\n");
+		watching = Boolean.parseBoolean(MapleDeadlockConfig.getProperty("watch_mode"));
 
-		Map<Integer, String> r = getGraphLockNames(g);
-		Set<MapleDeadlockEntry> mds = new MapleDeadlockGraphCruiser().runSourceGraph(mdg, md, r);
-		MapleDeadlockGraphResult.reportDeadlocks(mds, r);
+		analyzeSourceProject(md, g);
+
+		if (cache != null) {
+			System.out.println("Source cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses");
+		}
+
+		if (watching) {
+			watchSourceProject(directoryName, g, cache, l);
+		}
                 
 		//g.dumpGraph();
 	}
 
 	public static void main(String[] args) {
-		executeDeadlockTracker();
+		startTime = System.currentTimeMillis();
+		new MapleDeadlockTracker().executeDeadlockTracker();
 	}
 
 }
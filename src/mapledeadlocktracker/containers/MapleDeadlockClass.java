@@ -18,6 +18,7 @@ package mapledeadlocktracker.containers;
 
 import mapledeadlocktracker.MapleDeadlockGraphMaker;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -53,7 +54,14 @@ public class MapleDeadlockClass {
 	Map<String, List<String>> fullImportList = new HashMap<>();
 
 	List<MapleDeadlockFunction> methods = new ArrayList<>();
+	volatile Map<String, MethodOverloads> methodIndex = null;     // built on the first lookup, dropped whenever a method is added
 	Map<String, Integer> fields = new HashMap();
+
+	private static class MethodOverloads {
+		List<MapleDeadlockFunction> methods = new ArrayList<>();   // same name, in declaration order
+		Map<Integer, List<MapleDeadlockFunction>> arities = new HashMap<>();
+		boolean ellipsis = false;
+	}
         
 	public MapleDeadlockClass(DeadlockClassType ctype, String className, String packageName, String classPathName, List<String> superNames, boolean abstracted, MapleDeadlockClass parentClass) {
 		type = ctype;
@@ -193,11 +201,69 @@ public class MapleDeadlockClass {
         
         public void addClassMethod(MapleDeadlockFunction classMethod) {
 		methods.add(classMethod);
+		methodIndex = null;
 	}
 
-	public MapleDeadlockFunction getMethodByName(String name, List<Integer> params) {
+	private Map<String, MethodOverloads> getMethodIndex() {
+		Map<String, MethodOverloads> index = methodIndex;
+		if (index != null) {
+			return index;
+		}
+
+		// methods are looked up once the project is read, by then names and parameter counts no longer change
+		index = new HashMap<>();
 		for (MapleDeadlockFunction mdf : methods) {
-			if (mdf.getName().contentEquals(name) && mdf.getParameters().equals(params)) {
+			MethodOverloads o = index.get(mdf.getName());
+			if (o == null) {
+				o = new MethodOverloads();
+				index.put(mdf.getName(), o);
+			}
+			o.methods.add(mdf);
+
+			int arity = mdf.getParameters().size();
+			List<MapleDeadlockFunction> list = o.arities.get(arity);
+			if (list == null) {
+				list = new ArrayList<>(1);
+				o.arities.put(arity, list);
+			}
+			list.add(mdf);
+
+			if (mdf.isEllipsis()) {
+				o.ellipsis = true;
+			}
+		}
+
+		methodIndex = index;
+		return index;
+	}
+
+	private List<MapleDeadlockFunction> getMethodsByArity(String name, int arity) {
+		MethodOverloads o = getMethodIndex().get(name);
+		if (o == null) {
+			return Collections.emptyList();
+		}
+
+		List<MapleDeadlockFunction> list = o.arities.get(arity);
+		return (list != null) ? list : Collections.<MapleDeadlockFunction>emptyList();
+	}
+
+	private List<MapleDeadlockFunction> getMethodsByCallArity(String name, int arity) {
+		MethodOverloads o = getMethodIndex().get(name);
+		if (o == null) {
+			return Collections.emptyList();
+		}
+
+		if (o.ellipsis) {
+			return o.methods;     // ellipsis methods take calls with more arguments, all of them are checked in order
+		}
+
+		List<MapleDeadlockFunction> list = o.arities.get(arity);
+		return (list != null) ? list : Collections.<MapleDeadlockFunction>emptyList();
+	}
+
+	public MapleDeadlockFunction getMethodByName(String name, List<Integer> params) {
+		for (MapleDeadlockFunction mdf : getMethodsByArity(name, params.size())) {
+			if (mdf.getParameters().equals(params)) {
 				return mdf;
 			}
 		}
@@ -206,7 +272,7 @@ public class MapleDeadlockClass {
 	}
 
 	public List<MapleDeadlockFunction> getMethods() {
-		return new ArrayList<>(methods);
+		return Collections.unmodifiableList(methods);
 	}
 
 	public String getName() {
@@ -242,8 +308,9 @@ public class MapleDeadlockClass {
 	public List<List<Integer>> getArgsFromMethodName(String name) {
 		List<List<Integer>> ret = new LinkedList();
 
-		for(MapleDeadlockFunction mdf : methods) {
-			if(mdf.getName().contentEquals(name)) {
+		MethodOverloads o = getMethodIndex().get(name);
+		if(o != null) {
+			for(MapleDeadlockFunction mdf : o.methods) {
 				ret.add(mdf.getParameters());
 			}
 		}
@@ -251,11 +318,11 @@ public class MapleDeadlockClass {
 		return ret;
 	}
 
-	public MapleDeadlockFunction getMethodOnSuperclass(String name, List<Integer> params) {
+	public MapleDeadlockFunction getMethodOnSuperclass(MapleDeadlockTypeTable types, String name, List<Integer> params) {
 		MapleDeadlockFunction mdf;
 
 		for(MapleDeadlockClass mdc : superClass) {
-			mdf = mdc.getMethod(true, name, params);
+			mdf = mdc.getMethod(types, true, name, params);
 
 			if(mdf != null) {
 				return mdf;     // the only one structure implementing methods is the "real" superclass.
@@ -267,11 +334,11 @@ public class MapleDeadlockClass {
 		return null;
 	}
 
-	private MapleDeadlockFunction getTemplateMethodOnSuperclass(String name, List<Integer> params) {
+	private MapleDeadlockFunction getTemplateMethodOnSuperclass(MapleDeadlockTypeTable types, String name, List<Integer> params) {
 		MapleDeadlockFunction mdf;
 
 		for(MapleDeadlockClass mdc : superClass) {
-			mdf = mdc.getTemplateMethod(true, name, params);
+			mdf = mdc.getTemplateMethod(types, true, name, params);
 
 			if(mdf != null) {
 				return mdf;     // the only one structure implementing methods is the "real" superclass.
@@ -283,11 +350,11 @@ public class MapleDeadlockClass {
 		return null;
 	}
 
-	public MapleDeadlockFunction getMethod(boolean checkSuper, String name, List<Integer> params) {
+	public MapleDeadlockFunction getMethod(MapleDeadlockTypeTable types, boolean checkSuper, String name, List<Integer> params) {
 		MapleDeadlockFunction ref = null;
 
-		for(MapleDeadlockFunction mdf : methods) {
-                        byte exactState = mdf.hasExactHeading(name, params);
+		for(MapleDeadlockFunction mdf : getMethodsByArity(name, params.size())) {
+                        byte exactState = mdf.hasExactHeading(types, name, params);
                         if(exactState == 1) {
 				return mdf;
 			} else if(exactState == 0) {
@@ -299,17 +366,17 @@ public class MapleDeadlockClass {
 			return ref;
 		}
 
-		return checkSuper ? getMethodOnSuperclass(name, params) : null;
+		return checkSuper ? getMethodOnSuperclass(types, name, params) : null;
 	}
 
-	public MapleDeadlockFunction getTemplateMethod(boolean checkSuper, String name, List<Integer> params) {
-		for(MapleDeadlockFunction mdf : methods) {
-			if(mdf.hasSimilarHeading(name, params)) {
+	public MapleDeadlockFunction getTemplateMethod(MapleDeadlockTypeTable types, boolean checkSuper, String name, List<Integer> params) {
+		for(MapleDeadlockFunction mdf : getMethodsByCallArity(name, params.size())) {
+			if(mdf.hasSimilarHeading(types, name, params)) {
 				return mdf;
 			}
 		}
 
-		return checkSuper ? getTemplateMethodOnSuperclass(name, params) : null;
+		return checkSuper ? getTemplateMethodOnSuperclass(types, name, params) : null;
 	}
 
 	public Set<String> getEnums() {
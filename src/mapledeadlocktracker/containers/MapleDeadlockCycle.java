@@ -0,0 +1,38 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.containers;
+
+import java.util.List;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockCycle {
+
+	List<Integer> lockIds;
+	List<MapleDeadlockFunction> functions;     // functions[i] takes lockIds[i + 1] while holding lockIds[i], the last one closes the cycle
+
+	public MapleDeadlockCycle(List<Integer> lockIds, List<MapleDeadlockFunction> functions) {
+		this.lockIds = lockIds;
+		this.functions = functions;
+	}
+
+	public List<Integer> getLockIds() {
+		return this.lockIds;
+	}
+
+	public List<MapleDeadlockFunction> getFunctions() {
+		return this.functions;
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.containers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockDispatchTable {
+
+	// per class, the classes under it declaring each method name, in the order its subclass tree is walked
+	private Map<MapleDeadlockClass, Map<String, List<MapleDeadlockClass>>> dispatchClasses = new HashMap<>();
+
+	public MapleDeadlockDispatchTable(Map<MapleDeadlockClass, List<MapleDeadlockClass>> inheritanceTree) {
+		Map<MapleDeadlockClass, Set<MapleDeadlockClass>> subclasses = new HashMap<>();
+
+		for (MapleDeadlockClass c : inheritanceTree.keySet()) {
+			Map<String, List<MapleDeadlockClass>> table = new LinkedHashMap<>();
+
+			for (MapleDeadlockClass mdc : getSubclasses(c, inheritanceTree, subclasses)) {
+				for (MapleDeadlockFunction mdf : mdc.getMethods()) {
+					List<MapleDeadlockClass> list = table.get(mdf.getName());
+					if (list == null) {
+						list = new ArrayList<>();
+						table.put(mdf.getName(), list);
+					}
+
+					if (list.isEmpty() || list.get(list.size() - 1) != mdc) {
+						list.add(mdc);
+					}
+				}
+			}
+
+			for (Entry<String, List<MapleDeadlockClass>> e : table.entrySet()) {
+				e.setValue(Collections.unmodifiableList(e.getValue()));
+			}
+			dispatchClasses.put(c, table);
+		}
+	}
+
+	private static Set<MapleDeadlockClass> getSubclasses(MapleDeadlockClass c, Map<MapleDeadlockClass, List<MapleDeadlockClass>> inheritanceTree, Map<MapleDeadlockClass, Set<MapleDeadlockClass>> subclasses) {
+		Set<MapleDeadlockClass> ret = subclasses.get(c);
+		if (ret != null) {
+			return ret;
+		}
+
+		// subclasses come after the ones under them, a class reached through several of them is kept at its first place
+		ret = new LinkedHashSet<>();
+
+		List<MapleDeadlockClass> list = inheritanceTree.get(c);
+		if (list != null) {
+			for (MapleDeadlockClass mdc : list) {
+				ret.addAll(getSubclasses(mdc, inheritanceTree, subclasses));
+				ret.add(mdc);
+			}
+		}
+
+		subclasses.put(c, ret);
+		return ret;
+	}
+
+	public List<MapleDeadlockClass> getDispatchClasses(MapleDeadlockClass c, String methodName) {
+		Map<String, List<MapleDeadlockClass>> table = dispatchClasses.get(c);
+		if (table == null) {
+			return Collections.emptyList();
+		}
+
+		List<MapleDeadlockClass> ret = table.get(methodName);
+		return (ret != null) ? ret : Collections.<MapleDeadlockClass>emptyList();
+	}
+
+}
@@ -0,0 +1,187 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.containers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockExpression {
+
+	public enum Kind {
+		NAME, MEMBER, METHOD, OUTER_THIS, SUFFIX, PARENS, LITERAL, THIS, SUPER, CLASS_LITERAL,
+		CONCAT, ARITHMETIC, CONDITIONAL, BOOLEAN, UNARY, SHIFT, INDEX, CAST, NEW,
+		CHAIN, INVOCATION, POINTER_MEMBER, SIMPLE_NAME, MEMBER_ACCESS, PREDEFINED_ACCESS, BRACKET, PREFIX,
+		LOCK, UNLOCK, OTHER
+	}
+
+	// the source text is shared by every node lowered from the same call expression, each node keeps its own range
+	private final Kind kind;
+	private final String source;
+	private final int start, end;
+
+	private String name;
+	private int index = -1;
+	private MapleDeadlockExpression receiver;
+	private List<MapleDeadlockExpression> operands = Collections.emptyList();
+
+	public MapleDeadlockExpression(Kind kind, String source, int start, int end) {
+		this.kind = kind;
+		this.source = source;
+		this.start = start;
+		this.end = end;
+	}
+
+	public static MapleDeadlockExpression newSyncLockCall(String syncLockName, boolean lock) {
+		return newSyncLockCall(syncLockName, null, lock);
+	}
+
+	public static MapleDeadlockExpression newSyncLockCall(String lockField, MapleDeadlockExpression lockOwner, boolean lock) {
+		// stands for the acquire/release of the lock representing a synchronized block, no source code behind it
+		// with an owner the lock is named after the locked field, on the class of the owner, otherwise it's already a lock field of the source class
+		MapleDeadlockExpression e = new MapleDeadlockExpression(lock ? Kind.LOCK : Kind.UNLOCK, lockField, 0, lockField.length());
+		e.name = lockField;
+		e.receiver = lockOwner;
+
+		return e;
+	}
+
+	public static MapleDeadlockExpression newThisReference() {
+		return new MapleDeadlockExpression(Kind.THIS, "this", 0, 4);
+	}
+
+	public MapleDeadlockExpression getOperandPrefix(int size) {
+		// the leading operands alone, e.g. the object a member is read from
+		MapleDeadlockExpression last = operands.get(size - 1);
+		MapleDeadlockExpression e = new MapleDeadlockExpression(kind, source, start, (last.source == source) ? last.end : end);
+		for (int i = 0; i < size; i++) {
+			e.addOperand(operands.get(i));
+		}
+
+		return e;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public String getText() {
+		return source.substring(start, end);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public MapleDeadlockExpression getReceiver() {
+		return receiver;
+	}
+
+	public void setReceiver(MapleDeadlockExpression receiver) {
+		this.receiver = receiver;
+	}
+
+	public List<MapleDeadlockExpression> getOperands() {
+		return operands;
+	}
+
+	public MapleDeadlockExpression getOperand(int i) {
+		return operands.get(i);
+	}
+
+	public void addOperand(MapleDeadlockExpression operand) {
+		if (operands.isEmpty()) {
+			operands = new ArrayList<>(2);
+		}
+
+		operands.add(operand);
+	}
+
+	@Override
+	public String toString() {
+		return getText();
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		MapleDeadlockSourceFile.writeString(out, source);
+		write(out, this);
+	}
+
+	private static void write(DataOutputStream out, MapleDeadlockExpression e) throws IOException {
+		out.writeByte(e.kind.ordinal());
+		out.writeInt(e.start);
+		out.writeInt(e.end);
+		out.writeBoolean(e.name != null);
+		if (e.name != null) {
+			MapleDeadlockSourceFile.writeString(out, e.name);
+		}
+		out.writeInt(e.index);
+
+		out.writeBoolean(e.receiver != null);
+		if (e.receiver != null) {
+			write(out, e.receiver);
+		}
+
+		out.writeInt(e.operands.size());
+		for (MapleDeadlockExpression o : e.operands) {
+			write(out, o);
+		}
+	}
+
+	public static MapleDeadlockExpression read(DataInputStream in) throws IOException {
+		String source = MapleDeadlockSourceFile.readString(in);
+		return read(in, source);
+	}
+
+	private static MapleDeadlockExpression read(DataInputStream in, String source) throws IOException {
+		int kind = in.readByte();
+		if (kind < 0 || kind >= Kind.values().length) {
+			throw new IOException("Unknown expression kind " + kind);
+		}
+
+		MapleDeadlockExpression e = new MapleDeadlockExpression(Kind.values()[kind], source, in.readInt(), in.readInt());
+		if (in.readBoolean()) {
+			e.name = MapleDeadlockSourceFile.readString(in);
+		}
+		e.index = in.readInt();
+
+		if (in.readBoolean()) {
+			e.receiver = read(in, source);
+		}
+
+		int size = MapleDeadlockSourceFile.readCount(in);
+		for (int i = 0; i < size; i++) {
+			e.addOperand(read(in, source));
+		}
+
+		return e;
+	}
+}
@@ -11,13 +11,13 @@
  */
 package mapledeadlocktracker.containers;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 
-import org.antlr.v4.runtime.ParserRuleContext;
 
 import java.util.Set;
 
@@ -26,13 +26,6 @@ import java.util.Set;
  * @author RonanLana
  */
 public class MapleDeadlockFunction {
-	private static Map<Integer, List<Integer>> compoundTypes;
-	private static Map<Integer, Integer> elementalTypes;
-	private static Map<Integer, Set<Integer>> superTypes;
-	private static Set<Integer> enumTypes;
-	private static Pair<Integer, Integer> ignoredRange;
-	private static Integer intType;
-
 	private int id;
 	private String name;
 	private boolean isAbstract;
@@ -48,7 +41,7 @@ public class MapleDeadlockFunction {
 	private Map<Long, String> localVarNames = new HashMap<>();
 	private Map<Long, Integer> paramVars;
 
-	private List<ParserRuleContext> methodCalls = new LinkedList<>();   // starts off as a string representing the call, after the source readings it will be parsed
+	private List<MapleDeadlockExpression> methodCalls = new LinkedList<>();   // compact form of the calls, typed only after the source readings
 
 	private List<Integer> paramTypes;
 	private Integer returnType;
@@ -140,21 +133,21 @@ public class MapleDeadlockFunction {
 		return paramVars;
 	}
 
-	public void addMethodCall(ParserRuleContext methodCall) {
+	public void addMethodCall(MapleDeadlockExpression methodCall) {
 		methodCalls.add(methodCall);
 	}
 
-	public void setSynchronizedModifier(ParserRuleContext lockCall, ParserRuleContext unlockCall) {
+	public void setSynchronizedModifier(MapleDeadlockExpression lockCall, MapleDeadlockExpression unlockCall) {
 		methodCalls.add(unlockCall);
 		methodCalls.add(0, lockCall);
 	}
 
-	public List<ParserRuleContext> getMethodCalls() {
+	public List<MapleDeadlockExpression> getMethodCalls() {
 		return methodCalls;
 	}
 
 	public List<Integer> getParameters() {
-		return new LinkedList(paramTypes);
+		return Collections.unmodifiableList(paramTypes);
 	}
 
 	public void updateParameter(Integer index, Integer type) {
@@ -181,73 +174,21 @@ public class MapleDeadlockFunction {
 		this.id = id;
 	}
 
-	private static Integer getElementalTypeOf(Integer type) {
-		Integer ret = elementalTypes.get(type);
-
-		if(ret != null) {
-			return ret;
-		}
-
-		return enumTypes.contains(type) ? intType : type;
-	}
-
-	private static boolean hasTypeInheritance(Integer targetParam, Integer testParam) {
-		if(targetParam.equals(testParam)) {
-			return true;
-		}
-
-		if(MapleDeadlockStorage.getBasicDataTypes().get("Object").equals(testParam)) {
-			return true;
-		}
-
-		Set<Integer> inheritTypes = superTypes.get(testParam);
-		if(inheritTypes != null) {
-			for(Integer t : inheritTypes) {
-				if(hasTypeInheritance(targetParam, t)) {
-					return true;
-				}
-			}
-		}
-
-		return false;
-	}
-
-	private static boolean isIgnoredRange(Integer type) {
-		return type >= ignoredRange.left && type < ignoredRange.right;
-	}
-
-	private static boolean isIgnoredType(Integer type) {
-		if(isIgnoredRange(type)) {
-			return true;
-		}
-
-		List<Integer> cType = compoundTypes.get(type);
-		if(cType != null) {
-			for(Integer i : cType) {
-				if(isIgnoredType(i)) {
-					return true;
-				}
-			}
-		}
-
-		return false;
-	}
-
-	public byte hasExactHeading(String functName, List<Integer> params) {
+	public byte hasExactHeading(MapleDeadlockTypeTable types, String functName, List<Integer> params) {
                 if(name.contentEquals(functName) && params.size() == paramTypes.size()) {
 			byte strongRef = 1;
 			for(int i = 0; i < params.size(); i++) {
 				Integer parType = paramTypes.get(i);
-				if(isIgnoredType(parType)) continue;
+				if(types.isIgnoredType(parType)) continue;
 
 				Integer param = params.get(i);
 				if(param == -2 || parType == -2) continue;
 
-				if(!hasTypeInheritance(parType, param)) {
+				if(!types.hasTypeInheritance(parType, param)) {
 					strongRef = 0;
 
-					parType = getElementalTypeOf(parType);
-					param = getElementalTypeOf(params.get(i));
+					parType = types.getElementalTypeOf(parType);
+					param = types.getElementalTypeOf(params.get(i));
 
 					if(!parType.equals(param)) {
 						//System.out.println(params + " " + paramTypes);
@@ -264,22 +205,22 @@ public class MapleDeadlockFunction {
 		return -1;
 	}
 
-	public boolean hasSimilarHeading(String functName, List<Integer> params) {
+	public boolean hasSimilarHeading(MapleDeadlockTypeTable types, String functName, List<Integer> params) {
 		if(name.contentEquals(functName) && (params.size() == paramTypes.size() || (this.isEllipsis() && params.size() >= paramTypes.size()))) {
 			Set<Integer> mTypes = source.getMaskedTypeSet();
 
 			for(int i = 0; i < params.size(); i++) {
 				Integer parType = paramTypes.get(i);
-				if(isIgnoredType(parType)) continue;
+				if(types.isIgnoredType(parType)) continue;
 
 				Integer param = params.get(i);
 
 				if(!mTypes.contains(parType)) {
-					if(!hasTypeInheritance(parType, param)) {
-						parType = getElementalTypeOf(parType);
-						param = getElementalTypeOf(params.get(i));
+					if(!types.hasTypeInheritance(parType, param)) {
+						parType = types.getElementalTypeOf(parType);
+						param = types.getElementalTypeOf(params.get(i));
 
-						if(!parType.equals(elementalTypes.get(param)) && param != -2) {
+						if(!parType.equals(types.getElementalType(param)) && param != -2) {
 							//System.out.println(params + " " + paramTypes);
 							return false;
 						}
@@ -293,15 +234,6 @@ public class MapleDeadlockFunction {
 		return false;
 	}
 
-	public static void installTypeReferences(Map<Integer, Integer> elementalTypes, Map<Integer, List<Integer>> compoundTypes, Map<Integer, Set<Integer>> superTypes, Set<Integer> enumTypes, Pair<Integer, Integer> ignoredDataRange, Integer intType) {
-		MapleDeadlockFunction.elementalTypes = elementalTypes;
-		MapleDeadlockFunction.superTypes = superTypes;
-		MapleDeadlockFunction.enumTypes = enumTypes;
-		MapleDeadlockFunction.ignoredRange = ignoredDataRange;
-		MapleDeadlockFunction.intType = intType;
-		MapleDeadlockFunction.compoundTypes = compoundTypes;
-	}
-
 	@Override
 	public String toString() {
 		return MapleDeadlockStorage.getCanonClassName(this.getSourceClass()) + " >> " + this.getName();
@@ -0,0 +1,107 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.containers;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockIdSet {
+
+	private static final long[] NO_WORDS = new long[0];
+
+	private long[] words = NO_WORDS;     // one bit per id, ids are expected to be dense and starting from 0
+
+	public boolean add(int id) {
+		int w = id >>> 6;
+		if (w >= words.length) {
+			words = Arrays.copyOf(words, Math.max(w + 1, 2 * words.length));
+		}
+
+		long bit = 1L << id;
+		if ((words[w] & bit) != 0) {
+			return false;
+		}
+
+		words[w] |= bit;
+		return true;
+	}
+
+	public boolean contains(int id) {
+		int w = id >>> 6;
+		return w < words.length && (words[w] & (1L << id)) != 0;
+	}
+
+	public boolean addAll(MapleDeadlockIdSet s) {
+		long[] sw = s.words;
+		if (sw.length > words.length) {
+			words = Arrays.copyOf(words, sw.length);
+		}
+
+		// union in place, reporting whether any id was new
+		long changed = 0;
+		for (int i = 0; i < sw.length; i++) {
+			long w = words[i] | sw[i];
+			changed |= w ^ words[i];
+			words[i] = w;
+		}
+
+		return changed != 0;
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0);
+	}
+
+	public boolean isEmpty() {
+		for (long w : words) {
+			if (w != 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public int size() {
+		int n = 0;
+		for (long w : words) {
+			n += Long.bitCount(w);
+		}
+
+		return n;
+	}
+
+	public int nextId(int from) {
+		// lowest id in the set from the given one, -1 if none
+		int w = from >>> 6;
+		if (w >= words.length) {
+			return -1;
+		}
+
+		long word = words[w] & (-1L << from);
+		while (true) {
+			if (word != 0) {
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+
+			w++;
+			if (w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.containers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockLockSequence {
+
+	public static final MapleDeadlockLockSequence EMPTY = new MapleDeadlockLockSequence(null, 0);
+
+	// immutable, each sequence is its last entry over the sequence before it, so sequences sharing a start share its nodes
+	private final MapleDeadlockLockSequence init;
+	private final int last;
+	private final int size;
+	private final int hash;
+	private final boolean nonPositive;     // some entry is an unlock or an unresolved lock
+
+	private MapleDeadlockLockSequence(MapleDeadlockLockSequence init, int last) {
+		this.init = init;
+		this.last = last;
+		this.size = init != null ? init.size + 1 : 0;
+		this.hash = init != null ? 31 * init.hash + last : 1;
+		this.nonPositive = init != null && (init.nonPositive || last <= 0);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean hasNonPositive() {
+		return nonPositive;
+	}
+
+	public MapleDeadlockLockSequence add(int value) {
+		return new MapleDeadlockLockSequence(this, value);
+	}
+
+	public MapleDeadlockLockSequence addAll(MapleDeadlockLockSequence s) {
+		MapleDeadlockLockSequence ret = this;
+		for (int value : s.toArray()) {
+			ret = ret.add(value);
+		}
+
+		return ret;
+	}
+
+	public int lastIndexOf(int value) {
+		MapleDeadlockLockSequence s = this;
+		for (int i = size - 1; i >= 0; i--) {
+			if (s.last == value) {
+				return i;
+			}
+			s = s.init;
+		}
+
+		return -1;
+	}
+
+	public MapleDeadlockLockSequence remove(int idx) {
+		// entries after idx are laid again over the part before it, that one is still shared
+		int[] tail = new int[size - idx - 1];
+
+		MapleDeadlockLockSequence s = this;
+		for (int i = tail.length - 1; i >= 0; i--) {
+			tail[i] = s.last;
+			s = s.init;
+		}
+
+		s = s.init;
+		for (int value : tail) {
+			s = s.add(value);
+		}
+
+		return s;
+	}
+
+	public MapleDeadlockLockSequence prefix(int n) {
+		MapleDeadlockLockSequence s = this;
+		for (int i = size; i > n; i--) {
+			s = s.init;
+		}
+
+		return s;
+	}
+
+	public int[] toArray() {
+		int[] ret = new int[size];
+
+		MapleDeadlockLockSequence s = this;
+		for (int i = size - 1; i >= 0; i--) {
+			ret[i] = s.last;
+			s = s.init;
+		}
+
+		return ret;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MapleDeadlockLockSequence)) {
+			return false;
+		}
+
+		MapleDeadlockLockSequence a = this, b = (MapleDeadlockLockSequence) o;
+		if (a.size != b.size || a.hash != b.hash) {
+			return false;
+		}
+
+		// compared from the end, until both reach a node they share
+		while (a != b) {
+			if (a.last != b.last) {
+				return false;
+			}
+
+			a = a.init;
+			b = b.init;
+		}
+
+		return true;
+	}
+
+	public List<Integer> toList(int from) {
+		int[] a = toArray();
+
+		List<Integer> ret = new ArrayList<>(Math.max(a.length - from, 0));
+		for (int i = from; i < a.length; i++) {
+			ret.add(a[i]);
+		}
+
+		return ret;
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.containers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockSourceFile {
+	// holds the reading events of a single source file, in the order they were met by the parse tree walker
+	private List<Integer> eventTypes = new ArrayList<>();
+	private List<Object[]> eventArgs = new ArrayList<>();
+
+	public void addEvent(Integer type, Object... args) {
+		eventTypes.add(type);
+		eventArgs.add(args);
+	}
+
+	public int getEventCount() {
+		return eventTypes.size();
+	}
+
+	public Integer getEventType(int i) {
+		return eventTypes.get(i);
+	}
+
+	public Object[] getEventArgs(int i) {
+		return eventArgs.get(i);
+	}
+
+	private static final byte NULL_ARG = 0, STRING_ARG = 1, BOOLEAN_ARG = 2, LIST_ARG = 3, ARRAY_ARG = 4, EXPRESSION_ARG = 5;
+
+	public void writeEvents(DataOutputStream out) throws IOException {
+		out.writeInt(eventTypes.size());
+		for (int i = 0; i < eventTypes.size(); i++) {
+			Object[] args = eventArgs.get(i);
+
+			out.writeByte(eventTypes.get(i));
+			out.writeInt(args.length);
+			for (Object arg : args) {
+				writeArg(out, arg);
+			}
+		}
+	}
+
+	private static void writeArg(DataOutputStream out, Object arg) throws IOException {
+		if (arg == null) {
+			out.writeByte(NULL_ARG);
+		} else if (arg instanceof String) {
+			out.writeByte(STRING_ARG);
+			writeString(out, (String) arg);
+		} else if (arg instanceof Boolean) {
+			out.writeByte(BOOLEAN_ARG);
+			out.writeBoolean((Boolean) arg);
+		} else if (arg instanceof List) {
+			List<?> list = (List<?>) arg;
+
+			out.writeByte(LIST_ARG);
+			out.writeInt(list.size());
+			for (Object o : list) {
+				writeArg(out, o);
+			}
+		} else if (arg instanceof String[]) {
+			String[] array = (String[]) arg;
+
+			out.writeByte(ARRAY_ARG);
+			out.writeInt(array.length);
+			for (String s : array) {
+				writeArg(out, s);
+			}
+		} else if (arg instanceof MapleDeadlockExpression) {
+			out.writeByte(EXPRESSION_ARG);
+			((MapleDeadlockExpression) arg).write(out);
+		} else {
+			throw new IOException("Unsupported event argument " + arg.getClass().getName());
+		}
+	}
+
+	static void writeString(DataOutputStream out, String s) throws IOException {
+		// length-prefixed, writeUTF can't take strings over 64 KB
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	static int readCount(DataInputStream in) throws IOException {
+		// every counted item takes at least a byte, so a count past what's left of the entry can only come from a damaged one
+		int count = in.readInt();
+		if (count < 0 || count > in.available()) {
+			throw new IOException("Invalid count " + count);
+		}
+
+		return count;
+	}
+
+	static String readString(DataInputStream in) throws IOException {
+		byte[] b = new byte[readCount(in)];
+		in.readFully(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	public static MapleDeadlockSourceFile readEvents(DataInputStream in) throws IOException {
+		MapleDeadlockSourceFile ret = new MapleDeadlockSourceFile();
+
+		int count = readCount(in);
+		for (int i = 0; i < count; i++) {
+			Integer type = (int) in.readByte();
+
+			Object[] args = new Object[readCount(in)];
+			for (int j = 0; j < args.length; j++) {
+				args[j] = readArg(in);
+			}
+
+			ret.addEvent(type, args);
+		}
+
+		return ret;
+	}
+
+	private static Object readArg(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+			case NULL_ARG:
+				return null;
+
+			case STRING_ARG:
+				return readString(in);
+
+			case BOOLEAN_ARG:
+				return in.readBoolean();
+
+			case LIST_ARG:
+				int size = readCount(in);
+
+				List<Object> list = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					list.add(readArg(in));
+				}
+				return list;
+
+			case ARRAY_ARG:
+				String[] array = new String[readCount(in)];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = (String) readArg(in);
+				}
+				return array;
+
+			case EXPRESSION_ARG:
+				return MapleDeadlockExpression.read(in);
+
+			default:
+				throw new IOException("Unknown event argument tag " + tag);
+		}
+	}
+}
@@ -11,12 +11,15 @@
  */
 package mapledeadlocktracker.containers;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,28 +28,30 @@ import java.util.regex.Pattern;
  * @author RonanLana
  */
 public class MapleDeadlockStorage {
-	private static Map<String, Map<String, MapleDeadlockClass>> maplePublicClasses = new HashMap<>();
-	private static Map<String, Map<String, MapleDeadlockClass>> maplePrivateClasses = new HashMap<>();
-	private static Map<String, MapleDeadlockLock> mapleLocks = new HashMap<>();
-	private static Map<String, MapleDeadlockLock> mapleReadWriteLocks = new HashMap<>();
+	private Map<String, Map<String, MapleDeadlockClass>> maplePublicClasses = new HashMap<>();
+	private Map<String, Map<String, MapleDeadlockClass>> maplePrivateClasses = new HashMap<>();
+	private Map<String, MapleDeadlockLock> mapleLocks = new HashMap<>();
+	private Map<String, MapleDeadlockLock> mapleReadWriteLocks = new HashMap<>();
 
-	private static Map<MapleDeadlockClass, Integer> mapleClassDataTypes = new HashMap<>();
-	private static Map<List<Integer>, Integer> mapleCompoundDataTypes = new HashMap<>();
-	private static Map<String, Integer> mapleBasicDataTypes = new HashMap<>();
-	private static Map<Integer, Integer> mapleElementalDataTypes = new HashMap<>();
-	private static Integer[] mapleElementalTypes = new Integer[8];
+	private Map<MapleDeadlockClass, Integer> mapleClassDataTypes = new HashMap<>();
+	private Map<List<Integer>, Integer> mapleCompoundDataTypes = new HashMap<>();
+	private Map<String, Integer> mapleBasicDataTypes = new HashMap<>();
+	private Map<Integer, Integer> mapleElementalDataTypes = new HashMap<>();
+	private Integer[] mapleElementalTypes = new Integer[8];
 
-	private static Map<Integer, Pair<Integer, Map<String, Integer>>> mapleReflectedClasses = new HashMap<>();
-	private static Map<MapleDeadlockClass, List<MapleDeadlockClass>> mapleInheritanceTree = new HashMap<>();
-	private static Pair<Integer, Integer> ignoredDataRange = null;
+	private Map<Integer, Pair<Integer, Map<String, Integer>>> mapleReflectedClasses = new HashMap<>();
+	private Map<MapleDeadlockClass, List<MapleDeadlockClass>> mapleInheritanceTree = new HashMap<>();
+	private Pair<Integer, Integer> ignoredDataRange = null;
 
-	private static Set<MapleDeadlockFunction> mapleRunnableMethods = new HashSet<>();
+	private Set<MapleDeadlockFunction> mapleRunnableMethods = new LinkedHashSet<>();
 
-	public static Map<String, Map<String, MapleDeadlockClass>> getPublicClasses() {
+	private AtomicInteger runningLockId = new AtomicInteger(1);
+
+	public Map<String, Map<String, MapleDeadlockClass>> getPublicClasses() {
 		return maplePublicClasses;
 	}
 
-	public static Map<String, Map<String, MapleDeadlockClass>> getPrivateClasses() {
+	public Map<String, Map<String, MapleDeadlockClass>> getPrivateClasses() {
 		return maplePrivateClasses;
 	}
 
@@ -66,7 +71,7 @@ public class MapleDeadlockStorage {
 		return mapleCompoundDataTypes;
 	}
 
-	public static Map<String, Integer> getBasicDataTypes() {
+	public Map<String, Integer> getBasicDataTypes() {
 		return mapleBasicDataTypes;
 	}
 
@@ -90,6 +95,10 @@ public class MapleDeadlockStorage {
 		return mapleRunnableMethods;
 	}
 
+	public MapleDeadlockLock newLock(String lockName) {
+		return new MapleDeadlockLock(runningLockId.getAndIncrement(), lockName);
+	}
+
 	public void setIgnoredDataRange(Pair<Integer, Integer> ign) {
 		ignoredDataRange = ign;
 	}
@@ -98,6 +107,27 @@ public class MapleDeadlockStorage {
 		return ignoredDataRange;
 	}
 
+	public void clearProjectData() {
+		// the readers keep references to these tables, so they are emptied in place
+		maplePublicClasses.clear();
+		maplePrivateClasses.clear();
+		mapleLocks.clear();
+		mapleReadWriteLocks.clear();
+
+		mapleClassDataTypes.clear();
+		mapleCompoundDataTypes.clear();
+		mapleBasicDataTypes.clear();
+		mapleElementalDataTypes.clear();
+		Arrays.fill(mapleElementalTypes, null);
+
+		mapleReflectedClasses.clear();
+		mapleInheritanceTree.clear();
+		ignoredDataRange = null;
+
+		mapleRunnableMethods.clear();
+		runningLockId.set(1);
+	}
+
 	private static MapleDeadlockClass locateSubclass(String className, MapleDeadlockClass thisClass) {
 		return thisClass.getPrivateClass(className);
 	}
@@ -128,7 +158,7 @@ public class MapleDeadlockStorage {
 		return thisClass.getImport(fullClassName);
 	}
 
-	private static MapleDeadlockClass locateThroughPackage(String fullClassName, MapleDeadlockClass thisClass) {
+	private MapleDeadlockClass locateThroughPackage(String fullClassName, MapleDeadlockClass thisClass) {
 		String pname = thisClass.getPackageName();
 
 		if(pname.charAt(pname.length() - 1) == '.') {
@@ -163,7 +193,7 @@ public class MapleDeadlockStorage {
 		}
 	}
 
-	public static Pair<String, String> getPrivatePackageClass(String fullClassName) {
+	public Pair<String, String> getPrivatePackageClass(String fullClassName) {
 		String[] names = fullClassName.split("\\.");
 
 		String cname;
@@ -205,7 +235,7 @@ public class MapleDeadlockStorage {
 		return packNames;
 	}
 
-	public static MapleDeadlockClass locatePublicClass(String fullClassName, MapleDeadlockClass thisClass) {
+	public MapleDeadlockClass locatePublicClass(String fullClassName, MapleDeadlockClass thisClass) {
 		int idx = fullClassName.lastIndexOf('.');
 
 		String packName = fullClassName.substring(0, idx + 1);
@@ -232,7 +262,7 @@ public class MapleDeadlockStorage {
 		return null;    // could be classes not implemented on the project source scope
 	}
 
-	public static MapleDeadlockClass locateClassInternal(String fullClassName, MapleDeadlockClass thisClass) {
+	public MapleDeadlockClass locateClassInternal(String fullClassName, MapleDeadlockClass thisClass) {
 		if(thisClass == null) return null;
 
 		MapleDeadlockClass ret;
@@ -278,7 +308,7 @@ public class MapleDeadlockStorage {
 		return getNameFromCanonClass(getClassPath(mdc));
 	}
 
-	private static Pair<String, String> locatePrivateClassPath(String s, String fullClassName) {
+	private Pair<String, String> locatePrivateClassPath(String s, String fullClassName) {
 		s = fullClassName;
 
 		int idx = s.length(), idx3 = s.length();
@@ -324,7 +354,7 @@ public class MapleDeadlockStorage {
 		return new Pair<>(s, u + t);
 	}
 
-	private static MapleDeadlockClass locatePrivateClass(String fullClassName, MapleDeadlockClass thisClass) {
+	private MapleDeadlockClass locatePrivateClass(String fullClassName, MapleDeadlockClass thisClass) {
 		String packName = thisClass.getPackageName(), className;
 		if (!fullClassName.startsWith(packName)) return null;
 
@@ -336,7 +366,7 @@ public class MapleDeadlockStorage {
 		return ret;
 	}
 
-	public static String getPublicPackageName(String s) {
+	public String getPublicPackageName(String s) {
 		while (true) {
 			if (maplePublicClasses.get(s) != null) return s;
 
@@ -347,7 +377,7 @@ public class MapleDeadlockStorage {
 		}
 	}
 
-	public static String getPublicPackageName(MapleDeadlockClass thisClass) {
+	public String getPublicPackageName(MapleDeadlockClass thisClass) {
 		String s = thisClass.getPackageName();
 		return getPublicPackageName(s);
 	}
@@ -356,7 +386,7 @@ public class MapleDeadlockStorage {
 		return mdc.getPackageName() + (mdc.getPackageName().endsWith(".") ? "" : ".") + mdc.getPathName();
 	}
 
-	public static Pair<String, String> locateClassPath(String fullClassName) {
+	public Pair<String, String> locateClassPath(String fullClassName) {
                 String packName = getPublicPackageName(fullClassName);
 		if(packName != null) {
                         if (!packName.contentEquals(fullClassName)) {
@@ -374,7 +404,7 @@ public class MapleDeadlockStorage {
 		return null;
 	}
 
-	public static MapleDeadlockClass locateClass(String fullClassName) {
+	public MapleDeadlockClass locateClass(String fullClassName) {
 		int idx = Math.max(fullClassName.lastIndexOf('.'), 0);
 
 		String packName = getPublicPackageName(fullClassName);
@@ -387,7 +417,7 @@ public class MapleDeadlockStorage {
 		return maplePrivateClasses.get(packName).get(className);
 	}
 
-	public static MapleDeadlockClass locateClass(String className, MapleDeadlockClass thisClass) {
+	public MapleDeadlockClass locateClass(String className, MapleDeadlockClass thisClass) {
 		if(thisClass == null || className == null) return null;
 		//System.out.println("locating "  + className + " from " + DeadlockStorage.getCanonClassName(thisClass));
 
@@ -436,7 +466,7 @@ public class MapleDeadlockStorage {
 	}
         */
 
-	private static String dumpCachedPackages() {
+	private String dumpCachedPackages() {
 		String s = "--------\n PUBLIC:\n";
 		for(Entry<String, Map<String, MapleDeadlockClass>> m : maplePublicClasses.entrySet()) {
 			s += ("\nPACKAGE " + m.getKey() + "\n");
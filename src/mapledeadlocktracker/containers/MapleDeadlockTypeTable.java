@@ -0,0 +1,182 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.containers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockTypeTable {
+
+	private static final MapleDeadlockIdSet NO_SUPERTYPES = new MapleDeadlockIdSet();
+
+	// the type relations of one project, that is what method headings are matched against
+	private Map<Integer, Integer> elementalTypes;
+	private Set<Integer> enumTypes;
+	private Pair<Integer, Integer> ignoredRange;
+	private Integer intType;
+	private Integer objectType;
+
+	// built once from the relations above, each type id indexes its supertypes closure and whether it's ignored
+	private MapleDeadlockIdSet[] superTypeClosures;
+	private boolean[] ignoredTypes;
+
+	public MapleDeadlockTypeTable(Map<Integer, Integer> elementalTypes, Map<Integer, List<Integer>> compoundTypes, Map<Integer, Set<Integer>> superTypes, Set<Integer> enumTypes, Pair<Integer, Integer> ignoredDataRange, Integer intType, Integer objectType) {
+		this.elementalTypes = elementalTypes;
+		this.enumTypes = enumTypes;
+		this.ignoredRange = ignoredDataRange;
+		this.intType = intType;
+		this.objectType = objectType;
+
+		generateSuperTypeClosures(superTypes);
+		generateIgnoredTypes(compoundTypes);
+	}
+
+	private static int getMaxTypeId(Set<Integer> types) {
+		int max = -1;
+		for (Integer t : types) {
+			if (t != null) {
+				max = Math.max(max, t);
+			}
+		}
+
+		return max;
+	}
+
+	private void generateSuperTypeClosures(Map<Integer, Set<Integer>> superTypes) {
+		superTypeClosures = new MapleDeadlockIdSet[getMaxTypeId(superTypes.keySet()) + 1];
+
+		for (Integer t : superTypes.keySet()) {
+			if (t != null && t >= 0) {
+				getSuperTypeClosure(t, superTypes);
+			}
+		}
+	}
+
+	private MapleDeadlockIdSet getSuperTypeClosure(int type, Map<Integer, Set<Integer>> superTypes) {
+		if (type >= superTypeClosures.length) {
+			return NO_SUPERTYPES;
+		}
+
+		MapleDeadlockIdSet ret = superTypeClosures[type];
+		if (ret != null) {
+			return ret;
+		}
+
+		ret = new MapleDeadlockIdSet();
+		superTypeClosures[type] = ret;    // placed before going up, a type reached again along a cycle adds nothing
+
+		Set<Integer> inheritTypes = superTypes.get(type);
+		if (inheritTypes != null) {
+			for (Integer t : inheritTypes) {
+				if (t != null && t >= 0) {
+					ret.add(t);
+					ret.addAll(getSuperTypeClosure(t, superTypes));
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	private void generateIgnoredTypes(Map<Integer, List<Integer>> compoundTypes) {
+		int max = Math.max(getMaxTypeId(compoundTypes.keySet()), ignoredRange.right - 1);
+		ignoredTypes = new boolean[max + 1];
+
+		for (int t = Math.max(ignoredRange.left, 0); t < ignoredRange.right; t++) {
+			ignoredTypes[t] = true;
+		}
+
+		Map<Integer, Boolean> visited = new HashMap<>();
+		for (Integer t : compoundTypes.keySet()) {
+			if (t != null && t >= 0) {
+				ignoredTypes[t] = isIgnoredCompoundType(t, compoundTypes, visited);
+			}
+		}
+	}
+
+	private boolean isIgnoredCompoundType(Integer type, Map<Integer, List<Integer>> compoundTypes, Map<Integer, Boolean> visited) {
+		if (isIgnoredRange(type)) {
+			return true;
+		}
+
+		Boolean ret = visited.get(type);
+		if (ret != null) {
+			return ret;
+		}
+
+		visited.put(type, false);
+		ret = false;
+
+		List<Integer> cType = compoundTypes.get(type);
+		if (cType != null) {
+			for (Integer i : cType) {
+				if (isIgnoredCompoundType(i, compoundTypes, visited)) {
+					ret = true;
+					break;
+				}
+			}
+		}
+
+		visited.put(type, ret);
+		return ret;
+	}
+
+	public Integer getElementalType(Integer type) {
+		return elementalTypes.get(type);
+	}
+
+	public Integer getElementalTypeOf(Integer type) {
+		Integer ret = elementalTypes.get(type);
+
+		if(ret != null) {
+			return ret;
+		}
+
+		return enumTypes.contains(type) ? intType : type;
+	}
+
+	public boolean hasTypeInheritance(Integer targetParam, Integer testParam) {
+		if(targetParam.equals(testParam)) {
+			return true;
+		}
+
+		if(objectType.equals(testParam)) {
+			return true;
+		}
+
+		if(testParam == null || testParam < 0 || testParam >= superTypeClosures.length) {
+			return false;
+		}
+
+		MapleDeadlockIdSet closure = superTypeClosures[testParam];
+		return closure != null && (closure.contains(targetParam) || closure.contains(objectType));
+	}
+
+	private boolean isIgnoredRange(Integer type) {
+		return type >= ignoredRange.left && type < ignoredRange.right;
+	}
+
+	public boolean isIgnoredType(Integer type) {
+		if(type >= 0 && type < ignoredTypes.length) {
+			return ignoredTypes[type];
+		}
+
+		return isIgnoredRange(type);
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.source;
+
+import language.csharp.CSharpParser;
+import mapledeadlocktracker.containers.MapleDeadlockExpression;
+import mapledeadlocktracker.containers.MapleDeadlockExpression.Kind;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class CSharpExpressionReader extends MapleDeadlockExpressionReader {
+
+	private CSharpExpressionReader(CSharpParser.Unary_expressionContext root) {
+		super(root);
+	}
+
+	public static MapleDeadlockExpression readExpression(CSharpParser.Unary_expressionContext ctx) {
+		return new CSharpExpressionReader(ctx).lowerUnaryExpression(ctx);
+	}
+
+	public static MapleDeadlockExpression readLockTarget(CSharpParser.ExpressionContext ctx) {
+		// the locked object is typed from the leading unary expression
+		CSharpParser.Unary_expressionContext unaryCtx = getFirstUnaryExpression(ctx);
+		return unaryCtx != null ? readExpression(unaryCtx) : null;
+	}
+
+	private static CSharpParser.Unary_expressionContext getFirstUnaryExpression(ParserRuleContext ctx) {
+		if (ctx instanceof CSharpParser.Unary_expressionContext) {
+			return (CSharpParser.Unary_expressionContext) ctx;
+		}
+
+		for (int i = 0; i < ctx.getChildCount(); i++) {
+			if (ctx.getChild(i) instanceof ParserRuleContext) {
+				CSharpParser.Unary_expressionContext ret = getFirstUnaryExpression((ParserRuleContext) ctx.getChild(i));
+				if (ret != null) {
+					return ret;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private static int getLiteralIndex(CSharpParser.LiteralContext elemCtx) {
+		if(elemCtx.INTEGER_LITERAL() != null || elemCtx.HEX_INTEGER_LITERAL() != null) return 0;
+		if(elemCtx.REAL_LITERAL() != null) return 1;
+		if(elemCtx.CHARACTER_LITERAL() != null) return 2;
+		if(elemCtx.string_literal() != null) return 3;
+		if(elemCtx.BIN_INTEGER_LITERAL() != null || elemCtx.boolean_literal() != null) return 4;
+		if(elemCtx.NULL_() != null) return 7;
+
+		return -1;
+	}
+
+	private static int getPrimitiveIndex(CSharpParser.Simple_typeContext elemCtx) {
+		if (elemCtx.numeric_type() != null) {
+			CSharpParser.Numeric_typeContext numCtx = elemCtx.numeric_type();
+
+			if (numCtx.integral_type() != null && numCtx.integral_type().CHAR() != null) return 2;
+			else if (numCtx.integral_type() != null || numCtx.DECIMAL() != null) return 0;
+			else if (numCtx.floating_point_type() != null) return 1;
+		}
+
+		return -2;
+	}
+
+	private void addFirstUnaryExpression(MapleDeadlockExpression e, ParserRuleContext ctx) {
+		// takes the first unary expression met on the subtree, for the sake of typing it
+		if (ctx == null) return;
+
+		if (ctx instanceof CSharpParser.Unary_expressionContext) {
+			e.addOperand(lowerUnaryExpression((CSharpParser.Unary_expressionContext) ctx));
+		} else {
+			int size = e.getOperands().size();
+			for (int i = 0; i < ctx.getChildCount(); i++) {
+				if (ctx.getChild(i) instanceof ParserRuleContext && e.getOperands().size() == size) {
+					addFirstUnaryExpression(e, (ParserRuleContext) ctx.getChild(i));
+				}
+			}
+		}
+	}
+
+	private MapleDeadlockExpression lowerObjectCreation(CSharpParser.ObjectCreationExpressionContext ctx) {
+		MapleDeadlockExpression e = newExpression(Kind.NEW, ctx);
+
+		CSharpParser.Type_Context nameCtx = ctx.type_();
+		if (nameCtx != null) {
+			e.setName(nameCtx.base_type().getText());
+
+			CSharpParser.Base_typeContext baseCtx = nameCtx.base_type();
+			if (baseCtx.simple_type() != null) {
+				e.setIndex(getPrimitiveIndex(baseCtx.simple_type()));
+			}
+		}
+
+		return e;
+	}
+
+	private MapleDeadlockExpression lowerChainElement(ParserRuleContext ctx) {
+		MapleDeadlockExpression e;
+
+		if (ctx instanceof CSharpParser.Method_invocationContext) {
+			e = newExpression(Kind.INVOCATION, ctx);
+
+			CSharpParser.Argument_listContext expList = ((CSharpParser.Method_invocationContext) ctx).argument_list();
+			if (expList != null) {
+				for (CSharpParser.ArgumentContext exp : expList.argument()) {
+					addFirstUnaryExpression(e, exp.expression());
+				}
+			}
+		} else if (ctx instanceof CSharpParser.IdentifierContext) {
+			e = newExpression(Kind.POINTER_MEMBER, ctx);
+			e.setName(ctx.getText());
+		} else if (ctx instanceof CSharpParser.SimpleNameExpressionContext) {
+			e = newExpression(Kind.SIMPLE_NAME, ctx);
+			e.setName(ctx.getText());
+		} else if (ctx instanceof CSharpParser.Member_accessContext) {
+			e = newExpression(Kind.MEMBER_ACCESS, ctx);
+			e.setName(((CSharpParser.Member_accessContext) ctx).identifier().getText());
+		} else if (ctx instanceof CSharpParser.MemberAccessExpressionContext) {
+			CSharpParser.MemberAccessExpressionContext maeCtx = (CSharpParser.MemberAccessExpressionContext) ctx;
+
+			e = newExpression(Kind.PREDEFINED_ACCESS, ctx);
+			if (maeCtx.qualified_alias_member() != null) {
+				e.setName(maeCtx.qualified_alias_member().getText());
+			} else {
+				e.setName(maeCtx.predefined_type().getText());
+			}
+		} else if (ctx instanceof CSharpParser.LiteralExpressionContext) {
+			e = newExpression(Kind.LITERAL, ctx);
+			e.setIndex(getLiteralIndex(((CSharpParser.LiteralExpressionContext) ctx).literal()));
+		} else if (ctx instanceof CSharpParser.ThisReferenceExpressionContext) {
+			e = newExpression(Kind.THIS, ctx);
+		} else if (ctx instanceof CSharpParser.ObjectCreationExpressionContext) {
+			e = lowerObjectCreation((CSharpParser.ObjectCreationExpressionContext) ctx);
+		} else if (ctx instanceof CSharpParser.Bracket_expressionContext) {
+			e = newExpression(Kind.BRACKET, ctx);
+			for (CSharpParser.Indexer_argumentContext idxCtx : ((CSharpParser.Bracket_expressionContext) ctx).indexer_argument()) {
+				addFirstUnaryExpression(e, idxCtx.expression());
+			}
+		} else if (ctx instanceof CSharpParser.ParenthesisExpressionsContext) {
+			e = newExpression(Kind.PARENS, ctx);
+			addFirstUnaryExpression(e, ((CSharpParser.ParenthesisExpressionsContext) ctx).expression());
+		} else {
+			e = newExpression(Kind.OTHER, ctx);
+		}
+
+		return e;
+	}
+
+	private MapleDeadlockExpression lowerUnaryExpression(CSharpParser.Unary_expressionContext ctx) {
+		MapleDeadlockExpression e;
+
+		CSharpParser.Cast_expressionContext castCtx = ctx.cast_expression();
+		if (castCtx != null) {
+			e = newExpression(Kind.CAST, ctx);
+			e.setName(castCtx.type_().getText());
+			e.addOperand(lowerUnaryExpression(castCtx.unary_expression()));
+		} else if (ctx.primary_expression() != null) {
+			CSharpParser.Primary_expressionContext curCtx = ctx.primary_expression();
+
+			e = newExpression(Kind.CHAIN, ctx);
+			for (int i = 0; i < curCtx.getChildCount(); i++) {
+				if (curCtx.getChild(i) instanceof ParserRuleContext) {
+					e.addOperand(lowerChainElement((ParserRuleContext) curCtx.getChild(i)));
+				}
+			}
+		} else {
+			e = newExpression(Kind.PREFIX, ctx);
+
+			CSharpParser.Unary_expressionContext operand = ctx.unary_expression();
+			e.addOperand(operand != null ? lowerUnaryExpression(operand) : newExpression(Kind.OTHER, null));
+		}
+
+		return e;
+	}
+}
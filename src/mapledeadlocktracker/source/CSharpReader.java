@@ -11,10 +11,11 @@
  */
 package mapledeadlocktracker.source;
 
-import mapledeadlocktracker.MapleDeadlockGraphMaker;
+import mapledeadlocktracker.MapleDeadlockConfig;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -29,93 +30,113 @@ import java.util.stream.Collectors;
 import mapledeadlocktracker.containers.MapleDeadlockClass;
 import mapledeadlocktracker.containers.MapleDeadlockClass.DeadlockClassType;
 import mapledeadlocktracker.containers.MapleDeadlockEnum;
+import mapledeadlocktracker.containers.MapleDeadlockExpression;
 import mapledeadlocktracker.containers.MapleDeadlockFunction;
 import mapledeadlocktracker.containers.MapleDeadlockLock;
+import mapledeadlocktracker.containers.MapleDeadlockSourceFile;
 import mapledeadlocktracker.containers.MapleDeadlockStorage;
 import mapledeadlocktracker.containers.Pair;
 import mapledeadlocktracker.graph.MapleDeadlockAbstractType;
 import mapledeadlocktracker.strings.MapleIgnoredTypes;
 import mapledeadlocktracker.strings.MapleLinkedTypes;
 import mapledeadlocktracker.strings.MapleReflectedTypes;
-import language.csharp.CSharpLexer;
 import language.csharp.CSharpParser;
 import language.csharp.CSharpParserBaseListener;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-
 /**
  *
  * @author RonanLana
  */
 public class CSharpReader extends CSharpParserBaseListener {
-	private static MapleDeadlockStorage storage = new MapleDeadlockStorage();
-	private static String syncLockTypeName = "SynchLock";
+	private MapleDeadlockStorage storage = new MapleDeadlockStorage();
+	private String syncLockTypeName = "SynchLock";
 
 	// ---- cached storage fields ----
-	private static Map<String, Map<String, MapleDeadlockClass>> maplePublicClasses = storage.getPublicClasses();
-	private static Map<String, Map<String, MapleDeadlockClass>> maplePrivateClasses = storage.getPrivateClasses();
+	private Map<String, Map<String, MapleDeadlockClass>> maplePublicClasses = storage.getPublicClasses();
+	private Map<String, Map<String, MapleDeadlockClass>> maplePrivateClasses = storage.getPrivateClasses();
 
-	private static Map<String, MapleDeadlockLock> mapleLocks = storage.getLocks();
-	private static Map<String, MapleDeadlockLock> mapleReadWritemapleLocks = storage.getReadWriteLocks();
+	private Map<String, MapleDeadlockLock> mapleLocks = storage.getLocks();
+	private Map<String, MapleDeadlockLock> mapleReadWritemapleLocks = storage.getReadWriteLocks();
 
-	private static Map<MapleDeadlockClass, Integer> mapleClassDataTypes = storage.getClassDataTypes();
-	private static Map<List<Integer>, Integer> mapleCompoundDataTypes = storage.getCompoundDataTypes();
-	private static Map<String, Integer> mapleBasicDataTypes = storage.getBasicDataTypes();
-	private static Map<Integer, Integer> mapleElementalDataTypes = storage.getElementalDataTypes();
-	private static Integer[] mapleElementalTypes = storage.getElementalTypes();
+	private Map<MapleDeadlockClass, Integer> mapleClassDataTypes = storage.getClassDataTypes();
+	private Map<List<Integer>, Integer> mapleCompoundDataTypes = storage.getCompoundDataTypes();
+	private Map<String, Integer> mapleBasicDataTypes = storage.getBasicDataTypes();
+	private Map<Integer, Integer> mapleElementalDataTypes = storage.getElementalDataTypes();
+	private Integer[] mapleElementalTypes = storage.getElementalTypes();
 
-	private static Map<MapleDeadlockClass, List<MapleDeadlockClass>> mapleInheritanceTree = storage.getInheritanceTree();
-	private static Map<Integer, Pair<Integer, Map<String, Integer>>> mapleReflectedClasses = storage.getReflectedClasses();
+	private Map<MapleDeadlockClass, List<MapleDeadlockClass>> mapleInheritanceTree = storage.getInheritanceTree();
+	private Map<Integer, Pair<Integer, Map<String, Integer>>> mapleReflectedClasses = storage.getReflectedClasses();
 
-	private static Map<MapleDeadlockFunction, Boolean> mapleRunnableFunctions = new HashMap<>();
-	private static Set<MapleDeadlockFunction> mapleRunnableMethods = storage.getRunnableMethods();
+	private Map<MapleDeadlockFunction, Boolean> mapleRunnableFunctions = new LinkedHashMap<>();   // keeps the file reading order
+	private Set<MapleDeadlockFunction> mapleRunnableMethods = storage.getRunnableMethods();
 
 	//private static Map<Integer, String> mapleCompoundDataNames = new HashMap();   // test purposes only
 
 	// ---- volatile fields ----
 
-	private static AtomicInteger runningId = new AtomicInteger(1);
-	private static AtomicInteger runningSyncLockId = new AtomicInteger(0);
-	private static AtomicInteger runningTypeId = new AtomicInteger(1);  // volatile id 0 reserved for sync locks
-	private static AtomicInteger runningMethodCallCount = new AtomicInteger(0);
+	private AtomicInteger runningSyncLockId = new AtomicInteger(0);
+	private AtomicInteger runningTypeId = new AtomicInteger(1);  // volatile id 0 reserved for sync locks
 
-	private static Stack<Integer> methodCallCountStack = new Stack();
-	private static Stack<MapleDeadlockFunction> methodStack = new Stack();
-	private static List<MapleDeadlockClass> classStack = new ArrayList();
+	private Stack<MapleDeadlockFunction> methodStack = new Stack();
+	private List<MapleDeadlockClass> classStack = new ArrayList();
 
-	private static Set<String> readLockWaitingSet = new HashSet();
-	private static Set<String> writeLockWaitingSet = new HashSet();
+	private Set<String> readLockWaitingSet = new HashSet();
+	private Set<String> writeLockWaitingSet = new HashSet();
 
-	private static Map<String, String> readLockQueue = new HashMap();
-	private static Map<String, String> writeLockQueue = new HashMap();
+	private Map<String, String> readLockQueue = new HashMap();
+	private Map<String, String> writeLockQueue = new HashMap();
 
-	private static Map<Integer, String> mapleLinkedDataNames = new HashMap();
+	private Map<Integer, String> mapleLinkedDataNames = new HashMap();
 
-	private static List<String> currentImportList = new ArrayList<>();
-	private static String sourceDirPrefixPath;
-	private static Stack<String> currentPackageName = new Stack<>();
-	private static String currentCompleteFileClassName;
-	private static MapleDeadlockClass currentClass = null;
-	private static List<MapleDeadlockClass> customClasses = new LinkedList<>();
-	private static boolean currentAbstract = false;
+	private List<String> currentImportList = new ArrayList<>();
+	private String sourceDirPrefixPath = getSourceDirPrefixPath(MapleDeadlockConfig.getProperty("src_folder"));     // every file reader takes it from the project settings
+	private Stack<String> currentPackageName = new Stack<>();
+	private String currentCompleteFileClassName;
+	private MapleDeadlockClass currentClass = null;
+	private List<MapleDeadlockClass> customClasses = new LinkedList<>();
+	private boolean currentAbstract = false;
 
-	private static Map<Integer, Pair<MapleDeadlockClass, Integer>> volatileMaskedTypes = new HashMap<>();
-	private static Map<Integer, Pair<String, String>> volatileDataTypes = new HashMap<>();  // cannot recover the import classes at the first parsing, so the type definition comes at the second rundown
+	private Map<Integer, Pair<MapleDeadlockClass, Integer>> volatileMaskedTypes = new HashMap<>();
+	private Map<Integer, Pair<String, String>> volatileDataTypes = new HashMap<>();  // cannot recover the import classes at the first parsing, so the type definition comes at the second rundown
         
-        private static MapleDeadlockClass defaultClass = new MapleDeadlockClass(DeadlockClassType.CLASS, "_DefaultClass", "_package.", "", Collections.emptyList(), true, null);
+        private MapleDeadlockClass defaultClass = new MapleDeadlockClass(DeadlockClassType.CLASS, "_DefaultClass", "_package.", "", Collections.emptyList(), true, null);
+
+	// ---- file reading fields ----
+
+	private enum ReaderEvent {
+		PACKAGE_PATH, COMPILATION_UNIT, NAMESPACE, NAMESPACE_EXIT, USING, MEMBER_MODIFIERS, TYPE_ARGUMENTS,
+		CLASS, CLASS_EXIT, ENUM, INTERFACE, INTERFACE_EXIT, INTERFACE_MEMBER, METHOD, METHOD_EXIT, PROPERTY,
+		LAMBDA, LOCAL_FUNCTION, CONSTRUCTOR, CONSTRUCTOR_EXIT, VARIABLES, LOCK, LOCK_EXIT, EVENT, EVENT_EXIT,
+		LOCAL_VARIABLE, ELEMENT_VALUE_PAIR, METHOD_CALL
+	}
+
+	// a reader instance walks a single source file, only recording what is met there. The project-wide data is updated
+	// later, when the recorded events are loaded in file order, so several files can be read at the same time
+	private MapleDeadlockSourceFile sourceFile = new MapleDeadlockSourceFile();
+
+	private int runningMethodCallCount = 0;
+	private Stack<Integer> methodCallCountStack = new Stack();
+
+	private void addEvent(ReaderEvent event, Object... args) {
+		sourceFile.addEvent(event.ordinal(), args);
+	}
 
-	public void setSourceDirPrefixPath(String sourceDirPath) {
+	public MapleDeadlockSourceFile getSourceFile() {
+		return sourceFile;
+	}
+
+	private static String getSourceDirPrefixPath(String sourceDirPath) {
 		sourceDirPath = sourceDirPath.trim().toLowerCase();
 		sourceDirPath = sourceDirPath.replace('\\', '/');
 
+		String ret = null;
 		int i = sourceDirPath.lastIndexOf('.') - 1;
 		if (i < 0) i = sourceDirPath.length();
 
 		while (i >= 0) {
 			switch (sourceDirPath.charAt(i)) {
 			case '.':
-				sourceDirPrefixPath = sourceDirPath.substring(sourceDirPath.indexOf("/", i) + 1) + "/";
+				ret = sourceDirPath.substring(sourceDirPath.indexOf("/", i) + 1) + "/";
 				i = -1;
 				break;
 
@@ -124,6 +145,8 @@ public class CSharpReader extends CSharpParserBaseListener {
 
 			i--;
 		}
+
+		return ret;
 	}
 
 	public void setPackageNameFromFilePath(String fileName) {
@@ -139,11 +162,15 @@ public class CSharpReader extends CSharpParserBaseListener {
 		str = str.substring(idx + sourceDirPrefixPath.length());
 		str = str.replace('/', '.');
 
-		currentPackageName.push(str);
+		addEvent(ReaderEvent.PACKAGE_PATH, str);
 	}
 
 	@Override
 	public void enterCompilation_unit(CSharpParser.Compilation_unitContext ctx) {
+		addEvent(ReaderEvent.COMPILATION_UNIT);
+	}
+
+	private void processCompilationUnit() {
 		MapleDeadlockFunction method = new MapleDeadlockFunction("_global", null, null, currentAbstract);
 		methodStack.add(method);
 
@@ -152,16 +179,18 @@ public class CSharpReader extends CSharpParserBaseListener {
 
 	@Override
 	public void enterNamespace_declaration(CSharpParser.Namespace_declarationContext ctx) {
-		currentPackageName.push(ctx.qualified_identifier().getText() + ".");
+		addEvent(ReaderEvent.NAMESPACE, ctx.qualified_identifier().getText() + ".");
 	}
 
 	@Override
 	public void exitNamespace_declaration(CSharpParser.Namespace_declarationContext ctx) {
-		currentPackageName.pop();
+		addEvent(ReaderEvent.NAMESPACE_EXIT);
 	}
 
 	@Override
 	public void enterUsing_directives(CSharpParser.Using_directivesContext ctx) {
+		List<String> usingList = new LinkedList<>();
+
 		for (CSharpParser.Using_directiveContext ctxd : ctx.using_directive()) {
                         String s = "";
 			if (ctxd instanceof CSharpParser.UsingAliasDirectiveContext) {
@@ -175,38 +204,54 @@ public class CSharpReader extends CSharpParserBaseListener {
 				s = ctxs.namespace_or_type_name().getText();
 			}
                         
-                        currentImportList.add(s);
+                        usingList.add(s);
 		}
+
+		addEvent(ReaderEvent.USING, usingList);
 	}
 
 	@Override
 	public void enterClass_member_declaration(CSharpParser.Class_member_declarationContext ctx) {
-		currentAbstract = false;
+		boolean isAbstract = false;
 
 		if (ctx.all_member_modifiers() != null) {
 			for (CSharpParser.All_member_modifierContext ctxi : ctx.all_member_modifiers().all_member_modifier()) {
-				currentAbstract |= (ctxi.ABSTRACT() != null);
+				isAbstract |= (ctxi.ABSTRACT() != null);
 			}
 		}
+
+		addEvent(ReaderEvent.MEMBER_MODIFIERS, isAbstract);
 	}
 
 	@Override
 	public void enterType_declaration(CSharpParser.Type_declarationContext ctx) {
-		currentAbstract = false;
+		boolean isAbstract = false;
 
 		if(ctx.attributes() != null) {
 			for (CSharpParser.Attribute_sectionContext ctxa : ctx.attributes().attribute_section()) {
 				if (ctxa.attribute_target() != null && ctxa.attribute_target().keyword() != null) {
-					currentAbstract |= (ctxa.attribute_target().keyword().ABSTRACT() != null);
+					isAbstract |= (ctxa.attribute_target().keyword().ABSTRACT() != null);
 				}
 			}
 		}
+
+		addEvent(ReaderEvent.MEMBER_MODIFIERS, isAbstract);
 	}
 
 	@Override
 	public void enterType_argument_list(CSharpParser.Type_argument_listContext ctx) {
+		List<String> maskNames = new LinkedList<>();
+
 		for(CSharpParser.Type_Context typC : ctx.type_()) {
-			Integer mType = getTypeId(typC.getText(), currentCompleteFileClassName);
+			maskNames.add(typC.getText());
+		}
+
+		addEvent(ReaderEvent.TYPE_ARGUMENTS, maskNames);
+	}
+
+	private void processTypeArgumentList(List<String> maskNames) {
+		for(String maskName : maskNames) {
+			Integer mType = getTypeId(maskName, currentCompleteFileClassName);
 
 			volatileMaskedTypes.put(mType, new Pair<>(currentClass, currentClass.getMaskedTypeSize()));
 			currentClass.addMaskedType(mType);
@@ -248,7 +293,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return list;
 	}
 
-	private static String getPathName(String className) {
+	private String getPathName(String className) {
 		String path = "";
 
 		for(MapleDeadlockClass mdc : classStack) {
@@ -261,10 +306,16 @@ public class CSharpReader extends CSharpParserBaseListener {
 
 	@Override
 	public void enterClass_definition(CSharpParser.Class_definitionContext ctx) {
-		String className = ctx.identifier().IDENTIFIER().getText();
-		boolean isAbstract = currentAbstract;
+		addEvent(ReaderEvent.CLASS, ctx.identifier().IDENTIFIER().getText(), getExtendedImplementedList(ctx.class_base()));
+	}
+
+	@Override
+	public void exitClass_definition(CSharpParser.Class_definitionContext ctx) {
+		addEvent(ReaderEvent.CLASS_EXIT);
+	}
 
-		List<String> superNames = getExtendedImplementedList(ctx.class_base());
+	private void processClassDefinition(String className, List<String> superNames) {
+		boolean isAbstract = currentAbstract;
 
 		if(currentClass != null) {
 			classStack.add(currentClass);
@@ -283,8 +334,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		mapleInheritanceTree.put(currentClass, new LinkedList<>());
 	}
 
-	@Override
-	public void exitClass_definition(CSharpParser.Class_definitionContext ctx) {
+	private void processClassDefinitionExit() {
 		if(classStack.isEmpty()) {
 			for(String s : currentImportList) {
 				currentClass.addImport(s);
@@ -314,10 +364,15 @@ public class CSharpReader extends CSharpParserBaseListener {
 
 	@Override
 	public void enterEnum_definition(CSharpParser.Enum_definitionContext ctx) {
-		String className = ctx.identifier().IDENTIFIER().getText();
+		addEvent(ReaderEvent.ENUM, ctx.identifier().IDENTIFIER().getText(), getExtendedImplementedListForEnum(ctx.enum_base()));
+	}
 
-		List<String> superNames = getExtendedImplementedListForEnum(ctx.enum_base());
+	@Override
+	public void exitEnum_definition(CSharpParser.Enum_definitionContext ctx) {
+		addEvent(ReaderEvent.CLASS_EXIT);
+	}
 
+	private void processEnumDefinition(String className, List<String> superNames) {
 		if(currentClass != null) {
 			classStack.add(currentClass);
 			currentClass = new MapleDeadlockEnum(className, currentPackageName.peek(), getPathName(className), superNames, currentClass);
@@ -334,40 +389,16 @@ public class CSharpReader extends CSharpParserBaseListener {
 	}
 
 	@Override
-	public void exitEnum_definition(CSharpParser.Enum_definitionContext ctx) {
-		if(classStack.isEmpty()) {
-			for(String s : currentImportList) {
-				currentClass.addImport(s);
-			}
-
-			if(maplePublicClasses.containsKey(currentPackageName.peek())) {
-				maplePublicClasses.get(currentPackageName.peek()).put(currentClass.getPathName(), currentClass);
-			} else {
-				maplePublicClasses.put(currentPackageName.peek(), newPackageClass(currentClass.getPathName(), currentClass));
-			}
-
-			currentClass = null;
-		} else {
-			String fcn = currentCompleteFileClassName;
-
-			if(maplePrivateClasses.containsKey(fcn)) {
-				maplePrivateClasses.get(fcn).put(getPathName(currentClass.getName()), currentClass);
-			} else {
-				maplePrivateClasses.put(fcn, newPackageClass(getPathName(currentClass.getName()), currentClass));
-			}
-
-			MapleDeadlockClass mdc = currentClass;
-			currentClass = classStack.remove(classStack.size() - 1);
-			currentClass.addPrivateClass(mdc.getName(), mdc);
-		}
+	public void enterInterface_definition(CSharpParser.Interface_definitionContext ctx) {
+		addEvent(ReaderEvent.INTERFACE, ctx.identifier().IDENTIFIER().getText(), getExtendedImplementedListForInterface(ctx.interface_base()));
 	}
 
 	@Override
-	public void enterInterface_definition(CSharpParser.Interface_definitionContext ctx) {
-		String className = ctx.identifier().IDENTIFIER().getText();
-
-		List<String> superNames = getExtendedImplementedListForInterface(ctx.interface_base());
+	public void exitInterface_definition(CSharpParser.Interface_definitionContext ctx) {
+		addEvent(ReaderEvent.INTERFACE_EXIT);
+	}
 
+	private void processInterfaceDefinition(String className, List<String> superNames) {
 		if(currentClass != null) {
 			classStack.add(currentClass);
 			currentClass = new MapleDeadlockClass(DeadlockClassType.INTERFACE, className, currentPackageName.peek(), getPathName(className), superNames, true, currentClass);
@@ -381,8 +412,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		mapleInheritanceTree.put(currentClass, new LinkedList<>());
 	}
 
-	@Override
-	public void exitInterface_definition(CSharpParser.Interface_definitionContext ctx) {
+	private void processInterfaceDefinitionExit() {
 		if(classStack.isEmpty()) {
 			for(String s : currentImportList) {
 				currentClass.addImport(s);
@@ -415,13 +445,15 @@ public class CSharpReader extends CSharpParserBaseListener {
 		CSharpParser.IdentifierContext idCtx = ctx.identifier();
 
 		if(idCtx != null) {
-			String curText = ctx.type_().getText();
-			Integer type = getTypeId(curText, currentCompleteFileClassName);
-
-			currentClass.addFieldVariable(type, idCtx.getText());
+			addEvent(ReaderEvent.INTERFACE_MEMBER, ctx.type_().getText(), idCtx.getText());
 		}
 	}
 
+	private void processInterfaceMember(String curText, String fieldName) {
+		Integer type = getTypeId(curText, currentCompleteFileClassName);
+		currentClass.addFieldVariable(type, fieldName);
+	}
+
 	private static Map<String, MapleDeadlockClass> newPackageClass(String s, MapleDeadlockClass c) {
 		Map<String, MapleDeadlockClass> m = new HashMap<>();
 		m.put(s, c);
@@ -446,45 +478,49 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return ret;
 	}
 
-	private void enterMethodDeclaration(List<String> list, CSharpParser.Method_declarationContext ctx, String retTypeName) {
-		String className = list.get(0);
-		String methodName = list.get(1);
+	private void enterMethodDeclaration() {
+		methodCallCountStack.add(runningMethodCallCount);
+		runningMethodCallCount = 0;
+	}
+
+	private void exitMethodDeclaration(boolean lambdaMethod) {
+		addEvent(ReaderEvent.METHOD_EXIT, lambdaMethod);
+		runningMethodCallCount = methodCallCountStack.pop();
+	}
 
+	private void processMethodDeclaration(String className, String methodName, String retTypeName, List<String[]> paramList) {
 		MapleDeadlockClass mdc;
 		if (!className.isEmpty()) {
-			mdc = MapleDeadlockStorage.locateClass(className, currentClass);
+			mdc = storage.locateClass(className, currentClass);
 		} else {
 			mdc = currentClass;
 		}
                 
                 MapleDeadlockFunction method = new MapleDeadlockFunction(methodName, mdc, methodStack.isEmpty() ? null : methodStack.peek(), currentAbstract);
-		Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> retParamTypes = getMethodMetadata(ctx, retTypeName, method);
+		Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> retParamTypes = getMethodMetadata(retTypeName, paramList, method);
 
 		method.setMethodMetadata(retParamTypes.left, retParamTypes.right.left, retParamTypes.right.right);
 		methodStack.add(method);
-
-		methodCallCountStack.add(runningMethodCallCount.get());
-		runningMethodCallCount.set(0);
                 
                 if (mdc != null) mdc.addClassMethod(method);
 	}
 
-	private void exitMethodDeclaration(boolean lambdaMethod) {
+	private void processMethodDeclarationExit(boolean lambdaMethod) {
 		MapleDeadlockFunction method = methodStack.pop();
                 if(lambdaMethod) {
 			// book-keeping possible Runnable functions to be dealt with later on the parsing
 
 			mapleRunnableFunctions.put(method, true);
 		}
-
-		runningMethodCallCount.set(methodCallCountStack.pop());
 	}
         
         @Override
 	public void enterProperty_declaration(CSharpParser.Property_declarationContext ctx) {
 		String typeText = ((CSharpParser.Typed_member_declarationContext) ctx.getParent()).type_().getText();
-                String vdName = ctx.member_name().getText();
-                
+                addEvent(ReaderEvent.PROPERTY, typeText, ctx.member_name().getText());
+	}
+
+	private void processPropertyDeclaration(String typeText, String vdName) {
                 String tt = getFullTypeText(typeText, vdName);
                 int type = getTypeId(tt, currentCompleteFileClassName);
 
@@ -504,7 +540,9 @@ public class CSharpReader extends CSharpParserBaseListener {
                         typeName = ((CSharpParser.Typed_member_declarationContext) ctx.getParent()).type_().getText();
                 }
                 
-		enterMethodDeclaration(fullClassMethodName(list), ctx, typeName);
+		List<String> names = fullClassMethodName(list);
+		addEvent(ReaderEvent.METHOD, names.get(0), names.get(1), typeName, getFormalParameters(ctx.formal_parameter_list()));
+		enterMethodDeclaration();
 	}
 
 	@Override
@@ -514,14 +552,8 @@ public class CSharpReader extends CSharpParserBaseListener {
         
         @Override
 	public void enterLambda_expression(CSharpParser.Lambda_expressionContext ctx) {
-		MapleDeadlockFunction method = new MapleDeadlockFunction("_unidentified_"  + mapleRunnableMethods.size(), defaultClass, methodStack.isEmpty() ? null : methodStack.peek(), currentAbstract);
-		Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> retParamTypes = getLambdaMethodMetadata(ctx, "void", method);
-
-		method.setMethodMetadata(retParamTypes.left, retParamTypes.right.left, retParamTypes.right.right);
-		methodStack.add(method);
-
-		methodCallCountStack.add(runningMethodCallCount.get());
-		runningMethodCallCount.set(0);
+		addEvent(ReaderEvent.LAMBDA, getLambdaParameters(ctx.anonymous_function_signature()));
+		enterMethodDeclaration();
 	}
         
         @Override
@@ -529,29 +561,30 @@ public class CSharpReader extends CSharpParserBaseListener {
 		exitMethodDeclaration(true);
 	}
 
-	private void enterLocalFunctionDeclaration(List<String> list, CSharpParser.Local_function_declarationContext ctx) {
-		String className = list.get(0);
-		String methodName = list.get(1);
+	private void processLambdaExpression(List<String[]> paramList) {
+		MapleDeadlockFunction method = new MapleDeadlockFunction("_unidentified_"  + mapleRunnableMethods.size(), defaultClass, methodStack.isEmpty() ? null : methodStack.peek(), currentAbstract);
+		Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> retParamTypes = getMethodMetadata("void", paramList, method);
 
-		MapleDeadlockClass mdc = MapleDeadlockStorage.locateClass(className, currentClass);
+		method.setMethodMetadata(retParamTypes.left, retParamTypes.right.left, retParamTypes.right.right);
+		methodStack.add(method);
+	}
+
+	private void processLocalFunctionDeclaration(String methodName, String retTypeName, List<String[]> paramList) {
+		MapleDeadlockClass mdc = storage.locateClass("_", currentClass);
 
 		MapleDeadlockFunction method = new MapleDeadlockFunction(methodName, mdc, methodStack.isEmpty() ? null : methodStack.peek(), currentAbstract);
-		Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> retParamTypes = getLocalFunctionMetadata(ctx, method);
+		Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> retParamTypes = getMethodMetadata(retTypeName, paramList, method);
 
 		method.setMethodMetadata(retParamTypes.left, retParamTypes.right.left, retParamTypes.right.right);
 		methodStack.add(method);
-
-		methodCallCountStack.add(runningMethodCallCount.get());
-		runningMethodCallCount.set(0);
 	}
 
 	@Override
 	public void enterLocal_function_declaration(CSharpParser.Local_function_declarationContext ctx) {
-		List<String> list = new ArrayList<>(2);
-		list.add("_");
-		list.add(ctx.local_function_header().identifier().IDENTIFIER().getText());
+		CSharpParser.Local_function_headerContext hCtx = ctx.local_function_header();
 
-		enterLocalFunctionDeclaration(list, ctx);
+		addEvent(ReaderEvent.LOCAL_FUNCTION, hCtx.identifier().IDENTIFIER().getText(), hCtx.return_type().getText(), getFormalParameters(hCtx.formal_parameter_list()));
+		enterMethodDeclaration();
 	}
 
 	@Override
@@ -561,17 +594,23 @@ public class CSharpReader extends CSharpParserBaseListener {
 
 	@Override
 	public void enterConstructor_declaration(CSharpParser.Constructor_declarationContext ctx) {
-		String methodName = ctx.identifier().IDENTIFIER().getText();
+		addEvent(ReaderEvent.CONSTRUCTOR, ctx.identifier().IDENTIFIER().getText(), getFormalParameters(ctx.formal_parameter_list()));
+	}
 
+	@Override
+	public void exitConstructor_declaration(CSharpParser.Constructor_declarationContext ctx) {
+		addEvent(ReaderEvent.CONSTRUCTOR_EXIT);
+	}
+
+	private void processConstructorDeclaration(String methodName, List<String[]> paramList) {
 		MapleDeadlockFunction method = new MapleDeadlockFunction(methodName, currentClass, null, false);
-		Pair<List<Integer>, Map<Long, Integer>> pTypes = getMethodParameterTypes(ctx.formal_parameter_list(), method);
+		Pair<List<Integer>, Map<Long, Integer>> pTypes = getMethodParameterTypes(paramList, method);
 
 		method.setMethodMetadata(-1, pTypes.left, pTypes.right);
 		methodStack.add(method);
 	}
 
-	@Override
-	public void exitConstructor_declaration(CSharpParser.Constructor_declarationContext ctx) {
+	private void processConstructorDeclarationExit() {
 		MapleDeadlockFunction method = methodStack.pop();
 		if (currentClass != null) currentClass.addClassMethod(method);
 	}
@@ -582,7 +621,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 				.map(vdItem -> vdItem.identifier().getText())
 				.collect(Collectors.toList());
 
-		processVariableDeclarations(true, ((CSharpParser.Typed_member_declarationContext) ctx.getParent()).type_().getText(), vdNames);
+		addEvent(ReaderEvent.VARIABLES, true, ((CSharpParser.Typed_member_declarationContext) ctx.getParent()).type_().getText(), vdNames);
 	}
         
         @Override
@@ -591,11 +630,11 @@ public class CSharpReader extends CSharpParserBaseListener {
                         if (ctx.simple_embedded_statement() instanceof CSharpParser.ForeachStatementContext) {
                                 CSharpParser.ForeachStatementContext fctx = (CSharpParser.ForeachStatementContext) ctx.simple_embedded_statement();
                                 if (fctx.local_variable_type().type_() != null) {
-                                        processVariableDeclarations(true, fctx.local_variable_type().type_().getText(), Collections.singletonList(fctx.identifier().IDENTIFIER().getText()));
+                                        addEvent(ReaderEvent.VARIABLES, true, fctx.local_variable_type().type_().getText(), Collections.singletonList(fctx.identifier().IDENTIFIER().getText()));
                                 }
                         } else if (ctx.simple_embedded_statement() instanceof CSharpParser.LockStatementContext) {
-                                String syncLockName = MapleDeadlockGraphMaker.getSyncLockName(((CSharpParser.LockStatementContext) ctx.simple_embedded_statement()).expression().getText(), methodStack.peek().getId());
-                                methodStack.peek().addMethodCall(generateSyncLockExpression(syncLockName, true));
+                                CSharpParser.ExpressionContext lockCtx = ((CSharpParser.LockStatementContext) ctx.simple_embedded_statement()).expression();
+                                addEvent(ReaderEvent.LOCK, CSharpExpressionReader.readLockTarget(lockCtx));
                         }
                 }
 	}
@@ -604,42 +643,96 @@ public class CSharpReader extends CSharpParserBaseListener {
 	public void exitEmbedded_statement(CSharpParser.Embedded_statementContext ctx) {
                 if (ctx.simple_embedded_statement() != null) {
                         if (ctx.simple_embedded_statement() instanceof CSharpParser.LockStatementContext) {
-                                String syncLockName = MapleDeadlockGraphMaker.getSyncLockName(((CSharpParser.LockStatementContext) ctx.simple_embedded_statement()).expression().getText(), methodStack.peek().getId());
-                                methodStack.peek().addMethodCall(generateSyncLockExpression(syncLockName, false));
+                                CSharpParser.ExpressionContext lockCtx = ((CSharpParser.LockStatementContext) ctx.simple_embedded_statement()).expression();
+                                addEvent(ReaderEvent.LOCK_EXIT, CSharpExpressionReader.readLockTarget(lockCtx));
                         }
                 }
 	}
 
+	private void processLockStatement(MapleDeadlockExpression lockTarget, boolean lock) {
+                if (lockTarget == null) {
+                        if (lock) System.out.println("[Warning] COULD NOT DETERMINE lock target on " + MapleDeadlockStorage.getCanonClassName(currentClass) + " >> " + methodStack.peek().getName());
+                        return;
+                }
+
+                // the lock is named after the locked member, on the object holding it, so a field always maps to the same lock
+                MapleDeadlockExpression lockOwner = lockTarget;
+                String lockField = "this";
+
+                if (lockTarget.getKind() == MapleDeadlockExpression.Kind.CHAIN && !lockTarget.getOperands().isEmpty()) {
+                        List<MapleDeadlockExpression> chain = lockTarget.getOperands();
+                        MapleDeadlockExpression member = chain.get(chain.size() - 1);
+
+                        switch (member.getKind()) {
+                                case SIMPLE_NAME:
+                                case MEMBER_ACCESS:
+                                case POINTER_MEMBER:
+                                        if (chain.size() > 1) {
+                                                lockOwner = lockTarget.getOperandPrefix(chain.size() - 1);
+                                                lockField = member.getName();
+                                        } else if (!isLocalVariable(member.getName())) {
+                                                lockOwner = MapleDeadlockExpression.newThisReference();
+                                                lockField = member.getName();
+                                        }
+                                        break;
+                        }
+                }
+
+                methodStack.peek().addMethodCall(MapleDeadlockExpression.newSyncLockCall(lockField, lockOwner, lock));
+	}
+
+	private boolean isLocalVariable(String name) {
+		Long nameHash = MapleDeadlockStorage.hash64(name);
+
+		MapleDeadlockFunction method = methodStack.peek();
+		do {
+			if (method.getLocalVariableName(nameHash) != null) {
+				return true;
+			}
+
+			method = method.getParent();
+		} while (method != null);
+
+		return false;
+	}
+
 	@Override
 	public void enterEvent_declaration(CSharpParser.Event_declarationContext ctx) {
-		MapleDeadlockFunction method = new MapleDeadlockFunction("_event_"  + mapleRunnableMethods.size(), currentClass, null, false);
-		Pair<List<Integer>, Map<Long, Integer>> pTypes = getMethodParameterTypes(null, method);
-
-		method.setMethodMetadata(-1, pTypes.left, pTypes.right);
-		methodStack.add(method);
+		addEvent(ReaderEvent.EVENT);
 	}
 
 	@Override
 	public void exitEvent_declaration(CSharpParser.Event_declarationContext ctx) {
-		MapleDeadlockFunction method = methodStack.pop();
-		mapleRunnableMethods.add(method);
+		addEvent(ReaderEvent.EVENT_EXIT);
+	}
+
+	private void processEventDeclaration() {
+		MapleDeadlockFunction method = new MapleDeadlockFunction("_event_"  + mapleRunnableMethods.size(), currentClass, null, false);
+		Pair<List<Integer>, Map<Long, Integer>> pTypes = getMethodParameterTypes(Collections.emptyList(), method);
+
+		method.setMethodMetadata(-1, pTypes.left, pTypes.right);
+		methodStack.add(method);
 	}
 
 	@Override
 	public void enterLocal_variable_declaration(CSharpParser.Local_variable_declarationContext ctx) {
 		if (ctx.local_variable_declarator() != null) {
-			processLocalVariableDeclaratorId(ctx.local_variable_type().getText(), ctx.local_variable_declarator().get(ctx.local_variable_declarator().size() - 1).identifier().getText(), methodStack.peek());
+			addEvent(ReaderEvent.LOCAL_VARIABLE, ctx.local_variable_type().getText(), ctx.local_variable_declarator().get(ctx.local_variable_declarator().size() - 1).identifier().getText());
 		}
 	}
 
 	@Override
 	public void enterSpecific_catch_clause(CSharpParser.Specific_catch_clauseContext ctx) {
 		if (ctx.identifier() != null) {
-			processLocalVariableDeclaratorId("Exception", ctx.identifier().getText(), methodStack.peek());
+			addEvent(ReaderEvent.LOCAL_VARIABLE, "Exception", ctx.identifier().getText());
 		}
 	}
 
 	private void enterElementValuePair(String elementName, String value) {
+		addEvent(ReaderEvent.ELEMENT_VALUE_PAIR, elementName, value);
+	}
+
+	private void processElementValuePair(String elementName, String value) {
 		String lockName = currentPackageName.peek() + (currentClass != null ? currentClass.getPathName() + ".": "") + elementName;
 
 		if(!readLockWaitingSet.isEmpty() || !writeLockWaitingSet.isEmpty()) {
@@ -680,58 +773,33 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static CSharpParser.Unary_expressionContext generateSyncLockExpression(String syncLockName, boolean lock) {
-		String lockStrExpr = syncLockName + "." + (lock ? "_lock" : "_unlock") + "()";
-		CSharpLexer lexer = new CSharpLexer(CharStreams.fromString(lockStrExpr));
-		CommonTokenStream commonTokenStream = new CommonTokenStream(lexer);
-		CSharpParser parser = new CSharpParser(commonTokenStream);
-
-		return parser.unary_expression();
-	}
-
-	private static void addMethodFromExpression(CSharpParser.Unary_expressionContext ctx) {
-		MapleDeadlockFunction mdf = methodStack.peek();
-
-		if(!ctx.primary_expression().method_invocation().isEmpty() || !ctx.primary_expression().member_access().isEmpty()) {
-			mdf.addMethodCall(ctx);
-		}
-	}
-
 	@Override
 	public void enterUnary_expression(CSharpParser.Unary_expressionContext ctx) {
-		runningMethodCallCount.incrementAndGet();
+		runningMethodCallCount++;
 	}
 
 	@Override
 	public void exitUnary_expression(CSharpParser.Unary_expressionContext ctx) {
-		int count = runningMethodCallCount.decrementAndGet();
-		if(count == 0 && !methodStack.isEmpty() && ctx.primary_expression() != null && ctx.primary_expression().method_invocation().size() > 0) {
-			addMethodFromExpression(ctx);
+		int count = --runningMethodCallCount;
+		if(count == 0 && ctx.primary_expression() != null && ctx.primary_expression().method_invocation().size() > 0) {
+			addEvent(ReaderEvent.METHOD_CALL, CSharpExpressionReader.readExpression(ctx));
 		}
 	}
-        
-	private static Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> getLambdaMethodMetadata(CSharpParser.Lambda_expressionContext ctx, String retTypeName, MapleDeadlockFunction method) {
-		Integer type = getTypeId(retTypeName, currentCompleteFileClassName);
-		Pair<List<Integer>, Map<Long, Integer>> params = getLambdaMethodParameterTypes(ctx.anonymous_function_signature(), method);
 
-		return new Pair<>(type, params);
+	private void processMethodCall(MapleDeadlockExpression ctx) {
+		if(!methodStack.isEmpty()) {
+			methodStack.peek().addMethodCall(ctx);
+		}
 	}
         
-        private static Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> getMethodMetadata(CSharpParser.Method_declarationContext ctx, String retTypeName, MapleDeadlockFunction method) {
+        private Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> getMethodMetadata(String retTypeName, List<String[]> paramList, MapleDeadlockFunction method) {
 		Integer type = getTypeId(retTypeName, currentCompleteFileClassName);
-		Pair<List<Integer>, Map<Long, Integer>> params = getMethodParameterTypes(ctx.formal_parameter_list(), method);
-
-		return new Pair<>(type, params);
-	}
-
-	private static Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> getLocalFunctionMetadata(CSharpParser.Local_function_declarationContext ctx, MapleDeadlockFunction method) {
-		Integer type = getTypeId(ctx.local_function_header().return_type().getText(), currentCompleteFileClassName);
-		Pair<List<Integer>, Map<Long, Integer>> params = getMethodParameterTypes(ctx.local_function_header().formal_parameter_list(), method);
+		Pair<List<Integer>, Map<Long, Integer>> params = getMethodParameterTypes(paramList, method);
 
 		return new Pair<>(type, params);
 	}
         
-        private static void addMethodParameter(String typeName, String typeText, String nameText, MapleDeadlockFunction method, Map<Long, Integer> params, List<Integer> pTypes) {
+        private void addMethodParameter(String typeName, String typeText, String nameText, MapleDeadlockFunction method, Map<Long, Integer> params, List<Integer> pTypes) {
                 String tt = getFullTypeText(typeName, typeText);
                 int typeId = getTypeId(tt, currentCompleteFileClassName);
                 pTypes.add(typeId);
@@ -740,53 +808,55 @@ public class CSharpReader extends CSharpParserBaseListener {
                 params.put(val, typeId);
         }
 
-	private static Pair<List<Integer>, Map<Long, Integer>> getMethodParameterTypes(CSharpParser.Formal_parameter_listContext ctx, MapleDeadlockFunction method) {
+	private Pair<List<Integer>, Map<Long, Integer>> getMethodParameterTypes(List<String[]> paramList, MapleDeadlockFunction method) {
 		Map<Long, Integer> params = new HashMap<>();
 		List<Integer> pTypes = new LinkedList<>();
 
-		if(ctx != null) {
-			CSharpParser.Parameter_arrayContext aCtx = ctx.parameter_array();
-                        if (aCtx != null) {
-                                while(aCtx != null) {
-                                        String typeText = aCtx.array_type().getText();
-                                        String nameText = aCtx.identifier().getText();
+		for (String[] p : paramList) {
+			addMethodParameter(p[0], p[1], p[2], method, params, pTypes);
+		}
 
-                                        addMethodParameter(aCtx.array_type().base_type().getText(), typeText, nameText, method, params, pTypes);
-                                        
-                                        aCtx = ctx.parameter_array();
-                                }
-                        } else {
+		return new Pair<>(pTypes, params);
+	}
+
+	private static List<String[]> getFormalParameters(CSharpParser.Formal_parameter_listContext ctx) {
+		List<String[]> params = new LinkedList<>();
+
+		if(ctx != null) {
+                        if (ctx.fixed_parameters() != null) {
                                 for (CSharpParser.Fixed_parameterContext paramCtx : ctx.fixed_parameters().fixed_parameter()) {
-                                        String typeText = paramCtx.arg_declaration().type_().getText();
-                                        String nameText = paramCtx.arg_declaration().identifier().getText();
-                                        
-                                        addMethodParameter(paramCtx.arg_declaration().type_().base_type().getText(), typeText, nameText, method, params, pTypes);
+                                        CSharpParser.Arg_declarationContext argCtx = paramCtx.arg_declaration();
+                                        params.add(new String[]{argCtx.type_().base_type().getText(), argCtx.type_().getText(), argCtx.identifier().getText()});
                                 }
                         }
+
+			CSharpParser.Parameter_arrayContext aCtx = ctx.parameter_array();
+                        if (aCtx != null) {
+                                params.add(new String[]{aCtx.array_type().base_type().getText(), aCtx.array_type().getText(), aCtx.identifier().getText()});
+                        }
 		}
 
-		return new Pair<>(pTypes, params);
+		return params;
 	}
         
-        private static Pair<List<Integer>, Map<Long, Integer>> getLambdaMethodParameterTypes(CSharpParser.Anonymous_function_signatureContext ctx, MapleDeadlockFunction method) {
-		Map<Long, Integer> params = new HashMap<>();
-		List<Integer> pTypes = new LinkedList<>();
+        private static List<String[]> getLambdaParameters(CSharpParser.Anonymous_function_signatureContext ctx) {
+		List<String[]> params = new LinkedList<>();
 
                 CSharpParser.Implicit_anonymous_function_parameter_listContext aCtx = ctx.implicit_anonymous_function_parameter_list();
                 if (aCtx != null) {
                         for (CSharpParser.IdentifierContext idCtx : aCtx.identifier()) {
-                                addMethodParameter("Object", "Object", idCtx.IDENTIFIER().getText(), method, params, pTypes);
+                                params.add(new String[]{"Object", "Object", idCtx.IDENTIFIER().getText()});
                         }
                 } else {
                         CSharpParser.Explicit_anonymous_function_parameter_listContext bCtx = ctx.explicit_anonymous_function_parameter_list();
                         if (bCtx != null) {
                                 for (CSharpParser.Explicit_anonymous_function_parameterContext apCtx : bCtx.explicit_anonymous_function_parameter()) {
-                                        addMethodParameter(apCtx.type_().base_type().getText(), apCtx.type_().getText(), apCtx.identifier().IDENTIFIER().getText(), method, params, pTypes);
+                                        params.add(new String[]{apCtx.type_().base_type().getText(), apCtx.type_().getText(), apCtx.identifier().IDENTIFIER().getText()});
                                 }
                         }
                 }
 
-		return new Pair<>(pTypes, params);
+		return params;
 	}
 
 	private static int countOccurrences(String haystack, char needle) {
@@ -810,7 +880,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return tt;
 	}
 
-	private static void processFieldVariableDeclarations(String typeText, List<String> vdList) {
+	private void processFieldVariableDeclarations(String typeText, List<String> vdList) {
 		if (currentClass != null) {
 			for(String vdName : vdList) {
 				String tt = getFullTypeText(typeText, vdName);
@@ -821,13 +891,13 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void processLocalVariableDeclarations(String typeText, List<String> vdList, MapleDeadlockFunction method) {
+	private void processLocalVariableDeclarations(String typeText, List<String> vdList, MapleDeadlockFunction method) {
 		for(String vdName : vdList) {
 			processLocalVariableDeclaratorId(typeText, vdName, method);
 		}
 	}
 
-	private static void processLocalVariableDeclaratorId(String typeText, String vdName, MapleDeadlockFunction method) {
+	private void processLocalVariableDeclaratorId(String typeText, String vdName, MapleDeadlockFunction method) {
 		String tt = getFullTypeText(typeText, vdName);    
 		int type = getTypeId(tt, currentCompleteFileClassName);
 
@@ -840,14 +910,14 @@ public class CSharpReader extends CSharpParserBaseListener {
 		method.addLocalVariable(type, vdId);
 	}
 
-	private static Integer getTypeId(String type, String fileClass) {
+	private Integer getTypeId(String type, String fileClass) {
 		Integer t = runningTypeId.getAndIncrement();
 		volatileDataTypes.put(t, new Pair<>(type, fileClass));
 
 		return t;
 	}
 
-	private static void processVariableDeclarations(boolean isFieldVar, String typeText, List<String> vdList) {
+	private void processVariableDeclarations(boolean isFieldVar, String typeText, List<String> vdList) {
 		if(typeText.contains("Lock")) {
 			for(String vdName : vdList) {
 				processLock(currentClass, typeText, vdName, vdName);
@@ -858,7 +928,130 @@ public class CSharpReader extends CSharpParserBaseListener {
 		else processLocalVariableDeclarations(typeText, vdList, methodStack.peek());
 	}
 
-	private static Pair<String, String> captureLockNameAndReference(CSharpParser.Member_declaratorContext ctx) {
+	@SuppressWarnings("unchecked")
+	public void loadSourceFile(MapleDeadlockSourceFile sourceFile) {
+		ReaderEvent[] events = ReaderEvent.values();
+
+		for(int i = 0; i < sourceFile.getEventCount(); i++) {
+			Object[] args = sourceFile.getEventArgs(i);
+
+			switch(events[sourceFile.getEventType(i)]) {
+			case PACKAGE_PATH:
+				currentPackageName.push((String) args[0]);
+				break;
+
+			case COMPILATION_UNIT:
+				processCompilationUnit();
+				break;
+
+			case NAMESPACE:
+				currentPackageName.push((String) args[0]);
+				break;
+
+			case NAMESPACE_EXIT:
+				currentPackageName.pop();
+				break;
+
+			case USING:
+				currentImportList.addAll((List<String>) args[0]);
+				break;
+
+			case MEMBER_MODIFIERS:
+				currentAbstract = (Boolean) args[0];
+				break;
+
+			case TYPE_ARGUMENTS:
+				processTypeArgumentList((List<String>) args[0]);
+				break;
+
+			case CLASS:
+				processClassDefinition((String) args[0], (List<String>) args[1]);
+				break;
+
+			case CLASS_EXIT:
+				processClassDefinitionExit();
+				break;
+
+			case ENUM:
+				processEnumDefinition((String) args[0], (List<String>) args[1]);
+				break;
+
+			case INTERFACE:
+				processInterfaceDefinition((String) args[0], (List<String>) args[1]);
+				break;
+
+			case INTERFACE_EXIT:
+				processInterfaceDefinitionExit();
+				break;
+
+			case INTERFACE_MEMBER:
+				processInterfaceMember((String) args[0], (String) args[1]);
+				break;
+
+			case METHOD:
+				processMethodDeclaration((String) args[0], (String) args[1], (String) args[2], (List<String[]>) args[3]);
+				break;
+
+			case METHOD_EXIT:
+				processMethodDeclarationExit((Boolean) args[0]);
+				break;
+
+			case PROPERTY:
+				processPropertyDeclaration((String) args[0], (String) args[1]);
+				break;
+
+			case LAMBDA:
+				processLambdaExpression((List<String[]>) args[0]);
+				break;
+
+			case LOCAL_FUNCTION:
+				processLocalFunctionDeclaration((String) args[0], (String) args[1], (List<String[]>) args[2]);
+				break;
+
+			case CONSTRUCTOR:
+				processConstructorDeclaration((String) args[0], (List<String[]>) args[1]);
+				break;
+
+			case CONSTRUCTOR_EXIT:
+				processConstructorDeclarationExit();
+				break;
+
+			case VARIABLES:
+				processVariableDeclarations((Boolean) args[0], (String) args[1], (List<String>) args[2]);
+				break;
+
+			case LOCK:
+				processLockStatement((MapleDeadlockExpression) args[0], true);
+				break;
+
+			case LOCK_EXIT:
+				processLockStatement((MapleDeadlockExpression) args[0], false);
+				break;
+
+			case EVENT:
+				processEventDeclaration();
+				break;
+
+			case EVENT_EXIT:
+				mapleRunnableMethods.add(methodStack.pop());
+				break;
+
+			case LOCAL_VARIABLE:
+				processLocalVariableDeclaratorId((String) args[0], (String) args[1], methodStack.peek());
+				break;
+
+			case ELEMENT_VALUE_PAIR:
+				processElementValuePair((String) args[0], (String) args[1]);
+				break;
+
+			case METHOD_CALL:
+				processMethodCall((MapleDeadlockExpression) args[0]);
+				break;
+			}
+		}
+	}
+
+	private Pair<String, String> captureLockNameAndReference(CSharpParser.Member_declaratorContext ctx) {
 		String name = "_", reference = "_";
 
 		CSharpParser.IdentifierContext c1 = ctx.identifier();
@@ -880,7 +1073,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return null;
 	}
 
-	public static void processLock(MapleDeadlockClass mdc, String typeText, String name, String reference) {
+	private void processLock(MapleDeadlockClass mdc, String typeText, String name, String reference) {
 		boolean isRead = typeText.contains("Read");
 		boolean isWrite = typeText.contains("Write");
 
@@ -935,18 +1128,18 @@ public class CSharpReader extends CSharpParserBaseListener {
                 mdc.addFieldVariable(0, name);
 	}
 
-	public static MapleDeadlockLock instanceNewLock(String lockName) {
-		return new MapleDeadlockLock(runningId.getAndIncrement(), lockName);
+	private MapleDeadlockLock instanceNewLock(String lockName) {
+		return storage.newLock(lockName);
 	}
 
-	private static MapleDeadlockClass getPublicClass(String packageName, String className) {
+	private MapleDeadlockClass getPublicClass(String packageName, String className) {
 		MapleDeadlockClass mdc = maplePublicClasses.get(packageName).get(className);
 
 		//if(mdc == null) System.out.println("FAILED TO FIND PUBLIC '" + className + "' @ '" + packageName + "'");
 		return mdc;
 	}
 
-	private static MapleDeadlockClass getPrivateClass(String packageName, String className) {
+	private MapleDeadlockClass getPrivateClass(String packageName, String className) {
 		//System.out.println("trying " + packageName + " on " + className);
 		Map<String, MapleDeadlockClass> m = maplePrivateClasses.get(packageName);
 		MapleDeadlockClass mdc = (m != null) ? m.get(className) : null;
@@ -969,7 +1162,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return list;
 	}
 
-	private static boolean isEnumClass(String packageName, String className) {
+	private boolean isEnumClass(String packageName, String className) {
 		MapleDeadlockClass mdc = getPrivateClass(packageName, className);
 		if(mdc != null) {
 			return mdc.isEnum();
@@ -978,11 +1171,11 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return false;
 	}
 
-	private static void parseImportClass(MapleDeadlockClass mdc) {
+	private void parseImportClass(MapleDeadlockClass mdc) {
                 for(String s : mdc.getImportNames()) {
                         List<Pair<String, String>> p = new LinkedList<>();
                         
-                        String packName = MapleDeadlockStorage.getPublicPackageName(s + ".");
+                        String packName = storage.getPublicPackageName(s + ".");
                         if (packName != null) {
                                 while (packName != null) {
                                         p.add(new Pair<>(packName, "*"));
@@ -992,10 +1185,10 @@ public class CSharpReader extends CSharpParserBaseListener {
                                         
                                         s = s.substring(0, idx);
                                         
-                                        packName = MapleDeadlockStorage.getPublicPackageName(s + ".");
+                                        packName = storage.getPublicPackageName(s + ".");
                                 }
                         } else {
-                                Pair<String, String> ps = MapleDeadlockStorage.locateClassPath(s);
+                                Pair<String, String> ps = storage.locateClassPath(s);
                                 if (ps != null) p.add(ps);
                         }
                         
@@ -1045,7 +1238,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void parseImportClasses() {
+	private void parseImportClasses() {
 		for(Map<String, MapleDeadlockClass> mdp : maplePublicClasses.values()) {
 			for(MapleDeadlockClass mdc : mdp.values()) {
 				parseImportClass(mdc);
@@ -1055,7 +1248,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		for(Entry<String, Map<String, MapleDeadlockClass>> e : maplePrivateClasses.entrySet()) {
 			String pc = e.getKey();
 
-			Pair<String, String> p = MapleDeadlockStorage.locateClassPath(pc);
+			Pair<String, String> p = storage.locateClassPath(pc);
 			String packName = p.left;
 			String className = p.right;
 
@@ -1072,10 +1265,10 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void parseSuperClasses(Map<String, Map<String, MapleDeadlockClass>> classes) {
+	private void parseSuperClasses(Map<String, Map<String, MapleDeadlockClass>> classes) {
 		for(Map<String, MapleDeadlockClass> m : classes.values()) {
 			for(MapleDeadlockClass mdc : m.values()) {
-				MapleDeadlockClass mdc2 = MapleDeadlockStorage.locateClass(MapleDeadlockStorage.getNameFromCanonClass(mdc), mdc);
+				MapleDeadlockClass mdc2 = storage.locateClass(MapleDeadlockStorage.getNameFromCanonClass(mdc), mdc);
 
 				List<String> superNames = mdc.getSuperNameList();
 				for(String supName : superNames) {
@@ -1147,14 +1340,14 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return ret;
 	}
 
-	private static Integer filterDataType(Integer ret) {
+	private Integer filterDataType(Integer ret) {
 		Integer e = mapleElementalDataTypes.get(ret);
 		if(e != null) ret = e;
 
 		return ret;
 	}
 
-	private static Integer fetchDataType(String type, MapleDeadlockClass pc) {
+	private Integer fetchDataType(String type, MapleDeadlockClass pc) {
 		List<Integer> compoundType = new LinkedList<>();
 		String t = type;
 
@@ -1196,7 +1389,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		try {
 			targetClass = pc.getImport(t);
 			if (targetClass == null) {
-				String path = MapleDeadlockStorage.getPublicPackageName(pc);
+				String path = storage.getPublicPackageName(pc);
 				targetClass = maplePublicClasses.get(path).get(t);
 			}
 		} catch(NullPointerException e) {
@@ -1263,7 +1456,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		return ret;
 	}
 
-	private static Integer parseDataType(Integer volatileType) {
+	private Integer parseDataType(Integer volatileType) {
 		if(volatileType <= 0 && volatileType >= -1) {
 			return volatileType;
 		}
@@ -1272,11 +1465,11 @@ public class CSharpReader extends CSharpParserBaseListener {
 		String type = p.left;
 		if(type.contentEquals("void")) return -2;
 
-		Integer ret = fetchDataType(type, MapleDeadlockStorage.locateClass(p.right));
+		Integer ret = fetchDataType(type, storage.locateClass(p.right));
 		return ret;
 	}
 
-	private static void updateFunctionReferences(MapleDeadlockFunction f) {
+	private void updateFunctionReferences(MapleDeadlockFunction f) {
 		f.setReturn(parseDataType(f.getReturn()));
 
 		List<Integer> pList = f.getParameters();
@@ -1306,7 +1499,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void updatePackageReferences(Map<String, Map<String, MapleDeadlockClass>> packageClasses) {
+	private void updatePackageReferences(Map<String, Map<String, MapleDeadlockClass>> packageClasses) {
 		for(Map<String, MapleDeadlockClass> m : packageClasses.values()) {
 			for(MapleDeadlockClass mdc : m.values()) {
 				for(Entry<String, Integer> e : mdc.getFieldVariables().entrySet()) {
@@ -1326,7 +1519,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void parseDataTypes() {
+	private void parseDataTypes() {
 		runningTypeId.set(0);   // id 0 reserved for sync locks
 
 		instantiateElementalDataTypes();
@@ -1354,7 +1547,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		updatePackageReferences(maplePrivateClasses);
 	}
 
-	private static void linkElementalDataTypes(String link, String target) {
+	private void linkElementalDataTypes(String link, String target) {
 		Integer typeId = runningTypeId.getAndIncrement();
 
 		mapleBasicDataTypes.put(link, typeId);
@@ -1362,11 +1555,11 @@ public class CSharpReader extends CSharpParserBaseListener {
 		mapleLinkedDataNames.put(typeId, target);
 	}
 
-	private static void instantiateElementalDataType(String s) {
+	private void instantiateElementalDataType(String s) {
 		mapleBasicDataTypes.put(s, runningTypeId.getAndIncrement());
 	}
 
-	private static void instantiateIgnoredDataTypes() {
+	private void instantiateIgnoredDataTypes() {
 		Integer start = runningTypeId.get();
 
 		for(String s : MapleIgnoredTypes.getIgnoredTypes()) {
@@ -1376,7 +1569,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		storage.setIgnoredDataRange(new Pair<>(start, runningTypeId.get()));
 	}
 
-	private static void generateReflectedDataTypes() {
+	private void generateReflectedDataTypes() {
 		for(MapleReflectedTypes mrt : MapleReflectedTypes.getReflectedTypes()) {
 			Integer mrtId = mapleBasicDataTypes.get(mrt.getName());
 			Integer mrtDefReturn = mapleBasicDataTypes.get(mrt.getDefaultReturn());
@@ -1390,7 +1583,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void instantiateElementalDataTypes() {
+	private void instantiateElementalDataTypes() {
 		instantiateElementalDataType(syncLockTypeName);
 
 		// basic language types
@@ -1415,7 +1608,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		instantiateIgnoredDataTypes();
 	}
 
-	private static void generateElementalDataTypes() {
+	private void generateElementalDataTypes() {
 		mapleElementalTypes[0] = mapleBasicDataTypes.get("int");
 		mapleElementalTypes[1] = mapleBasicDataTypes.get("int");    // float, but let numbers have the same data reference for the sake of simplicity
 		mapleElementalTypes[2] = mapleBasicDataTypes.get("char");
@@ -1430,13 +1623,13 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void generateDereferencedDataTypes() {
+	private void generateDereferencedDataTypes() {
 		for(Entry<String, Integer> e : mapleBasicDataTypes.entrySet()) {
 			String s = e.getKey();
 
 			int c = countOccurrences(s, '[');
 			if(c > 0) {
-				MapleDeadlockClass targetClass = MapleDeadlockStorage.locatePublicClass(s.substring(0, s.indexOf('[')), null);
+				MapleDeadlockClass targetClass = storage.locatePublicClass(s.substring(0, s.indexOf('[')), null);
 				if (targetClass != null) {
 					String nameChanged = "";
 					for(int i = 0; i < c; i++) {
@@ -1461,7 +1654,7 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	public static void solvemapleRunnableFunctions() {
+	public void solvemapleRunnableFunctions() {
 		for(Entry<MapleDeadlockFunction, Boolean> runMdf : mapleRunnableFunctions.entrySet()) {
 			MapleDeadlockFunction mdf = runMdf.getKey();
 			updateFunctionReferences(mdf);
@@ -1475,21 +1668,51 @@ public class CSharpReader extends CSharpParserBaseListener {
 		}
 	}
 
-	private static void referenceCustomClasses() {
+	private void referenceCustomClasses() {
 		for (MapleDeadlockClass c : customClasses) {
-			MapleDeadlockClass sup = MapleDeadlockStorage.locateClass(c.getName(), c);
+			MapleDeadlockClass sup = storage.locateClass(c.getName(), c);
 			c.addSuper(sup);
 		}
 		customClasses.clear();
 	}
 
-	private static void referencemapleReadWritemapleLocks() {
+	private void referencemapleReadWritemapleLocks() {
 		for (Entry<String, MapleDeadlockLock> e : mapleReadWritemapleLocks.entrySet()) {
 			mapleLocks.put(e.getKey(), e.getValue());
 		}
 	}
 
-	public static MapleDeadlockStorage compileProjectData() {
+	public void resetProjectData() {
+		// drops all the loaded project data, so the source files can be loaded once again
+		storage.clearProjectData();
+		mapleRunnableFunctions.clear();
+
+		runningSyncLockId.set(0);
+		runningTypeId.set(1);
+
+		methodStack.clear();
+		classStack.clear();
+
+		readLockWaitingSet.clear();
+		writeLockWaitingSet.clear();
+
+		readLockQueue.clear();
+		writeLockQueue.clear();
+
+		mapleLinkedDataNames.clear();
+
+		currentImportList.clear();
+		currentPackageName.clear();
+		currentCompleteFileClassName = null;
+		currentClass = null;
+		customClasses.clear();
+		currentAbstract = false;
+
+		volatileMaskedTypes.clear();
+		volatileDataTypes.clear();
+	}
+
+	public MapleDeadlockStorage compileProjectData() {
 		parseImportClasses();
 
 		parseSuperClasses(maplePublicClasses);
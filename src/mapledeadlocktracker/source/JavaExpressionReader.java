@@ -0,0 +1,208 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.source;
+
+import language.java.JavaParser;
+import mapledeadlocktracker.containers.MapleDeadlockExpression;
+import mapledeadlocktracker.containers.MapleDeadlockExpression.Kind;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class JavaExpressionReader extends MapleDeadlockExpressionReader {
+
+	private JavaExpressionReader(JavaParser.ExpressionContext root) {
+		super(root);
+	}
+
+	public static MapleDeadlockExpression readExpression(JavaParser.ExpressionContext ctx) {
+		return new JavaExpressionReader(ctx).lowerExpression(ctx);
+	}
+
+	private static int getLiteralIndex(JavaParser.LiteralContext ctx) {
+		if(ctx.integerLiteral() != null) return 0;
+		if(ctx.floatLiteral() != null) return 1;
+		if(ctx.CHAR_LITERAL() != null) return 2;
+		if(ctx.STRING_LITERAL() != null) return 3;
+		if(ctx.BOOL_LITERAL() != null) return 4;
+		if(ctx.NULL_LITERAL() != null) return 7;
+
+		return -1;
+	}
+
+	private static int getPrimitiveIndex(JavaParser.PrimitiveTypeContext ctx) {
+		if(ctx.INT() != null || ctx.SHORT() != null || ctx.LONG() != null || ctx.BYTE() != null) return 0;
+		if(ctx.FLOAT() != null || ctx.DOUBLE() != null) return 1;
+		if(ctx.CHAR() != null) return 2;
+		if(ctx.BOOLEAN() != null) return 4;
+
+		return -2;
+	}
+
+	private void addArguments(MapleDeadlockExpression e, JavaParser.ExpressionListContext expList) {
+		if(expList != null) {
+			for(JavaParser.ExpressionContext exp : expList.expression()) {
+				e.addOperand(lowerExpression(exp));
+			}
+		}
+	}
+
+	private void addArrayInitializer(MapleDeadlockExpression e, JavaParser.ArrayInitializerContext ainiCtx) {
+		for(JavaParser.VariableInitializerContext var : ainiCtx.variableInitializer()) {
+			if(var.expression() != null) {
+				e.addOperand(lowerExpression(var.expression()));
+			} else if(var.arrayInitializer() != null) {
+				addArrayInitializer(e, var.arrayInitializer());
+			}
+		}
+	}
+
+	private MapleDeadlockExpression lowerMethodCall(JavaParser.ExpressionContext ctx, MapleDeadlockExpression receiver) {
+		JavaParser.MethodCallContext mcCtx = ctx.methodCall();
+
+		MapleDeadlockExpression e = newExpression(Kind.METHOD, ctx);
+		e.setReceiver(receiver);
+		e.setName(mcCtx.IDENTIFIER().getText());
+		addArguments(e, mcCtx.expressionList());
+
+		return e;
+	}
+
+	private MapleDeadlockExpression lowerBinary(Kind kind, JavaParser.ExpressionContext ctx, JavaParser.ExpressionContext left, JavaParser.ExpressionContext right) {
+		MapleDeadlockExpression e = newExpression(kind, ctx);
+		e.addOperand(lowerExpression(left));
+		e.addOperand(lowerExpression(right));
+
+		return e;
+	}
+
+	private MapleDeadlockExpression lowerCreator(JavaParser.ExpressionContext ctx) {
+		// inner expressions are kept only for the sake of filling the graph
+		MapleDeadlockExpression e = newExpression(Kind.NEW, ctx);
+
+		JavaParser.ClassCreatorRestContext cresCtx = ctx.creator().classCreatorRest();
+		if(cresCtx != null) {
+			addArguments(e, cresCtx.arguments().expressionList());
+		} else {
+			JavaParser.ArrayCreatorRestContext aresCtx = ctx.creator().arrayCreatorRest();
+
+			if(aresCtx != null) {
+				if(aresCtx.arrayInitializer() != null) {
+					addArrayInitializer(e, aresCtx.arrayInitializer());
+				}
+
+				for(JavaParser.ExpressionContext expr : aresCtx.expression()) {
+					e.addOperand(lowerExpression(expr));
+				}
+			}
+		}
+
+		JavaParser.CreatedNameContext nameCtx = ctx.creator().createdName();
+		if(nameCtx.primitiveType() == null) {
+			if(nameCtx.IDENTIFIER().size() == 1) {
+				e.setName(nameCtx.IDENTIFIER(0).getText());
+			}
+		} else {
+			e.setIndex(getPrimitiveIndex(nameCtx.primitiveType()));
+		}
+
+		return e;
+	}
+
+	private MapleDeadlockExpression lowerPrimary(JavaParser.ExpressionContext ctx) {
+		JavaParser.PrimaryContext priCtx = ctx.primary();
+
+		MapleDeadlockExpression e;
+		if(priCtx.IDENTIFIER() != null) {
+			e = newExpression(Kind.NAME, ctx);
+			e.setName(priCtx.IDENTIFIER().getText());
+		} else if(priCtx.expression() != null) {
+			e = newExpression(Kind.PARENS, ctx);
+			e.addOperand(lowerExpression(priCtx.expression()));
+		} else if(priCtx.literal() != null) {
+			e = newExpression(Kind.LITERAL, ctx);
+			e.setIndex(getLiteralIndex(priCtx.literal()));
+		} else if(priCtx.THIS() != null) {
+			e = newExpression(Kind.THIS, ctx);
+		} else if(priCtx.CLASS() != null) {
+			e = newExpression(Kind.CLASS_LITERAL, ctx);
+		} else if(priCtx.SUPER() != null) {
+			e = newExpression(Kind.SUPER, ctx);
+		} else {
+			e = newExpression(Kind.OTHER, ctx);
+		}
+
+		return e;
+	}
+
+	private MapleDeadlockExpression lowerExpression(JavaParser.ExpressionContext ctx) {
+		MapleDeadlockExpression e;
+
+		if(ctx.bop != null) {
+			String bopText = ctx.bop.getText();
+
+			if(bopText.contentEquals(".")) {
+				MapleDeadlockExpression receiver = lowerExpression(ctx.expression(0));
+
+				if(ctx.THIS() != null) {
+					e = newExpression(Kind.OUTER_THIS, ctx);
+				} else if(ctx.methodCall() != null) {
+					return lowerMethodCall(ctx, receiver);
+				} else if(ctx.IDENTIFIER() != null) {
+					e = newExpression(Kind.MEMBER, ctx);
+					e.setName(ctx.IDENTIFIER().getText());
+				} else {
+					e = newExpression(Kind.SUFFIX, ctx);
+				}
+
+				e.setReceiver(receiver);
+			} else if(bopText.contentEquals("+")) {
+				e = lowerBinary(Kind.CONCAT, ctx, ctx.expression(0), ctx.expression(1));
+			} else if(bopText.contentEquals("-") || bopText.contentEquals("*") || bopText.contentEquals("/") || bopText.contentEquals("%") || bopText.contentEquals("&") || bopText.contentEquals("^") || bopText.contentEquals("|")) {
+				e = lowerBinary(Kind.ARITHMETIC, ctx, ctx.expression(0), ctx.expression(1));
+			} else if(bopText.contentEquals("?")) {
+				e = lowerBinary(Kind.CONDITIONAL, ctx, ctx.expression(1), ctx.expression(2));
+			} else if(ctx.expression().size() == 2 || ctx.typeType() != null) {  // boolean-type expression
+				e = newExpression(Kind.BOOLEAN, ctx);
+			} else {
+				e = newExpression(Kind.OTHER, ctx);
+			}
+		} else if(ctx.prefix != null || ctx.postfix != null) {
+			if(ctx.prefix != null && ctx.prefix.getText().contentEquals("!")) {
+				e = newExpression(Kind.BOOLEAN, ctx);
+			} else {
+				e = newExpression(Kind.UNARY, ctx);
+				e.addOperand(lowerExpression(ctx.expression(0)));
+			}
+		} else if(ctx.getChild(ctx.getChildCount() - 1).getText().contentEquals("]")) {
+			e = newExpression(Kind.INDEX, ctx);
+			e.addOperand(lowerExpression(ctx.expression(0)));
+		} else if(ctx.primary() != null) {
+			e = lowerPrimary(ctx);
+		} else if(ctx.getChildCount() == 4 && ctx.getChild(ctx.getChildCount() - 2).getText().contentEquals(")")) {   // '(' typeType ')' expression
+			e = newExpression(Kind.CAST, ctx);
+			e.setName(ctx.typeType().getText());
+			e.addOperand(lowerExpression(ctx.expression(0)));
+		} else if(ctx.NEW() != null) {
+			e = lowerCreator(ctx);
+		} else if(ctx.methodCall() != null) {
+			e = lowerMethodCall(ctx, null);
+		} else if(ctx.expression().size() == 2) {    // expression ('<' '<' | '>' '>' '>' | '>' '>') expression
+			e = newExpression(Kind.SHIFT, ctx);
+		} else {
+			e = newExpression(Kind.OTHER, ctx);
+		}
+
+		return e;
+	}
+}
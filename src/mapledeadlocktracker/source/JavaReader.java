@@ -15,6 +15,7 @@ import mapledeadlocktracker.MapleDeadlockGraphMaker;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -23,22 +24,21 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import language.java.JavaLexer;
 import language.java.JavaParser;
 import language.java.JavaParserBaseListener;
 import mapledeadlocktracker.containers.MapleDeadlockClass;
 import mapledeadlocktracker.containers.MapleDeadlockClass.DeadlockClassType;
 import mapledeadlocktracker.containers.MapleDeadlockEnum;
+import mapledeadlocktracker.containers.MapleDeadlockExpression;
 import mapledeadlocktracker.containers.MapleDeadlockFunction;
 import mapledeadlocktracker.containers.MapleDeadlockLock;
+import mapledeadlocktracker.containers.MapleDeadlockSourceFile;
 import mapledeadlocktracker.containers.MapleDeadlockStorage;
 import mapledeadlocktracker.containers.Pair;
 import mapledeadlocktracker.graph.MapleDeadlockAbstractType;
 import mapledeadlocktracker.strings.MapleIgnoredTypes;
 import mapledeadlocktracker.strings.MapleLinkedTypes;
 import mapledeadlocktracker.strings.MapleReflectedTypes;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 
 /**
@@ -46,63 +46,84 @@ import org.antlr.v4.runtime.ParserRuleContext;
  * @author RonanLana
  */
 public class JavaReader extends JavaParserBaseListener {
-	private static MapleDeadlockStorage storage = new MapleDeadlockStorage();
-	private static String syncLockTypeName = "SynchLock";
+	private MapleDeadlockStorage storage = new MapleDeadlockStorage();
+	private String syncLockTypeName = "SynchLock";
 
 	// ---- cached storage fields ----
-	private static Map<String, Map<String, MapleDeadlockClass>> maplePublicClasses = storage.getPublicClasses();
-	private static Map<String, Map<String, MapleDeadlockClass>> maplePrivateClasses = storage.getPrivateClasses();
+	private Map<String, Map<String, MapleDeadlockClass>> maplePublicClasses = storage.getPublicClasses();
+	private Map<String, Map<String, MapleDeadlockClass>> maplePrivateClasses = storage.getPrivateClasses();
 
-	private static Map<String, MapleDeadlockLock> mapleLocks = storage.getLocks();
-	private static Map<String, MapleDeadlockLock> mapleReadWriteLocks = storage.getReadWriteLocks();
+	private Map<String, MapleDeadlockLock> mapleLocks = storage.getLocks();
+	private Map<String, MapleDeadlockLock> mapleReadWriteLocks = storage.getReadWriteLocks();
 
-	private static Map<MapleDeadlockClass, Integer> mapleClassDataTypes = storage.getClassDataTypes();
-	private static Map<List<Integer>, Integer> mapleCompoundDataTypes = storage.getCompoundDataTypes();
-	private static Map<String, Integer> mapleBasicDataTypes = storage.getBasicDataTypes();
-	private static Map<Integer, Integer> mapleElementalDataTypes = storage.getElementalDataTypes();
-	private static Integer[] mapleElementalTypes = storage.getElementalTypes();
+	private Map<MapleDeadlockClass, Integer> mapleClassDataTypes = storage.getClassDataTypes();
+	private Map<List<Integer>, Integer> mapleCompoundDataTypes = storage.getCompoundDataTypes();
+	private Map<String, Integer> mapleBasicDataTypes = storage.getBasicDataTypes();
+	private Map<Integer, Integer> mapleElementalDataTypes = storage.getElementalDataTypes();
+	private Integer[] mapleElementalTypes = storage.getElementalTypes();
 
-	private static Map<MapleDeadlockClass, List<MapleDeadlockClass>> mapleInheritanceTree = storage.getInheritanceTree();
-	private static Map<Integer, Pair<Integer, Map<String, Integer>>> mapleReflectedClasses = storage.getReflectedClasses();
+	private Map<MapleDeadlockClass, List<MapleDeadlockClass>> mapleInheritanceTree = storage.getInheritanceTree();
+	private Map<Integer, Pair<Integer, Map<String, Integer>>> mapleReflectedClasses = storage.getReflectedClasses();
 
-	private static Map<MapleDeadlockFunction, Boolean> mapleRunnableFunctions = new HashMap<>();
-	private static Set<MapleDeadlockFunction> mapleRunnableMethods = storage.getRunnableMethods();
+	private Map<MapleDeadlockFunction, Boolean> mapleRunnableFunctions = new LinkedHashMap<>();   // keeps the file reading order
+	private Set<MapleDeadlockFunction> mapleRunnableMethods = storage.getRunnableMethods();
 
 	//private static Map<Integer, String> mapleCompoundDataNames = new HashMap();   // test purposes only
 
 	// ---- volatile fields ----
 
-	private static AtomicInteger runningId = new AtomicInteger(1);
-	private static AtomicInteger runningTypeId = new AtomicInteger(1);  // volatile id 0 reserved for sync locks
-	private static AtomicInteger runningMethodCallCount = new AtomicInteger(0);
+	private AtomicInteger runningTypeId = new AtomicInteger(1);  // volatile id 0 reserved for sync locks
 
-	private static Stack<Integer> methodCallCountStack = new Stack();
-	private static Stack<MapleDeadlockFunction> methodStack = new Stack();
-	private static List<MapleDeadlockClass> classStack = new ArrayList();
-	private static Stack<Integer> syncLockStack = new Stack();
+	private Stack<MapleDeadlockFunction> methodStack = new Stack();
+	private List<MapleDeadlockClass> classStack = new ArrayList();
+	private Stack<Integer> syncLockStack = new Stack();
 
-	private static Set<String> readLockWaitingSet = new HashSet();
-	private static Set<String> writeLockWaitingSet = new HashSet();
+	private Set<String> readLockWaitingSet = new HashSet();
+	private Set<String> writeLockWaitingSet = new HashSet();
 
-	private static Map<String, String> readLockQueue = new HashMap();
-	private static Map<String, String> writeLockQueue = new HashMap();
+	private Map<String, String> readLockQueue = new HashMap();
+	private Map<String, String> writeLockQueue = new HashMap();
 
-	private static Map<Integer, String> mapleLinkedDataNames = new HashMap();
+	private Map<Integer, String> mapleLinkedDataNames = new HashMap();
 
-	private static List<String> currentImportList = new ArrayList<>();
-	private static String absolutePath = null;
-	private static String currentPackageName;
-	private static String currentCompleteFileClassName;
-	private static MapleDeadlockClass currentClass = null;
-	private static List<MapleDeadlockClass> customClasses = new LinkedList<>();
-	private static boolean currentAbstract = false;
+	private List<String> currentImportList = new ArrayList<>();
+	private String absolutePath = null;
+	private String currentPackageName;
+	private String currentCompleteFileClassName;
+	private MapleDeadlockClass currentClass = null;
+	private List<MapleDeadlockClass> customClasses = new LinkedList<>();
+	private boolean currentAbstract = false;
 
-	private static Map<Integer, Pair<MapleDeadlockClass, Integer>> volatileMaskedTypes = new HashMap<>();
-	private static Map<Integer, Pair<String, String>> volatileDataTypes = new HashMap<>();  // cannot recover the import classes at the first parsing, so the type definition comes at the second rundown
+	private Map<Integer, Pair<MapleDeadlockClass, Integer>> volatileMaskedTypes = new HashMap<>();
+	private Map<Integer, Pair<String, String>> volatileDataTypes = new HashMap<>();  // cannot recover the import classes at the first parsing, so the type definition comes at the second rundown
+
+	// ---- file reading fields ----
+
+	private enum ReaderEvent {
+		COMPILATION_UNIT, IMPORT, PACKAGE, CLASS_BODY, CLASS_BODY_EXIT, INTERFACE_BODY, CREATOR, CREATOR_EXIT,
+		CLASS, CLASS_EXIT, ENUM, ENUM_CONSTANT, INTERFACE, INTERFACE_EXIT, INTERFACE_CONSTANT,
+		METHOD, METHOD_EXIT, CONSTRUCTOR, CONSTRUCTOR_EXIT, VARIABLES, LOCAL_VARIABLE, ELEMENT_VALUE_PAIR,
+		SYNCHRONIZED, SYNCHRONIZED_EXIT, LOCK_REFERENCE, METHOD_CALL
+	}
+
+	// a reader instance walks a single source file, only recording what is met there. The project-wide data is updated
+	// later, when the recorded events are loaded in file order, so several files can be read at the same time
+	private MapleDeadlockSourceFile sourceFile = new MapleDeadlockSourceFile();
+
+	private int runningMethodCallCount = 0;
+	private Stack<Integer> methodCallCountStack = new Stack();
+
+	private void addEvent(ReaderEvent event, Object... args) {
+		sourceFile.addEvent(event.ordinal(), args);
+	}
+
+	public MapleDeadlockSourceFile getSourceFile() {
+		return sourceFile;
+	}
 
 	@Override
 	public void enterCompilationUnit(JavaParser.CompilationUnitContext ctx) {
-		currentImportList.clear();
+		addEvent(ReaderEvent.COMPILATION_UNIT);
 	}
 
 	@Override
@@ -112,12 +133,12 @@ public class JavaReader extends JavaParserBaseListener {
 			s += ".*";
 		}
 
-		currentImportList.add(s);
+		addEvent(ReaderEvent.IMPORT, s);
 	}
 
 	@Override
 	public void enterPackageDeclaration(JavaParser.PackageDeclarationContext ctx) {
-		currentPackageName = ctx.qualifiedName().getText() + ".";
+		addEvent(ReaderEvent.PACKAGE, ctx.qualifiedName().getText() + ".");
 	}
 
 	@Override
@@ -125,22 +146,32 @@ public class JavaReader extends JavaParserBaseListener {
 
 	@Override
 	public void enterClassBodyDeclaration(JavaParser.ClassBodyDeclarationContext ctx) {
-		currentAbstract = false;
+		boolean isAbstract = false, isBlock = false;
 
 		if(ctx.memberDeclaration() != null) {
-			currentAbstract = hasAbstractModifier(ctx.modifier());
+			isAbstract = hasAbstractModifier(ctx.modifier());
 		} else if(ctx.block() != null) {
-			MapleDeadlockFunction method = new MapleDeadlockFunction("class", currentClass, null, false);
-
-			method.setMethodMetadata(-1, new LinkedList<Integer>(), new HashMap<Long, Integer>());
-			methodStack.add(method);
+			isBlock = true;
 		}
+
+		addEvent(ReaderEvent.CLASS_BODY, isAbstract, isBlock);
 	}
 
 	@Override
 	public void exitClassBodyDeclaration(JavaParser.ClassBodyDeclarationContext ctx) {
 		if(ctx.block() != null) {
-			methodStack.pop();
+			addEvent(ReaderEvent.CLASS_BODY_EXIT);
+		}
+	}
+
+	private void processClassBodyDeclaration(boolean isAbstract, boolean isBlock) {
+		currentAbstract = isAbstract;
+
+		if(isBlock) {
+			MapleDeadlockFunction method = new MapleDeadlockFunction("class", currentClass, null, false);
+
+			method.setMethodMetadata(-1, new LinkedList<Integer>(), new HashMap<Long, Integer>());
+			methodStack.add(method);
 		}
 	}
 
@@ -166,11 +197,7 @@ public class JavaReader extends JavaParserBaseListener {
 
 	@Override
 	public void enterInterfaceBodyDeclaration(JavaParser.InterfaceBodyDeclarationContext ctx) {
-		currentAbstract = false;
-
-		if(ctx.interfaceMemberDeclaration() != null) {
-			currentAbstract = hasAbstractModifier(ctx.modifier());
-		}
+		addEvent(ReaderEvent.INTERFACE_BODY, ctx.interfaceMemberDeclaration() != null && hasAbstractModifier(ctx.modifier()));
 	}
 
 	private boolean isAbstractTypeDeclaration(List<JavaParser.ClassOrInterfaceModifierContext> list) {
@@ -199,7 +226,7 @@ public class JavaReader extends JavaParserBaseListener {
 		return list;
 	}
 
-	private static String getPathName(String className) {
+	private String getPathName(String className) {
 		String path = "";
 
 		for(MapleDeadlockClass mdc : classStack) {
@@ -213,69 +240,56 @@ public class JavaReader extends JavaParserBaseListener {
 	@Override
 	public void enterCreator(JavaParser.CreatorContext ctx) {
 		if (ctx.createdName().IDENTIFIER().size() > 0 && ctx.classCreatorRest() != null && ctx.classCreatorRest().classBody() != null) {
-			String className = ctx.createdName().IDENTIFIER().get(0).getText();
-			className = className + "_" + (customClasses.size() + 1);
-
-			classStack.add(currentClass);
-
-			List<String> supNames = new LinkedList<>();
-			supNames.add(currentClass.getName());
-
-			currentClass = new MapleDeadlockClass(DeadlockClassType.CLASS, className, currentPackageName, getPathName(className), supNames, false, currentClass);
-			customClasses.add(currentClass);
-
-			mapleInheritanceTree.put(currentClass, new LinkedList<>());
+			addEvent(ReaderEvent.CREATOR, ctx.createdName().IDENTIFIER().get(0).getText());
 		}
 	}
 
 	@Override
 	public void exitCreator(JavaParser.CreatorContext ctx) {
 		if (ctx.createdName().IDENTIFIER().size() > 0 && ctx.classCreatorRest() != null && ctx.classCreatorRest().classBody() != null) {
-			String fcn = currentCompleteFileClassName;
-
-			if (maplePrivateClasses.containsKey(fcn)) {
-				maplePrivateClasses.get(fcn).put(currentClass.getPathName(), currentClass);
-			} else {
-				maplePrivateClasses.put(fcn, newPackageClass(currentClass.getPathName(), currentClass));
-			}
-
-			MapleDeadlockClass mdc = currentClass;
-			currentClass = classStack.remove(classStack.size() - 1);
-			currentClass.addPrivateClass(mdc.getName(), mdc);
+			addEvent(ReaderEvent.CREATOR_EXIT);
 		}
 	}
 
 	@Override
 	public void enterInnerCreator(JavaParser.InnerCreatorContext ctx) {
 		if (ctx.classCreatorRest() != null && ctx.classCreatorRest().classBody() != null) {
-			String className = ctx.IDENTIFIER().getText();
-			className = className + "_" + (customClasses.size() + 1);
-			classStack.add(currentClass);
-
-			List<String> supNames = new LinkedList<>();
-			supNames.add(currentClass.getName());
-
-			currentClass = new MapleDeadlockClass(DeadlockClassType.CLASS, className, currentPackageName, getPathName(className), supNames, false, currentClass);
-			customClasses.add(currentClass);
-
-			mapleInheritanceTree.put(currentClass, new LinkedList<>());
+			addEvent(ReaderEvent.CREATOR, ctx.IDENTIFIER().getText());
 		}
 	}
 
 	@Override
 	public void exitInnerCreator(JavaParser.InnerCreatorContext ctx) {
 		if (ctx.classCreatorRest() != null && ctx.classCreatorRest().classBody() != null) {
-			String fcn = currentCompleteFileClassName;
-			if (maplePrivateClasses.containsKey(fcn)) {
-				maplePrivateClasses.get(fcn).put(currentClass.getPathName(), currentClass);
-			} else {
-				maplePrivateClasses.put(fcn, newPackageClass(currentClass.getPathName(), currentClass));
-			}
+			addEvent(ReaderEvent.CREATOR_EXIT);
+		}
+	}
 
-			MapleDeadlockClass mdc = currentClass;
-			currentClass = classStack.remove(classStack.size() - 1);
-			currentClass.addPrivateClass(mdc.getName(), mdc);
+	private void processCreator(String className) {
+		className = className + "_" + (customClasses.size() + 1);
+		classStack.add(currentClass);
+
+		List<String> supNames = new LinkedList<>();
+		supNames.add(currentClass.getName());
+
+		currentClass = new MapleDeadlockClass(DeadlockClassType.CLASS, className, currentPackageName, getPathName(className), supNames, false, currentClass);
+		customClasses.add(currentClass);
+
+		mapleInheritanceTree.put(currentClass, new LinkedList<>());
+	}
+
+	private void processCreatorExit() {
+		String fcn = currentCompleteFileClassName;
+
+		if (maplePrivateClasses.containsKey(fcn)) {
+			maplePrivateClasses.get(fcn).put(currentClass.getPathName(), currentClass);
+		} else {
+			maplePrivateClasses.put(fcn, newPackageClass(currentClass.getPathName(), currentClass));
 		}
+
+		MapleDeadlockClass mdc = currentClass;
+		currentClass = classStack.remove(classStack.size() - 1);
+		currentClass.addPrivateClass(mdc.getName(), mdc);
 	}
 
 	@Override
@@ -296,6 +310,24 @@ public class JavaReader extends JavaParserBaseListener {
 			isAbstract = isAbstractTypeDeclaration(ltdc.classOrInterfaceModifier());
 		}
 
+		List<String> maskNames = new LinkedList<>();
+
+		JavaParser.TypeParametersContext maskCtx = ctx.typeParameters();
+		if(maskCtx != null) {
+			for(JavaParser.TypeParameterContext typC : maskCtx.typeParameter()) {
+				maskNames.add(typC.getText());
+			}
+		}
+
+		addEvent(ReaderEvent.CLASS, className, isAbstract, superNames, maskNames);
+	}
+
+	@Override
+	public void exitClassDeclaration(JavaParser.ClassDeclarationContext ctx) {
+		addEvent(ReaderEvent.CLASS_EXIT);
+	}
+
+	private void processClassDeclaration(String className, boolean isAbstract, List<String> superNames, List<String> maskNames) {
 		if(currentClass != null) {
 			classStack.add(currentClass);
 			currentClass = new MapleDeadlockClass(DeadlockClassType.CLASS, className, currentPackageName, getPathName(className), superNames, isAbstract, currentClass);
@@ -306,19 +338,15 @@ public class JavaReader extends JavaParserBaseListener {
 
 		mapleInheritanceTree.put(currentClass, new LinkedList<>());
 
-		JavaParser.TypeParametersContext maskCtx = ctx.typeParameters();
-		if(maskCtx != null) {
-			for(JavaParser.TypeParameterContext typC : maskCtx.typeParameter()) {
-				Integer mType = getTypeId(typC.getText(), currentCompleteFileClassName);
+		for(String maskName : maskNames) {
+			Integer mType = getTypeId(maskName, currentCompleteFileClassName);
 
-				volatileMaskedTypes.put(mType, new Pair<>(currentClass, currentClass.getMaskedTypeSize()));
-				currentClass.addMaskedType(mType);
-			}
+			volatileMaskedTypes.put(mType, new Pair<>(currentClass, currentClass.getMaskedTypeSize()));
+			currentClass.addMaskedType(mType);
 		}
 	}
 
-	@Override
-	public void exitClassDeclaration(JavaParser.ClassDeclarationContext ctx) {
+	private void processClassDeclarationExit() {
 		if(classStack.isEmpty()) {
 			for(String s : currentImportList) {
 				currentClass.addImport(s);
@@ -353,6 +381,15 @@ public class JavaReader extends JavaParserBaseListener {
 		JavaParser.TypeListContext implemented = ctx.typeList();    // from rule "(IMPLEMENTS typeList)?"
 		List<String> superNames = getExtendedImplementedList(null, implemented);
 
+		addEvent(ReaderEvent.ENUM, className, superNames);
+	}
+
+	@Override
+	public void exitEnumDeclaration(JavaParser.EnumDeclarationContext ctx) {
+		addEvent(ReaderEvent.CLASS_EXIT);
+	}
+
+	private void processEnumDeclaration(String className, List<String> superNames) {
 		if(currentClass != null) {
 			classStack.add(currentClass);
 			currentClass = new MapleDeadlockEnum(className, currentPackageName, getPathName(className), superNames, currentClass);
@@ -364,39 +401,9 @@ public class JavaReader extends JavaParserBaseListener {
 		mapleInheritanceTree.put(currentClass, new LinkedList<>());
 	}
 
-	@Override
-	public void exitEnumDeclaration(JavaParser.EnumDeclarationContext ctx) {
-		if(classStack.isEmpty()) {
-			for(String s : currentImportList) {
-				currentClass.addImport(s);
-			}
-
-			if(maplePublicClasses.containsKey(currentPackageName)) {
-				maplePublicClasses.get(currentPackageName).put(currentClass.getPathName(), currentClass);
-			} else {
-				maplePublicClasses.put(currentPackageName, newPackageClass(currentClass.getPathName(), currentClass));
-			}
-
-			currentClass = null;
-		} else {
-			String fcn = currentCompleteFileClassName;
-
-			if(maplePrivateClasses.containsKey(fcn)) {
-				maplePrivateClasses.get(fcn).put(getPathName(currentClass.getName()), currentClass);
-			} else {
-				maplePrivateClasses.put(fcn, newPackageClass(getPathName(currentClass.getName()), currentClass));
-			}
-
-			MapleDeadlockClass mdc = currentClass;
-			currentClass = classStack.remove(classStack.size() - 1);
-			currentClass.addPrivateClass(mdc.getName(), mdc);
-		}
-	}
-
 	@Override
 	public void enterEnumConstant(JavaParser.EnumConstantContext ctx) {
-		MapleDeadlockEnum mde = (MapleDeadlockEnum) currentClass;
-		mde.addEnumItem(ctx.IDENTIFIER().getText());
+		addEvent(ReaderEvent.ENUM_CONSTANT, ctx.IDENTIFIER().getText());
 	}
 
 	@Override
@@ -406,6 +413,15 @@ public class JavaReader extends JavaParserBaseListener {
 		JavaParser.TypeListContext extended = ctx.typeList();    // from rule "(EXTENDS typeList)?"
 		List<String> superNames = getExtendedImplementedList(null, extended);
 
+		addEvent(ReaderEvent.INTERFACE, className, superNames);
+	}
+
+	@Override
+	public void exitInterfaceDeclaration(JavaParser.InterfaceDeclarationContext ctx) {
+		addEvent(ReaderEvent.INTERFACE_EXIT);
+	}
+
+	private void processInterfaceDeclaration(String className, List<String> superNames) {
 		if(currentClass != null) {
 			classStack.add(currentClass);
 			currentClass = new MapleDeadlockClass(DeadlockClassType.INTERFACE, className, currentPackageName, getPathName(className), superNames, true, currentClass);
@@ -417,8 +433,7 @@ public class JavaReader extends JavaParserBaseListener {
 		mapleInheritanceTree.put(currentClass, new LinkedList<>());
 	}
 
-	@Override
-	public void exitInterfaceDeclaration(JavaParser.InterfaceDeclarationContext ctx) {
+	private void processInterfaceDeclarationExit() {
 		if(classStack.isEmpty()) {
 			for(String s : currentImportList) {
 				currentClass.addImport(s);
@@ -432,17 +447,7 @@ public class JavaReader extends JavaParserBaseListener {
 
 			currentClass = null;
 		} else {
-			String fcn = currentCompleteFileClassName;
-
-			if(maplePrivateClasses.containsKey(fcn)) {
-				maplePrivateClasses.get(fcn).put(currentClass.getPathName(), currentClass);
-			} else {
-				maplePrivateClasses.put(fcn, newPackageClass(currentClass.getPathName(), currentClass));
-			}
-
-			MapleDeadlockClass mdc = currentClass;
-			currentClass = classStack.remove(classStack.size() - 1);
-			currentClass.addPrivateClass(mdc.getName(), mdc);
+			processCreatorExit();
 		}
 	}
 
@@ -451,18 +456,25 @@ public class JavaReader extends JavaParserBaseListener {
 		JavaParser.ConstDeclarationContext cdCtx = ctx.constDeclaration();
 
 		if(cdCtx != null) {
-			List<JavaParser.ConstantDeclaratorContext> cdList = cdCtx.constantDeclarator();
-			String typeText = cdCtx.typeType().getText();
+			List<String[]> constList = new LinkedList<>();
 
-			for(JavaParser.ConstantDeclaratorContext cd : cdList) {
+			for(JavaParser.ConstantDeclaratorContext cd : cdCtx.constantDeclarator()) {
 				String curText = cd.getText();
 				curText = curText.substring(0, curText.indexOf('='));
 
-				String tt = getFullTypeText(typeText, curText);
-				Integer type = getTypeId(tt, currentCompleteFileClassName);
-
-				currentClass.addFieldVariable(type, cd.IDENTIFIER().getText());
+				constList.add(new String[]{curText, cd.IDENTIFIER().getText()});
 			}
+
+			addEvent(ReaderEvent.INTERFACE_CONSTANT, cdCtx.typeType().getText(), constList);
+		}
+	}
+
+	private void processInterfaceConstants(String typeText, List<String[]> constList) {
+		for(String[] cd : constList) {
+			String tt = getFullTypeText(typeText, cd[0]);
+			Integer type = getTypeId(tt, currentCompleteFileClassName);
+
+			currentClass.addFieldVariable(type, cd[1]);
 		}
 	}
 
@@ -475,20 +487,38 @@ public class JavaReader extends JavaParserBaseListener {
 
 	@Override
 	public void enterMethodDeclaration(JavaParser.MethodDeclarationContext ctx) {
-		String methodName = ctx.IDENTIFIER().getText();
+		addEvent(ReaderEvent.METHOD, ctx.IDENTIFIER().getText(), ctx.typeTypeOrVoid().getText(), getFormalParameters(ctx.formalParameters()), hasEllipsis(ctx.formalParameters()));
+
+		methodCallCountStack.add(runningMethodCallCount);
+		runningMethodCallCount = 0;
+	}
 
+	@Override
+	public void exitMethodDeclaration(JavaParser.MethodDeclarationContext ctx) {
+		JavaParser.ClassBodyDeclarationContext par;
+		if(ctx.getParent() instanceof JavaParser.MemberDeclarationContext) {
+			par = (JavaParser.ClassBodyDeclarationContext) ctx.getParent().getParent();
+		} else {
+			par = (JavaParser.ClassBodyDeclarationContext) ctx.getParent().getParent().getParent();
+		}
+
+		List<JavaParser.ModifierContext> mods = par.modifier();
+		addEvent(ReaderEvent.METHOD_EXIT, mods != null && hasSynchronizedModifier(mods));
+
+		runningMethodCallCount = methodCallCountStack.pop();
+	}
+
+	private void processMethodDeclaration(String methodName, String retTypeText, List<String[]> params, boolean ellipsis) {
 		MapleDeadlockFunction method = new MapleDeadlockFunction(methodName, currentClass, methodStack.isEmpty() ? null : methodStack.peek(), currentAbstract);
-		Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> retParamTypes = getMethodMetadata(ctx, method);
 
-		method.setMethodMetadata(retParamTypes.left, retParamTypes.right.left, retParamTypes.right.right);
-		methodStack.add(method);
+		Integer type = getTypeId(retTypeText, currentCompleteFileClassName);
+		Pair<List<Integer>, Map<Long, Integer>> pTypes = getMethodParameterTypes(params, ellipsis, method);
 
-		methodCallCountStack.add(runningMethodCallCount.get());
-		runningMethodCallCount.set(0);
+		method.setMethodMetadata(type, pTypes.left, pTypes.right);
+		methodStack.add(method);
 	}
 
-	@Override
-	public void exitMethodDeclaration(JavaParser.MethodDeclarationContext ctx) {
+	private void processMethodDeclarationExit(boolean isSynchronized) {
 		MapleDeadlockFunction method = methodStack.pop();
 
 		String methodName = method.getName();
@@ -497,89 +527,87 @@ public class JavaReader extends JavaParserBaseListener {
 
 			mapleRunnableFunctions.put(method, !methodStack.isEmpty());
 		} else {
-			JavaParser.ClassBodyDeclarationContext par;
-			if(ctx.getParent() instanceof JavaParser.MemberDeclarationContext) {
-				par = (JavaParser.ClassBodyDeclarationContext) ctx.getParent().getParent();
-			} else {
-				par = (JavaParser.ClassBodyDeclarationContext) ctx.getParent().getParent().getParent();
-			}
-
-			List<JavaParser.ModifierContext> mods = par.modifier();
-
-			if(mods != null && hasSynchronizedModifier(mods)) {
+			if(isSynchronized) {
 				String syncLockName = MapleDeadlockGraphMaker.getSyncLockName();
 
 				currentClass.addFieldVariable(0, syncLockName);
 				processLock(syncLockTypeName, syncLockName, "");   // create a lock representation of the synchronized modifier
-				method.setSynchronizedModifier(generateSyncLockExpression(syncLockName, true), generateSyncLockExpression(syncLockName, false));
+				method.setSynchronizedModifier(MapleDeadlockExpression.newSyncLockCall(syncLockName, true), MapleDeadlockExpression.newSyncLockCall(syncLockName, false));
 			}
 
 			currentClass.addClassMethod(method);
 		}
-
-		runningMethodCallCount.set(methodCallCountStack.pop());
 	}
 
 	@Override
 	public void enterConstructorDeclaration(JavaParser.ConstructorDeclarationContext ctx) {
-		String methodName = ctx.IDENTIFIER().getText();
+		addEvent(ReaderEvent.CONSTRUCTOR, ctx.IDENTIFIER().getText(), getFormalParameters(ctx.formalParameters()), hasEllipsis(ctx.formalParameters()));
+	}
 
+	@Override
+	public void exitConstructorDeclaration(JavaParser.ConstructorDeclarationContext ctx) {
+		addEvent(ReaderEvent.CONSTRUCTOR_EXIT);
+	}
+
+	private void processConstructorDeclaration(String methodName, List<String[]> params, boolean ellipsis) {
 		MapleDeadlockFunction method = new MapleDeadlockFunction(methodName, currentClass, null, false);
-		Pair<List<Integer>, Map<Long, Integer>> pTypes = getMethodParameterTypes(ctx.formalParameters(), method);
+		Pair<List<Integer>, Map<Long, Integer>> pTypes = getMethodParameterTypes(params, ellipsis, method);
 
 		method.setMethodMetadata(-1, pTypes.left, pTypes.right);
 		methodStack.add(method);
 	}
 
-	@Override
-	public void exitConstructorDeclaration(JavaParser.ConstructorDeclarationContext ctx) {
-		MapleDeadlockFunction method = methodStack.pop();
-		currentClass.addClassMethod(method);
-	}
-
 	@Override
 	public void enterFieldDeclaration(JavaParser.FieldDeclarationContext ctx) {
-		processVariableDeclarations(true, ctx.typeType().getText(), ctx.variableDeclarators().variableDeclarator());
+		String typeText = ctx.typeType().getText();
+		addEvent(ReaderEvent.VARIABLES, true, typeText, getVariableDeclarators(typeText, ctx.variableDeclarators().variableDeclarator()));
 	}
 
 	@Override
 	public void enterLocalVariableDeclaration(JavaParser.LocalVariableDeclarationContext ctx) {
-		processVariableDeclarations(false, ctx.typeType().getText(), ctx.variableDeclarators().variableDeclarator());
+		String typeText = ctx.typeType().getText();
+		addEvent(ReaderEvent.VARIABLES, false, typeText, getVariableDeclarators(typeText, ctx.variableDeclarators().variableDeclarator()));
 	}
 
 	@Override
 	public void enterEnhancedForControl(JavaParser.EnhancedForControlContext ctx) {
-		processLocalVariableDeclaratorId(ctx.typeType().getText(), ctx.variableDeclaratorId(), methodStack.peek());
+		JavaParser.VariableDeclaratorIdContext vi = ctx.variableDeclaratorId();
+		addEvent(ReaderEvent.LOCAL_VARIABLE, ctx.typeType().getText(), vi.getText(), vi.IDENTIFIER().getText());
 	}
 
 	@Override
 	public void enterResource(JavaParser.ResourceContext ctx) {
-		processLocalVariableDeclaratorId(ctx.classOrInterfaceType().getText(), ctx.variableDeclaratorId(), methodStack.peek());
+		JavaParser.VariableDeclaratorIdContext vi = ctx.variableDeclaratorId();
+		addEvent(ReaderEvent.LOCAL_VARIABLE, ctx.classOrInterfaceType().getText(), vi.getText(), vi.IDENTIFIER().getText());
 	}
 
 	@Override
 	public void enterCatchClause(JavaParser.CatchClauseContext ctx) {
 		// ctx.catchType().getText(), but generalize all possible types to the basic Exception one
 
-		processLocalVariableDeclaratorId("Exception", ctx.IDENTIFIER().getText(), methodStack.peek());
+		addEvent(ReaderEvent.LOCAL_VARIABLE, "Exception", "", ctx.IDENTIFIER().getText());
 	}
 
 
 	@Override
 	public void enterElementValuePair(JavaParser.ElementValuePairContext ctx) {
-		String lockName = currentPackageName + currentClass.getPathName() + "." + ctx.IDENTIFIER().getText();
+		JavaParser.ExpressionContext expr = ctx.elementValue().expression();
+		addEvent(ReaderEvent.ELEMENT_VALUE_PAIR, ctx.IDENTIFIER().getText(), expr != null ? captureLockName(expr) : null);
+	}
+
+	private void processElementValuePair(String identifier, String reference) {
+		String lockName = currentPackageName + currentClass.getPathName() + "." + identifier;
 
 		if(!readLockWaitingSet.isEmpty() || !writeLockWaitingSet.isEmpty()) {
 			if(readLockWaitingSet.contains(lockName)) {
-				processLock("ReadLock1", ctx.IDENTIFIER().getText(), captureLockName(ctx.elementValue().expression()));
+				processLock("ReadLock1", identifier, reference);
 			} else if(writeLockWaitingSet.contains(lockName)) {
-				processLock("WriteLock1", ctx.IDENTIFIER().getText(), captureLockName(ctx.elementValue().expression()));
+				processLock("WriteLock1", identifier, reference);
 			}
 		}
 	}
         
-	private static String getSyncLockNameFromExpression(JavaParser.ParExpressionContext parCtx, int methodId) {
-                String fieldName = parCtx.expression().getText();
+	private String getSyncLockNameFromExpression(String fieldName, int methodId) {
                 String lockName = MapleDeadlockGraphMaker.getSyncLockName(fieldName, methodId);
                 
                 Integer t = currentClass.getFieldVariable(lockName);
@@ -590,36 +618,15 @@ public class JavaReader extends JavaParserBaseListener {
                 return lockName;
 	}
 
-	private static JavaParser.ExpressionContext generateSyncLockExpression(String syncLockName, boolean lock) {
-		String lockStrExpr = syncLockName + "." + (lock ? "lock" : "unlock") + "();";
-		JavaLexer lexer = new JavaLexer(CharStreams.fromString(lockStrExpr));
-		CommonTokenStream commonTokenStream = new CommonTokenStream(lexer);
-		JavaParser parser = new JavaParser(commonTokenStream);
-
-		return parser.expression();
-	}
-
 	@Override
 	public void enterStatement(JavaParser.StatementContext ctx) {
 		if(ctx.SYNCHRONIZED() != null) {
-			String syncLockName = getSyncLockNameFromExpression(ctx.parExpression(), methodStack.peek().getId());
-
-			currentClass.addFieldVariable(0, syncLockName);
-			processLock(syncLockTypeName, syncLockName, "");   // create a lock representation of the synchronized modifier
-			methodStack.peek().addMethodCall(generateSyncLockExpression(syncLockName, true));
+			addEvent(ReaderEvent.SYNCHRONIZED, ctx.parExpression().expression().getText());
 		} else {
                         Pair<String, String> lockData = captureLockNameAndReference(ctx.expression(0));
 
 			if(lockData != null) {
-				String refName = currentPackageName + currentClass.getPathName() + "." + lockData.right;
-
-				if(!readLockWaitingSet.isEmpty() || !writeLockWaitingSet.isEmpty()) {
-					if(readLockWaitingSet.contains(refName)) {
-						processLock("ReadLock2", lockData.left, lockData.right);
-					} else if(writeLockWaitingSet.contains(refName)) {
-						processLock("WriteLock2", lockData.left, lockData.right);
-					}
-				}
+				addEvent(ReaderEvent.LOCK_REFERENCE, lockData.left, lockData.right);
 			}
 		}
 	}
@@ -627,21 +634,45 @@ public class JavaReader extends JavaParserBaseListener {
 	@Override
 	public void exitStatement(JavaParser.StatementContext ctx) {
 		if(ctx.SYNCHRONIZED() != null) {
-			String syncLockName = getSyncLockNameFromExpression(ctx.parExpression(), methodStack.peek().getId());
-			methodStack.peek().addMethodCall(generateSyncLockExpression(syncLockName, false));
+			addEvent(ReaderEvent.SYNCHRONIZED_EXIT, ctx.parExpression().expression().getText());
+		}
+	}
+
+	private void processSynchronizedStatement(String fieldName) {
+		String syncLockName = getSyncLockNameFromExpression(fieldName, methodStack.peek().getId());
+
+		currentClass.addFieldVariable(0, syncLockName);
+		processLock(syncLockTypeName, syncLockName, "");   // create a lock representation of the synchronized modifier
+		methodStack.peek().addMethodCall(MapleDeadlockExpression.newSyncLockCall(syncLockName, true));
+	}
+
+	private void processSynchronizedStatementExit(String fieldName) {
+		String syncLockName = getSyncLockNameFromExpression(fieldName, methodStack.peek().getId());
+		methodStack.peek().addMethodCall(MapleDeadlockExpression.newSyncLockCall(syncLockName, false));
+	}
+
+	private void processLockReference(String name, String reference) {
+		String refName = currentPackageName + currentClass.getPathName() + "." + reference;
+
+		if(!readLockWaitingSet.isEmpty() || !writeLockWaitingSet.isEmpty()) {
+			if(readLockWaitingSet.contains(refName)) {
+				processLock("ReadLock2", name, reference);
+			} else if(writeLockWaitingSet.contains(refName)) {
+				processLock("WriteLock2", name, reference);
+			}
 		}
 	}
 
 	@Override
 	public void enterMethodCall(JavaParser.MethodCallContext ctx) {
-		runningMethodCallCount.incrementAndGet();
+		runningMethodCallCount++;
 	}
 
 	@Override
 	public void exitMethodCall(JavaParser.MethodCallContext ctx) {
-		int count = runningMethodCallCount.decrementAndGet();
+		int count = --runningMethodCallCount;
 
-		if(count == 0 && !methodStack.isEmpty()) {
+		if(count == 0) {
 			ParserRuleContext parCtx = ctx.getParent().getParent();
 
 			if(parCtx instanceof JavaParser.StatementContext) {
@@ -649,13 +680,13 @@ public class JavaReader extends JavaParserBaseListener {
 				addMethodsFromExpressionList(sc.expression());
 			} else if(parCtx instanceof JavaParser.ParExpressionContext) {
 				JavaParser.ParExpressionContext pc = (JavaParser.ParExpressionContext) parCtx;
-				methodStack.peek().addMethodCall(pc.expression());
+				addEvent(ReaderEvent.METHOD_CALL, JavaExpressionReader.readExpression(pc.expression()));
 			} else if(parCtx instanceof JavaParser.ExpressionContext) {
 				JavaParser.ExpressionContext ec = (JavaParser.ExpressionContext) parCtx;
 				addMethodsFromExpressionList(ec.expression());
 			} else if(parCtx instanceof JavaParser.VariableInitializerContext) {
 				JavaParser.VariableInitializerContext vic = (JavaParser.VariableInitializerContext) parCtx;
-				methodStack.peek().addMethodCall(vic.expression());
+				addEvent(ReaderEvent.METHOD_CALL, JavaExpressionReader.readExpression(vic.expression()));
 			}
 		}
 	}
@@ -672,50 +703,58 @@ public class JavaReader extends JavaParserBaseListener {
 		return false;
 	}
 
-	private static void addMethodsFromExpressionList(List<JavaParser.ExpressionContext> list) {
-		MapleDeadlockFunction mdf = methodStack.peek();
-
+	private void addMethodsFromExpressionList(List<JavaParser.ExpressionContext> list) {
 		for(JavaParser.ExpressionContext exp : list) {
 			if(exp.methodCall() != null || hasMethodCall(exp)) {
-				mdf.addMethodCall(exp);
+				addEvent(ReaderEvent.METHOD_CALL, JavaExpressionReader.readExpression(exp));
 			}
 		}
 	}
 
-	private static Pair<Integer, Pair<List<Integer>, Map<Long, Integer>>> getMethodMetadata(JavaParser.MethodDeclarationContext ctx, MapleDeadlockFunction method) {
-		Integer type = getTypeId(ctx.typeTypeOrVoid().getText(), currentCompleteFileClassName);
-		Pair<List<Integer>, Map<Long, Integer>> params = getMethodParameterTypes(ctx.formalParameters(), method);
-
-		return new Pair<>(type, params);
+	private void processMethodCall(MapleDeadlockExpression ctx) {
+		if(!methodStack.isEmpty()) {
+			methodStack.peek().addMethodCall(ctx);
+		}
 	}
 
-	private static Pair<List<Integer>, Map<Long, Integer>> getMethodParameterTypes(JavaParser.FormalParametersContext ctx, MapleDeadlockFunction method) {
-		Map<Long, Integer> params = new HashMap<>();
-		List<Integer> pTypes = new LinkedList<>();
+	private static List<String[]> getFormalParameters(JavaParser.FormalParametersContext ctx) {
+		List<String[]> params = new LinkedList<>();
 
 		JavaParser.FormalParameterListContext pList = ctx.formalParameterList();
 		if(pList != null) {
 			for(JavaParser.FormalParameterContext fp : pList.formalParameter()) {
-				String tt = getFullTypeText(fp.typeType().getText(), fp.variableDeclaratorId().getText());
-				int typeId = getTypeId(tt, currentCompleteFileClassName);
-				pTypes.add(typeId);
-
-				Long val = method.addLocalVariable(typeId, fp.variableDeclaratorId().IDENTIFIER().getText());
-				params.put(val, typeId);
+				params.add(new String[]{fp.typeType().getText(), fp.variableDeclaratorId().getText(), fp.variableDeclaratorId().IDENTIFIER().getText()});
 			}
 
 			if(pList.lastFormalParameter() != null) {
 				JavaParser.LastFormalParameterContext lfp = pList.lastFormalParameter();
+				params.add(new String[]{lfp.typeType().getText(), lfp.variableDeclaratorId().getText(), lfp.variableDeclaratorId().IDENTIFIER().getText()});
+			}
+		}
 
-				String tt = getFullTypeText(lfp.typeType().getText(), lfp.variableDeclaratorId().getText());
-				int typeId = getTypeId(tt, currentCompleteFileClassName);
-				pTypes.add(typeId);
+		return params;
+	}
 
-				Long val = method.addLocalVariable(typeId, lfp.variableDeclaratorId().IDENTIFIER().getText());
-				params.put(val, typeId);
+	private static boolean hasEllipsis(JavaParser.FormalParametersContext ctx) {
+		JavaParser.FormalParameterListContext pList = ctx.formalParameterList();
+		return pList != null && pList.lastFormalParameter() != null;
+	}
 
-				method.setEllipsis(true);
-			}
+	private Pair<List<Integer>, Map<Long, Integer>> getMethodParameterTypes(List<String[]> paramList, boolean ellipsis, MapleDeadlockFunction method) {
+		Map<Long, Integer> params = new HashMap<>();
+		List<Integer> pTypes = new LinkedList<>();
+
+		for(String[] fp : paramList) {
+			String tt = getFullTypeText(fp[0], fp[1]);
+			int typeId = getTypeId(tt, currentCompleteFileClassName);
+			pTypes.add(typeId);
+
+			Long val = method.addLocalVariable(typeId, fp[2]);
+			params.put(val, typeId);
+		}
+
+		if(ellipsis) {
+			method.setEllipsis(true);
 		}
 
 		return new Pair<>(pTypes, params);
@@ -742,53 +781,59 @@ public class JavaReader extends JavaParserBaseListener {
 		return tt;
 	}
 
-	private static void processFieldVariableDeclarations(String typeText, List<JavaParser.VariableDeclaratorContext> vdList) {
+	private static List<String[]> getVariableDeclarators(String typeText, List<JavaParser.VariableDeclaratorContext> vdList) {
+		List<String[]> list = new LinkedList<>();
+
 		for(JavaParser.VariableDeclaratorContext vd : vdList) {
-			JavaParser.VariableDeclaratorIdContext vi = vd.variableDeclaratorId();
-			String tt = getFullTypeText(typeText, vi.getText());
-			int type = getTypeId(tt, currentCompleteFileClassName);
+			String refLock = null;
 
-			currentClass.addFieldVariable(type, vi.IDENTIFIER().getText());
+			if(typeText.contains("Lock")) {
+				JavaParser.VariableInitializerContext vi = vd.variableInitializer();
+				if(vi != null) {
+					refLock = captureLockName(vi.expression());
+				}
+			}
+
+			JavaParser.VariableDeclaratorIdContext vdi = vd.variableDeclaratorId();
+			list.add(new String[]{vdi.getText(), vdi.IDENTIFIER().getText(), refLock});
 		}
+
+		return list;
 	}
 
-	private static void processLocalVariableDeclarations(String typeText, List<JavaParser.VariableDeclaratorContext> vdList, MapleDeadlockFunction method) {
-		for(JavaParser.VariableDeclaratorContext vd : vdList) {
-			processLocalVariableDeclaratorId(typeText, vd.variableDeclaratorId(), method);
+	private void processFieldVariableDeclarations(String typeText, List<String[]> vdList) {
+		for(String[] vd : vdList) {
+			String tt = getFullTypeText(typeText, vd[0]);
+			int type = getTypeId(tt, currentCompleteFileClassName);
+
+			currentClass.addFieldVariable(type, vd[1]);
 		}
 	}
 
-	private static void processLocalVariableDeclaratorId(String typeText, JavaParser.VariableDeclaratorIdContext vi, MapleDeadlockFunction method) {
-		String tt = getFullTypeText(typeText, vi.getText());    
-		int type = getTypeId(tt, currentCompleteFileClassName);
-
-		method.addLocalVariable(type, vi.IDENTIFIER().getText());
+	private void processLocalVariableDeclarations(String typeText, List<String[]> vdList, MapleDeadlockFunction method) {
+		for(String[] vd : vdList) {
+			processLocalVariableDeclaratorId(typeText, vd[0], vd[1], method);
+		}
 	}
 
-	private static void processLocalVariableDeclaratorId(String typeText, String identifier, MapleDeadlockFunction method) {
-		int type = getTypeId(typeText, currentCompleteFileClassName);
+	private void processLocalVariableDeclaratorId(String typeText, String declaratorText, String identifier, MapleDeadlockFunction method) {
+		String tt = getFullTypeText(typeText, declaratorText);
+		int type = getTypeId(tt, currentCompleteFileClassName);
 
 		method.addLocalVariable(type, identifier);
 	}
 
-	private static Integer getTypeId(String type, String fileClass) {
+	private Integer getTypeId(String type, String fileClass) {
 		Integer t = runningTypeId.getAndIncrement();
 		volatileDataTypes.put(t, new Pair<>(type, fileClass));
 
 		return t;
 	}
 
-	private static void processVariableDeclarations(boolean isFieldVar, String typeText, List<JavaParser.VariableDeclaratorContext> vdList) {
+	private void processVariableDeclarations(boolean isFieldVar, String typeText, List<String[]> vdList) {
 		if(typeText.contains("Lock")) {
-			for(JavaParser.VariableDeclaratorContext vd : vdList) {
-				String refLock = null;
-
-				JavaParser.VariableInitializerContext vi = vd.variableInitializer();
-				if(vi != null) {
-					refLock = captureLockName(vi.expression());
-				}
-
-				processLock(typeText, vd.variableDeclaratorId().getText(), refLock);
+			for(String[] vd : vdList) {
+				processLock(typeText, vd[0], vd[2]);
 			}
 		}
 
@@ -796,7 +841,122 @@ public class JavaReader extends JavaParserBaseListener {
 		else processLocalVariableDeclarations(typeText, vdList, methodStack.peek());
 	}
 
-	private static Pair<String, String> captureLockNameAndReference(JavaParser.ExpressionContext ctx) {
+	@SuppressWarnings("unchecked")
+	public void loadSourceFile(MapleDeadlockSourceFile sourceFile) {
+		ReaderEvent[] events = ReaderEvent.values();
+
+		for(int i = 0; i < sourceFile.getEventCount(); i++) {
+			Object[] args = sourceFile.getEventArgs(i);
+
+			switch(events[sourceFile.getEventType(i)]) {
+			case COMPILATION_UNIT:
+				currentImportList.clear();
+				break;
+
+			case IMPORT:
+				currentImportList.add((String) args[0]);
+				break;
+
+			case PACKAGE:
+				currentPackageName = (String) args[0];
+				break;
+
+			case CLASS_BODY:
+				processClassBodyDeclaration((Boolean) args[0], (Boolean) args[1]);
+				break;
+
+			case CLASS_BODY_EXIT:
+				methodStack.pop();
+				break;
+
+			case INTERFACE_BODY:
+				currentAbstract = (Boolean) args[0];
+				break;
+
+			case CREATOR:
+				processCreator((String) args[0]);
+				break;
+
+			case CREATOR_EXIT:
+				processCreatorExit();
+				break;
+
+			case CLASS:
+				processClassDeclaration((String) args[0], (Boolean) args[1], (List<String>) args[2], (List<String>) args[3]);
+				break;
+
+			case CLASS_EXIT:
+				processClassDeclarationExit();
+				break;
+
+			case ENUM:
+				processEnumDeclaration((String) args[0], (List<String>) args[1]);
+				break;
+
+			case ENUM_CONSTANT:
+				((MapleDeadlockEnum) currentClass).addEnumItem((String) args[0]);
+				break;
+
+			case INTERFACE:
+				processInterfaceDeclaration((String) args[0], (List<String>) args[1]);
+				break;
+
+			case INTERFACE_EXIT:
+				processInterfaceDeclarationExit();
+				break;
+
+			case INTERFACE_CONSTANT:
+				processInterfaceConstants((String) args[0], (List<String[]>) args[1]);
+				break;
+
+			case METHOD:
+				processMethodDeclaration((String) args[0], (String) args[1], (List<String[]>) args[2], (Boolean) args[3]);
+				break;
+
+			case METHOD_EXIT:
+				processMethodDeclarationExit((Boolean) args[0]);
+				break;
+
+			case CONSTRUCTOR:
+				processConstructorDeclaration((String) args[0], (List<String[]>) args[1], (Boolean) args[2]);
+				break;
+
+			case CONSTRUCTOR_EXIT:
+				currentClass.addClassMethod(methodStack.pop());
+				break;
+
+			case VARIABLES:
+				processVariableDeclarations((Boolean) args[0], (String) args[1], (List<String[]>) args[2]);
+				break;
+
+			case LOCAL_VARIABLE:
+				processLocalVariableDeclaratorId((String) args[0], (String) args[1], (String) args[2], methodStack.peek());
+				break;
+
+			case ELEMENT_VALUE_PAIR:
+				processElementValuePair((String) args[0], (String) args[1]);
+				break;
+
+			case SYNCHRONIZED:
+				processSynchronizedStatement((String) args[0]);
+				break;
+
+			case SYNCHRONIZED_EXIT:
+				processSynchronizedStatementExit((String) args[0]);
+				break;
+
+			case LOCK_REFERENCE:
+				processLockReference((String) args[0], (String) args[1]);
+				break;
+
+			case METHOD_CALL:
+				processMethodCall((MapleDeadlockExpression) args[0]);
+				break;
+			}
+		}
+	}
+
+	private Pair<String, String> captureLockNameAndReference(JavaParser.ExpressionContext ctx) {
 		if(ctx == null) return null;
 
 		String name, reference;
@@ -841,7 +1001,7 @@ public class JavaReader extends JavaParserBaseListener {
 		return "";
 	}
 
-	private static void processLock(String typeText, String name, String reference) {
+	private void processLock(String typeText, String name, String reference) {
 		boolean isRead = typeText.contains("Read");
 		boolean isWrite = typeText.contains("Write");
                 
@@ -896,18 +1056,18 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static MapleDeadlockLock instanceNewLock(String lockName) {
-		return new MapleDeadlockLock(runningId.getAndIncrement(), lockName);
+	private MapleDeadlockLock instanceNewLock(String lockName) {
+		return storage.newLock(lockName);
 	}
 
-	private static MapleDeadlockClass getPublicClass(String packageName, String className) {
+	private MapleDeadlockClass getPublicClass(String packageName, String className) {
 		MapleDeadlockClass mdc = maplePublicClasses.get(packageName).get(className);
 
 		//if(mdc == null) System.out.println("FAILED TO FIND PUBLIC '" + className + "' @ '" + packageName + "'");
 		return mdc;
 	}
 
-	private static MapleDeadlockClass getPrivateClass(String packageName, String className) {
+	private MapleDeadlockClass getPrivateClass(String packageName, String className) {
 		//System.out.println("trying " + packageName + " on " + className);
 		Map<String, MapleDeadlockClass> m = maplePrivateClasses.get(packageName);
 		MapleDeadlockClass mdc = (m != null) ? m.get(className) : null;
@@ -930,7 +1090,7 @@ public class JavaReader extends JavaParserBaseListener {
 		return list;
 	}
 
-	private static boolean isEnumClass(String packageName, String className) {
+	private boolean isEnumClass(String packageName, String className) {
 		MapleDeadlockClass mdc = getPrivateClass(packageName, className);
 		if(mdc != null) {
 			return mdc.isEnum();
@@ -939,9 +1099,9 @@ public class JavaReader extends JavaParserBaseListener {
 		return false;
 	}
 
-	private static void parseImportClass(MapleDeadlockClass mdc) {
+	private void parseImportClass(MapleDeadlockClass mdc) {
 		for(String s : mdc.getImportNames()) {
-			Pair<String, String> p = MapleDeadlockStorage.locateClassPath(s);
+			Pair<String, String> p = storage.locateClassPath(s);
 			if(p != null) {
 				String packageName = p.left;
 				String className = p.right;
@@ -988,7 +1148,7 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static void parseImportClasses() {
+	private void parseImportClasses() {
 		for(Map<String, MapleDeadlockClass> mdp : maplePublicClasses.values()) {
 			for(MapleDeadlockClass mdc : mdp.values()) {
 				parseImportClass(mdc);
@@ -998,7 +1158,7 @@ public class JavaReader extends JavaParserBaseListener {
 		for(Entry<String, Map<String, MapleDeadlockClass>> e : maplePrivateClasses.entrySet()) {
 			String pc = e.getKey();
 
-			Pair<String, String> p = MapleDeadlockStorage.locateClassPath(pc);
+			Pair<String, String> p = storage.locateClassPath(pc);
 			String packName = p.left;
 			String className = p.right;
 
@@ -1015,10 +1175,10 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static void parseSuperClasses(Map<String, Map<String, MapleDeadlockClass>> classes) {
+	private void parseSuperClasses(Map<String, Map<String, MapleDeadlockClass>> classes) {
 		for(Map<String, MapleDeadlockClass> m : classes.values()) {
 			for(MapleDeadlockClass mdc : m.values()) {
-				MapleDeadlockClass mdc2 = MapleDeadlockStorage.locateClass(MapleDeadlockStorage.getNameFromCanonClass(mdc), mdc);
+				MapleDeadlockClass mdc2 = storage.locateClass(MapleDeadlockStorage.getNameFromCanonClass(mdc), mdc);
 
 				List<String> superNames = mdc.getSuperNameList();
 				for(String supName : superNames) {
@@ -1090,14 +1250,14 @@ public class JavaReader extends JavaParserBaseListener {
 		return ret;
 	}
 
-	private static Integer filterDataType(Integer ret) {
+	private Integer filterDataType(Integer ret) {
 		Integer e = mapleElementalDataTypes.get(ret);
 		if(e != null) ret = e;
 
 		return ret;
 	}
 
-	private static Integer fetchDataType(String type, MapleDeadlockClass pc) {
+	private Integer fetchDataType(String type, MapleDeadlockClass pc) {
                 List<Integer> compoundType = new LinkedList<>();
 		String t = type;
 
@@ -1139,7 +1299,7 @@ public class JavaReader extends JavaParserBaseListener {
                 try {
 			targetClass = pc.getImport(t);
 			if (targetClass == null) {
-				String path = MapleDeadlockStorage.getPublicPackageName(pc);
+				String path = storage.getPublicPackageName(pc);
 				targetClass = maplePublicClasses.get(path).get(t);
 			}
 		} catch(NullPointerException e) {
@@ -1209,7 +1369,7 @@ public class JavaReader extends JavaParserBaseListener {
 		return ret;
 	}
 
-	private static Integer parseDataType(Integer volatileType) {
+	private Integer parseDataType(Integer volatileType) {
 		if(volatileType <= 0 && volatileType >= -1) {
 			return volatileType;
 		}
@@ -1218,11 +1378,11 @@ public class JavaReader extends JavaParserBaseListener {
 		String type = p.left;
 		if(type.contentEquals("void")) return -2;
 
-		Integer ret = fetchDataType(type, MapleDeadlockStorage.locateClass(p.right));
+		Integer ret = fetchDataType(type, storage.locateClass(p.right));
 		return ret;
 	}
 
-	private static void updateFunctionReferences(MapleDeadlockFunction f) {
+	private void updateFunctionReferences(MapleDeadlockFunction f) {
 		f.setReturn(parseDataType(f.getReturn()));
 
 		List<Integer> pList = f.getParameters();
@@ -1252,7 +1412,7 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static void updatePackageReferences(Map<String, Map<String, MapleDeadlockClass>> packageClasses) {
+	private void updatePackageReferences(Map<String, Map<String, MapleDeadlockClass>> packageClasses) {
 		for(Map<String, MapleDeadlockClass> m : packageClasses.values()) {
 			for(MapleDeadlockClass mdc : m.values()) {
 				for(Entry<String, Integer> e : mdc.getFieldVariables().entrySet()) {
@@ -1272,7 +1432,7 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static void parseDataTypes() {
+	private void parseDataTypes() {
 		runningTypeId.set(0);   // id 0 reserved for sync locks
 
 		instantiateElementalDataTypes();
@@ -1300,7 +1460,7 @@ public class JavaReader extends JavaParserBaseListener {
 		updatePackageReferences(maplePrivateClasses);
 	}
 
-	private static void linkElementalDataTypes(String link, String target) {
+	private void linkElementalDataTypes(String link, String target) {
 		Integer typeId = runningTypeId.getAndIncrement();
 
 		mapleBasicDataTypes.put(link, typeId);
@@ -1308,11 +1468,11 @@ public class JavaReader extends JavaParserBaseListener {
 		mapleLinkedDataNames.put(typeId, target);
 	}
 
-	private static void instantiateElementalDataType(String s) {
+	private void instantiateElementalDataType(String s) {
 		mapleBasicDataTypes.put(s, runningTypeId.getAndIncrement());
 	}
 
-	private static void instantiateIgnoredDataTypes() {
+	private void instantiateIgnoredDataTypes() {
 		Integer start = runningTypeId.get();
 
 		for(String s : MapleIgnoredTypes.getIgnoredTypes()) {
@@ -1322,7 +1482,7 @@ public class JavaReader extends JavaParserBaseListener {
 		storage.setIgnoredDataRange(new Pair<>(start, runningTypeId.get()));
 	}
 
-	private static void generateReflectedDataTypes() {
+	private void generateReflectedDataTypes() {
 		for(MapleReflectedTypes mrt : MapleReflectedTypes.getReflectedTypes()) {
 			Integer mrtId = mapleBasicDataTypes.get(mrt.getName());
 			Integer mrtDefReturn = mapleBasicDataTypes.get(mrt.getDefaultReturn());
@@ -1336,7 +1496,7 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static void instantiateElementalDataTypes() {
+	private void instantiateElementalDataTypes() {
 		instantiateElementalDataType(syncLockTypeName);
 
 		// basic language types
@@ -1361,7 +1521,7 @@ public class JavaReader extends JavaParserBaseListener {
 		instantiateIgnoredDataTypes();
 	}
 
-	private static void generateElementalDataTypes() {
+	private void generateElementalDataTypes() {
 		mapleElementalTypes[0] = mapleBasicDataTypes.get("int");
 		mapleElementalTypes[1] = mapleBasicDataTypes.get("int");    // float, but let numbers have the same data reference for the sake of simplicity
 		mapleElementalTypes[2] = mapleBasicDataTypes.get("char");
@@ -1376,13 +1536,13 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static void generateDereferencedDataTypes() {
+	private void generateDereferencedDataTypes() {
 		for(Entry<String, Integer> e : mapleBasicDataTypes.entrySet()) {
 			String s = e.getKey();
 
 			int c = countOccurrences(s, '[');
 			if(c > 0) {
-				MapleDeadlockClass targetClass = MapleDeadlockStorage.locatePublicClass(s.substring(0, s.indexOf('[')), null);
+				MapleDeadlockClass targetClass = storage.locatePublicClass(s.substring(0, s.indexOf('[')), null);
 				if (targetClass != null) {
 					String nameChanged = "";
 					for(int i = 0; i < c; i++) {
@@ -1407,7 +1567,7 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	public static void solvemapleRunnableFunctions() {
+	public void solvemapleRunnableFunctions() {
 		for(Entry<MapleDeadlockFunction, Boolean> runMdf : mapleRunnableFunctions.entrySet()) {
 			MapleDeadlockFunction mdf = runMdf.getKey();
 			updateFunctionReferences(mdf);
@@ -1421,21 +1581,52 @@ public class JavaReader extends JavaParserBaseListener {
 		}
 	}
 
-	private static void referenceCustomClasses() {
+	private void referenceCustomClasses() {
 		for (MapleDeadlockClass c : customClasses) {
-			MapleDeadlockClass sup = MapleDeadlockStorage.locateClass(c.getName(), c);
+			MapleDeadlockClass sup = storage.locateClass(c.getName(), c);
 			c.addSuper(sup);
 		}
 		customClasses.clear();
 	}
 
-	private static void referenceReadWritemapleLocks() {
+	private void referenceReadWritemapleLocks() {
 		for (Entry<String, MapleDeadlockLock> e : mapleReadWriteLocks.entrySet()) {
 			mapleLocks.put(e.getKey(), e.getValue());
 		}
 	}
 
-	public static MapleDeadlockStorage compileProjectData() {
+	public void resetProjectData() {
+		// drops all the loaded project data, so the source files can be loaded once again
+		storage.clearProjectData();
+		mapleRunnableFunctions.clear();
+
+		runningTypeId.set(1);
+
+		methodStack.clear();
+		classStack.clear();
+		syncLockStack.clear();
+
+		readLockWaitingSet.clear();
+		writeLockWaitingSet.clear();
+
+		readLockQueue.clear();
+		writeLockQueue.clear();
+
+		mapleLinkedDataNames.clear();
+
+		currentImportList.clear();
+		absolutePath = null;
+		currentPackageName = null;
+		currentCompleteFileClassName = null;
+		currentClass = null;
+		customClasses.clear();
+		currentAbstract = false;
+
+		volatileMaskedTypes.clear();
+		volatileDataTypes.clear();
+	}
+
+	public MapleDeadlockStorage compileProjectData() {
 		parseImportClasses();
 
 		parseSuperClasses(maplePublicClasses);
@@ -0,0 +1,66 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker.source;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import mapledeadlocktracker.containers.MapleDeadlockExpression;
+import mapledeadlocktracker.containers.MapleDeadlockExpression.Kind;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ *
+ * @author RonanLana
+ */
+public abstract class MapleDeadlockExpressionReader {
+
+	// lowers a call expression into its compact form, so the parse tree is no longer needed after the file reading
+	private final String source;
+	private final Map<Token, Integer> tokenOffsets = new IdentityHashMap<>();
+
+	protected MapleDeadlockExpressionReader(ParserRuleContext root) {
+		StringBuilder sb = new StringBuilder();
+		mapTokenOffsets(root, sb);
+
+		source = sb.toString();     // same as root.getText()
+	}
+
+	private void mapTokenOffsets(ParseTree tree, StringBuilder sb) {
+		if (tree instanceof TerminalNode) {
+			tokenOffsets.put(((TerminalNode) tree).getSymbol(), sb.length());
+			sb.append(tree.getText());
+		} else {
+			for (int i = 0; i < tree.getChildCount(); i++) {
+				mapTokenOffsets(tree.getChild(i), sb);
+			}
+		}
+	}
+
+	protected MapleDeadlockExpression newExpression(Kind kind, ParserRuleContext ctx) {
+		if (ctx == null) {
+			return new MapleDeadlockExpression(kind, "", 0, 0);
+		}
+
+		Integer start = tokenOffsets.get(ctx.start), stop = tokenOffsets.get(ctx.stop);
+		if (start != null && stop != null && stop >= start) {
+			return new MapleDeadlockExpression(kind, source, start, stop + ctx.stop.getText().length());
+		}
+
+		String text = ctx.getText();
+		return new MapleDeadlockExpression(kind, text, 0, text.length());
+	}
+}
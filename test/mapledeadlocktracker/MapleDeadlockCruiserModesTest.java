@@ -0,0 +1,208 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockCruiserModesTest {
+
+	// run with the tracker classes in the classpath, e.g. java -cp bin:lib/antlr4-runtime-4.7.1.jar mapledeadlocktracker.MapleDeadlockCruiserModesTest
+	private static final int PROJECT_CLASSES = 60;
+	private static final int PROJECT_SEEDS = 8;
+
+	private static final String REPORT_START = "Lock dependency:";
+
+	public static void main(String[] args) throws Exception {
+		int failures = 0;
+
+		for (int seed = 1; seed <= PROJECT_SEEDS; seed++) {
+			Path dir = Files.createTempDirectory("deadlocktracker");
+			try {
+				generateProject(dir, new Random(seed));
+
+				String serial = runTracker(dir, "cruiser_threads=1");
+				failures += compareReports(seed, "cruiser_threads=4", serial, runTracker(dir, "cruiser_threads=4"));
+				failures += compareReports(seed, "cruiser_threads=2", serial, runTracker(dir, "cruiser_threads=2"));
+
+				// a memoized walk is only skipped where it would go the same way, small memos just forget sooner
+				failures += compareReports(seed, "context_memo_size=65536", serial, runTracker(dir, "context_memo_size=65536"));
+				failures += compareReports(seed, "context_memo_size=4", serial, runTracker(dir, "context_memo_size=4"));
+				failures += compareReports(seed, "context_memo_size=65536, cruiser_threads=4", serial, runTracker(dir, "context_memo_size=65536", "cruiser_threads=4"));
+
+				// a budget that is never reached doesn't change the walk, only the order the independent entry groups are walked in
+				failures += compareReports(seed, "cruiser_node_limit=100000000", serial, runTracker(dir, "cruiser_node_limit=100000000"));
+				failures += compareReports(seed, "cruiser_entry_node_limit=1000000", serial, runTracker(dir, "cruiser_entry_node_limit=1000000"));
+				failures += compareReports(seed, "cruiser_node_limit=100000000, cruiser_threads=4", serial, runTracker(dir, "cruiser_node_limit=100000000", "cruiser_threads=4"));
+			} finally {
+				deleteProject(dir);
+			}
+		}
+
+		if (failures > 0) {
+			System.out.println(failures + " report(s) differ from the serial walk");
+			System.exit(1);
+		}
+
+		System.out.println("All reports match the serial walk");
+	}
+
+	private static int compareReports(int seed, String mode, String expected, String actual) {
+		if (expected.equals(actual)) {
+			System.out.println("seed " + seed + ", " + mode + ": same");
+			return 0;
+		}
+
+		System.out.println("seed " + seed + ", " + mode + ": DIFF");
+		System.out.println("---- expected");
+		System.out.println(expected);
+		System.out.println("---- actual");
+		System.out.println(actual);
+		return 1;
+	}
+
+	private static String runTracker(Path dir, String... modes) throws IOException, InterruptedException {
+		List<String> config = new ArrayList<>();
+		config.add("src_folder=src");
+		config.add("language=Java");
+		config.add("extensions=java");
+		config.add("entry_points=handlePacket,run");
+		config.add("cache_folder=");
+		config.addAll(Arrays.asList(modes));
+		Files.write(dir.resolve("config.cfg"), config, StandardCharsets.UTF_8);
+
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder pb = new ProcessBuilder(java, "-cp", getClassPath(), MapleDeadlockTracker.class.getName());
+		pb.directory(dir.toFile());
+		pb.redirectErrorStream(true);
+
+		Process p = pb.start();
+		String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		if (p.waitFor() != 0) {
+			throw new IOException("Tracker exited with " + p.exitValue() + ":\n" + out);
+		}
+
+		// the report, leaving out the timings and counters printed before it
+		int idx = out.indexOf(REPORT_START);
+		if (idx < 0) {
+			throw new IOException("No report in the tracker output:\n" + out);
+		}
+
+		return out.substring(idx);
+	}
+
+	private static String getClassPath() {
+		// the tracker runs from the project folder, so relative entries are resolved here
+		List<String> paths = new ArrayList<>();
+		for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			paths.add(new File(path).getAbsolutePath());
+		}
+
+		return String.join(File.pathSeparator, paths);
+	}
+
+	private static void generateProject(Path dir, Random r) throws IOException {
+		// classes in clusters of six calling each other, now and then a call into another cluster, locks are handed over through grab
+		Path src = dir.resolve("src").resolve("gen");
+		Files.createDirectories(src);
+
+		for (int i = 0; i < PROJECT_CLASSES; i++) {
+			List<Integer> pool = new ArrayList<>();
+			int base = (i / 6) * 6;
+			for (int j = base; j < Math.min(base + 6, PROJECT_CLASSES); j++) {
+				if (j != i) {
+					pool.add(j);
+				}
+			}
+
+			List<Integer> refs = new ArrayList<>();
+			for (int k = 0; k < 3; k++) {
+				refs.add(pool.remove(r.nextInt(pool.size())));
+			}
+			if (r.nextDouble() < 0.15) {
+				int j = r.nextInt(PROJECT_CLASSES - 1);
+				refs.add(j < i ? j : j + 1);
+			}
+
+			StringBuilder sb = new StringBuilder();
+			sb.append("package gen;\n\n");
+			sb.append("import java.util.concurrent.locks.Lock;\n");
+			sb.append("import java.util.concurrent.locks.ReentrantLock;\n\n");
+			sb.append("public class C").append(i).append(" {\n");
+			sb.append("    private final Lock lk = new ReentrantLock();\n");
+			sb.append("    private final Lock ax = new ReentrantLock();\n");
+			for (Integer j : refs) {
+				sb.append("    private C").append(j).append(" c").append(j).append(";\n");
+			}
+
+			sb.append("    public void grab() {\n        lk.lock();\n    }\n");
+			sb.append("    public void drop() {\n        lk.unlock();\n    }\n");
+			for (int m = 0; m < 3; m++) {
+				appendMethod(sb, "m" + m, refs, r);
+			}
+			appendMethod(sb, "run", refs, r);
+			if (r.nextBoolean()) {
+				appendMethod(sb, "handlePacket", refs, r);
+			}
+			sb.append("}\n");
+
+			Files.write(src.resolve("C" + i + ".java"), sb.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static void appendMethod(StringBuilder sb, String name, List<Integer> refs, Random r) {
+		sb.append("    public void ").append(name).append("() {\n");
+
+		int n = 1 + r.nextInt(3);
+		for (int s = 0; s < n; s++) {
+			double t = r.nextDouble();
+			String own = r.nextBoolean() ? "lk" : "ax";
+			String ref = "c" + refs.get(r.nextInt(refs.size()));
+
+			if (t < 0.45) {
+				sb.append("        ").append(own).append(".lock();\n");
+				sb.append("        ").append(ref).append(".grab();\n");
+				sb.append("        ").append(own).append(".unlock();\n");
+			} else if (t < 0.7) {
+				sb.append("        ").append(own).append(".lock();\n");
+				sb.append("        ").append(ref).append(".m").append(r.nextInt(3)).append("();\n");
+				sb.append("        ").append(own).append(".unlock();\n");
+			} else {
+				sb.append("        ").append(ref).append(".m").append(r.nextInt(3)).append("();\n");
+			}
+		}
+
+		sb.append("    }\n");
+	}
+
+	private static void deleteProject(Path dir) throws IOException {
+		try (Stream<Path> files = Files.walk(dir)) {
+			for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(p);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockLockTargetTest {
+
+	// run with the tracker classes in the classpath, e.g. java -cp bin:lib/antlr4-runtime-4.7.1.jar mapledeadlocktracker.MapleDeadlockLockTargetTest
+	private static final String REPORT_START = "Lock dependency:";
+	private static final String REPORT_END = "Dead Lock ids:";
+
+	// a locked field is the same lock whichever way it's written, the lock is named after the field on the class declaring it
+	private static final List<String> EXPECTED_LOCKS = Arrays.asList(
+			"Game.Locks.Alpha.synchLock_mutex_0 [Game.Locks.Alpha.synchLock_mutex_0, ]",
+			"Game.Locks.Beta.synchLock_guard_0 [Game.Locks.Beta.synchLock_guard_0, ]",
+			"Game.Locks.Alpha.synchLock_this_0 [Game.Locks.Alpha.synchLock_this_0, ]",
+			"Game.Locks.Alpha.synchLock_shared_0 [Game.Locks.Alpha.synchLock_shared_0, ]",
+			"Game.Locks.Alpha.synchLock_Global_0 [Game.Locks.Alpha.synchLock_Global_0, ]");
+
+	private static final String ALPHA_SOURCE =
+			"using System;\n\n" +
+			"namespace Game.Locks\n{\n" +
+			"    public class Alpha\n    {\n" +
+			"        private readonly object mutex = new object();\n" +
+			"        public readonly object shared = new object();\n" +
+			"        private static readonly object Global = new object();\n" +
+			"        private Beta beta;\n" +
+			"        private int count;\n\n" +
+			"        public void handlePacket()\n        {\n" +
+			"            lock (mutex)\n            {\n                count++;\n                beta.Work(this);\n            }\n" +
+			"        }\n\n" +
+			"        public void Run()\n        {\n" +
+			"            lock (beta.guard)\n            {\n" +
+			"                lock (mutex)\n                {\n                    count--;\n                }\n" +
+			"            }\n" +
+			"            lock (this)\n            {\n                beta.Touch();\n            }\n" +
+			"            lock (this.shared)\n            {\n                count = 0;\n            }\n" +
+			"            lock (Alpha.Global)\n            {\n                count = 1;\n            }\n" +
+			"        }\n\n" +
+			"        public void Enter()\n        {\n" +
+			"            lock (shared)\n            {\n                count++;\n            }\n" +
+			"        }\n" +
+			"    }\n}\n";
+
+	private static final String BETA_SOURCE =
+			"using System;\n\n" +
+			"namespace Game.Locks\n{\n" +
+			"    public class Beta\n    {\n" +
+			"        public readonly object guard = new object();\n" +
+			"        private Alpha alpha;\n\n" +
+			"        public void Touch()\n        {\n" +
+			"            lock (guard)\n            {\n                alpha.Enter();\n            }\n" +
+			"        }\n\n" +
+			"        public void Work(Alpha a)\n        {\n" +
+			"            lock (guard)\n            {\n                a.Enter();\n            }\n" +
+			"        }\n\n" +
+			"        public void handlePacket()\n        {\n" +
+			"            lock (alpha.shared)\n            {\n" +
+			"                lock (guard)\n                {\n                    Touch();\n                }\n" +
+			"            }\n" +
+			"            Work(alpha);\n" +
+			"        }\n" +
+			"    }\n}\n";
+
+	public static void main(String[] args) throws Exception {
+		Path dir = Files.createTempDirectory("deadlocktracker");
+		try {
+			Path src = dir.resolve("Game").resolve("Locks");
+			Files.createDirectories(src);
+			Files.write(src.resolve("Alpha.cs"), ALPHA_SOURCE.getBytes(StandardCharsets.UTF_8));
+			Files.write(src.resolve("Beta.cs"), BETA_SOURCE.getBytes(StandardCharsets.UTF_8));
+
+			List<String> locks = runTracker(dir);
+			if (!locks.equals(EXPECTED_LOCKS)) {
+				System.out.println("Lock targets resolved to other locks");
+				System.out.println("---- expected");
+				EXPECTED_LOCKS.forEach(System.out::println);
+				System.out.println("---- actual");
+				locks.forEach(System.out::println);
+				System.exit(1);
+			}
+		} finally {
+			deleteProject(dir);
+		}
+
+		System.out.println("Each locked field maps to a single lock");
+	}
+
+	private static List<String> runTracker(Path dir) throws IOException, InterruptedException {
+		List<String> config = new ArrayList<>();
+		config.add("src_folder=../" + dir.getFileName() + "/Game");      // the C# reader takes the namespace folders after the source folder
+		config.add("language=C#");
+		config.add("extensions=cs");
+		config.add("entry_points=handlePacket,Run");
+		config.add("cache_folder=");
+		Files.write(dir.resolve("config.cfg"), config, StandardCharsets.UTF_8);
+
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder pb = new ProcessBuilder(java, "-cp", getClassPath(), MapleDeadlockTracker.class.getName());
+		pb.directory(dir.toFile());
+		pb.redirectErrorStream(true);
+
+		Process p = pb.start();
+		String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		if (p.waitFor() != 0) {
+			throw new IOException("Tracker exited with " + p.exitValue() + ":\n" + out);
+		}
+
+		int idx = out.indexOf(REPORT_START), end = out.indexOf(REPORT_END);
+		if (idx < 0 || end < idx) {
+			throw new IOException("No report in the tracker output:\n" + out);
+		}
+
+		List<String> locks = new ArrayList<>();
+		for (String line : out.substring(idx + REPORT_START.length(), end).split("\n")) {
+			if (!line.trim().isEmpty()) {
+				locks.add(line.trim());
+			}
+		}
+
+		return locks;
+	}
+
+	private static String getClassPath() {
+		// the tracker runs from the project folder, so relative entries are resolved here
+		List<String> paths = new ArrayList<>();
+		for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			paths.add(new File(path).getAbsolutePath());
+		}
+
+		return String.join(File.pathSeparator, paths);
+	}
+
+	private static void deleteProject(Path dir) throws IOException {
+		try (Stream<Path> files = Files.walk(dir)) {
+			for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(p);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,236 @@
+/*
+    This file is part of the DeadlockTracker detection tool
+    Copyleft (L) 2025 RonanLana
+
+    GNU General Public License v3.0
+
+    Permissions of this strong copyleft license are conditioned on making available complete
+    source code of licensed works and modifications, which include larger works using a licensed
+    work, under the same license. Copyright and license notices must be preserved. Contributors
+    provide an express grant of patent rights.
+ */
+package mapledeadlocktracker;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author RonanLana
+ */
+public class MapleDeadlockWatchModeTest {
+
+	// run with the tracker classes in the classpath, e.g. java -cp bin:lib/antlr4-runtime-4.7.1.jar mapledeadlocktracker.MapleDeadlockWatchModeTest
+	private static final int PROJECT_CLASSES = 12;
+
+	private static final String REPORT_START = "Lock dependency:";
+	private static final String UPDATE_END = "Project analysis updated";
+	private static final String PARTIAL_TYPING = "Functions typed again:";
+
+	// each edit is applied to the watched project, the updated report must match a full run over the edited sources
+	private static final String[][] EDITS = {
+		{"C0", "    public void m0() {\n", "    public void m0() {\n        lk.lock();\n        c1.grab();\n        lk.unlock();\n"},     // a body only, typed again alone
+		{"C3", "    public void run() {\n", "    public void run() {\n        ax.lock();\n        c4.m1();\n        ax.unlock();\n"},
+		{"C7", "    public void drop() {\n", "    public void m3() {\n        lk.lock();\n    }\n    public void drop() {\n"},     // a new method, every function typed again
+		{"C0", "        lk.lock();\n        c1.grab();\n        lk.unlock();\n", ""}
+	};
+	private static final boolean[] PARTIAL_EDITS = {true, true, false, true};
+
+	public static void main(String[] args) throws Exception {
+		int failures = 0;
+
+		Path dir = Files.createTempDirectory("deadlocktracker");
+		Path full = Files.createTempDirectory("deadlocktracker");
+		Process p = null;
+		try {
+			generateProject(dir);
+			writeConfig(dir, "watch_mode=true");
+
+			p = startTracker(dir);
+			BufferedReader out = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8));
+			readUntil(out, "Watching");
+
+			for (int i = 0; i < EDITS.length; i++) {
+				Path file = dir.resolve("src").resolve("gen").resolve(EDITS[i][0] + ".java");
+				String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+				if (!source.contains(EDITS[i][1])) {
+					throw new IOException("Edit " + (i + 1) + " doesn't apply to " + file);
+				}
+				Files.write(file, source.replace(EDITS[i][1], EDITS[i][2]).getBytes(StandardCharsets.UTF_8));
+
+				String update = readUntil(out, UPDATE_END);
+				int idx = update.indexOf(REPORT_START);
+				if (idx < 0) {
+					throw new IOException("No report in the updated analysis:\n" + update);
+				}
+
+				if (update.contains(PARTIAL_TYPING) != PARTIAL_EDITS[i]) {
+					System.out.println("edit " + (i + 1) + ": " + (PARTIAL_EDITS[i] ? "every function typed again" : "functions taken over across a declaration change"));
+					System.out.println(update);
+					failures++;
+				}
+
+				copyProject(dir, full);
+				writeConfig(full);
+				failures += compareReports(i + 1, runTracker(full), update.substring(idx));
+			}
+		} finally {
+			if (p != null) {
+				p.destroy();
+				p.waitFor();
+			}
+			deleteProject(dir);
+			deleteProject(full);
+		}
+
+		if (failures > 0) {
+			System.out.println(failures + " update(s) differ from a full run");
+			System.exit(1);
+		}
+
+		System.out.println("All updates match a full run");
+	}
+
+	private static int compareReports(int edit, String expected, String actual) {
+		if (expected.equals(actual)) {
+			System.out.println("edit " + edit + ": same");
+			return 0;
+		}
+
+		System.out.println("edit " + edit + ": DIFF");
+		System.out.println("---- expected");
+		System.out.println(expected);
+		System.out.println("---- actual");
+		System.out.println(actual);
+		return 1;
+	}
+
+	private static String readUntil(BufferedReader out, String mark) throws IOException {
+		StringBuilder sb = new StringBuilder();
+
+		String line;
+		while ((line = out.readLine()) != null) {
+			if (line.startsWith(mark)) {
+				return sb.toString();
+			}
+			sb.append(line).append('\n');
+		}
+
+		throw new IOException("Tracker stopped before '" + mark + "':\n" + sb);
+	}
+
+	private static void writeConfig(Path dir, String... modes) throws IOException {
+		List<String> config = new ArrayList<>();
+		config.add("src_folder=src");
+		config.add("language=Java");
+		config.add("extensions=java");
+		config.add("entry_points=handlePacket,run");
+		config.add("cache_folder=");
+		config.addAll(Arrays.asList(modes));
+		Files.write(dir.resolve("config.cfg"), config, StandardCharsets.UTF_8);
+	}
+
+	private static Process startTracker(Path dir) throws IOException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder pb = new ProcessBuilder(java, "-cp", getClassPath(), MapleDeadlockTracker.class.getName());
+		pb.directory(dir.toFile());
+		pb.redirectErrorStream(true);
+
+		return pb.start();
+	}
+
+	private static String runTracker(Path dir) throws IOException, InterruptedException {
+		Process p = startTracker(dir);
+		String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		if (p.waitFor() != 0) {
+			throw new IOException("Tracker exited with " + p.exitValue() + ":\n" + out);
+		}
+
+		int idx = out.indexOf(REPORT_START);
+		if (idx < 0) {
+			throw new IOException("No report in the tracker output:\n" + out);
+		}
+
+		return out.substring(idx);
+	}
+
+	private static String getClassPath() {
+		// the tracker runs from the project folder, so relative entries are resolved here
+		List<String> paths = new ArrayList<>();
+		for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			paths.add(new File(path).getAbsolutePath());
+		}
+
+		return String.join(File.pathSeparator, paths);
+	}
+
+	private static void generateProject(Path dir) throws IOException {
+		// a ring of classes, each one locking its own locks around calls into the next two
+		Path src = dir.resolve("src").resolve("gen");
+		Files.createDirectories(src);
+
+		for (int i = 0; i < PROJECT_CLASSES; i++) {
+			int a = (i + 1) % PROJECT_CLASSES, b = (i + 2) % PROJECT_CLASSES;
+
+			StringBuilder sb = new StringBuilder();
+			sb.append("package gen;\n\n");
+			sb.append("import java.util.concurrent.locks.Lock;\n");
+			sb.append("import java.util.concurrent.locks.ReentrantLock;\n\n");
+			sb.append("public class C").append(i).append(" {\n");
+			sb.append("    private final Lock lk = new ReentrantLock();\n");
+			sb.append("    private final Lock ax = new ReentrantLock();\n");
+			sb.append("    private C").append(a).append(" c").append(a).append(";\n");
+			sb.append("    private C").append(b).append(" c").append(b).append(";\n");
+			sb.append("    public void grab() {\n        lk.lock();\n    }\n");
+			sb.append("    public void drop() {\n        lk.unlock();\n    }\n");
+			sb.append("    public void m0() {\n        c").append(a).append(".m1();\n    }\n");
+			sb.append("    public void m1() {\n        ax.lock();\n        c").append(b).append(".grab();\n        ax.unlock();\n    }\n");
+			sb.append("    public void m2() {\n        lk.lock();\n        c").append(a).append(".m0();\n        lk.unlock();\n    }\n");
+			sb.append("    public void run() {\n        m2();\n    }\n");
+			if (i % 3 == 0) {
+				sb.append("    public void handlePacket() {\n        c").append(b).append(".m2();\n    }\n");
+			}
+			sb.append("}\n");
+
+			Files.write(src.resolve("C" + i + ".java"), sb.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static void copyProject(Path from, Path to) throws IOException {
+		deleteProject(to);
+		try (Stream<Path> files = Files.walk(from)) {
+			for (Path p : (Iterable<Path>) files::iterator) {
+				Path q = to.resolve(from.relativize(p));
+				if (Files.isDirectory(p)) {
+					Files.createDirectories(q);
+				} else {
+					Files.copy(p, q, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		}
+	}
+
+	private static void deleteProject(Path dir) throws IOException {
+		if (!Files.exists(dir)) {
+			return;
+		}
+
+		try (Stream<Path> files = Files.walk(dir)) {
+			for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(p);
+			}
+		}
+	}
+
+}